@@ -27,11 +27,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
 import org.sonarsource.sonarlint.core.rpc.protocol.client.hotspot.RaisedHotspotDto;
 import org.sonarsource.sonarlint.core.rpc.protocol.client.issue.RaisedFindingDto;
 import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient.GetJavaConfigResponse;
+import org.sonarsource.sonarlint.ls.connected.IssueStatusChangePermissionsCache;
 import org.sonarsource.sonarlint.ls.file.OpenFilesCache;
 import org.sonarsource.sonarlint.ls.file.VersionedOpenFile;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFolderWrapper;
@@ -42,6 +47,7 @@ import org.sonarsource.sonarlint.ls.notebooks.NotebookDiagnosticPublisher;
 import org.sonarsource.sonarlint.ls.notebooks.OpenNotebooksCache;
 import org.sonarsource.sonarlint.ls.settings.SettingsManager;
 import org.sonarsource.sonarlint.ls.settings.WorkspaceFolderSettings;
+import org.sonarsource.sonarlint.ls.util.Utils;
 
 import static java.lang.String.format;
 import static java.util.function.Function.identity;
@@ -59,12 +65,17 @@ public class AnalysisHelper {
   private final OpenNotebooksCache openNotebooksCache;
   private final NotebookDiagnosticPublisher notebookDiagnosticPublisher;
   private final OpenFilesCache openFilesCache;
+  private final AnalysisVersionTracker analysisVersionTracker;
+  private final IssueStatusChangePermissionsCache issueStatusChangePermissionsCache;
+  private final ScheduledExecutorService publicationScheduler;
+  private final PublicationThrottler issuesPublicationThrottler;
+  private final PublicationThrottler hotspotsPublicationThrottler;
 
   public AnalysisHelper(SonarLintExtendedLanguageClient client, LanguageClientLogger clientLogger,
     WorkspaceFoldersManager workspaceFoldersManager, JavaConfigCache javaConfigCache, SettingsManager settingsManager,
     IssuesCache issuesCache, HotspotsCache securityHotspotsCache, DiagnosticPublisher diagnosticPublisher,
     OpenNotebooksCache openNotebooksCache, NotebookDiagnosticPublisher notebookDiagnosticPublisher,
-    OpenFilesCache openFilesCache) {
+    OpenFilesCache openFilesCache, AnalysisVersionTracker analysisVersionTracker, IssueStatusChangePermissionsCache issueStatusChangePermissionsCache) {
     this.client = client;
     this.clientLogger = clientLogger;
     this.workspaceFoldersManager = workspaceFoldersManager;
@@ -76,6 +87,27 @@ public class AnalysisHelper {
     this.openNotebooksCache = openNotebooksCache;
     this.notebookDiagnosticPublisher = notebookDiagnosticPublisher;
     this.openFilesCache = openFilesCache;
+    this.analysisVersionTracker = analysisVersionTracker;
+    this.issueStatusChangePermissionsCache = issueStatusChangePermissionsCache;
+    this.publicationScheduler = Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("SonarLint Language Server findings publisher", true));
+    var frameIntervalMs = PublicationThrottler.getFrameIntervalMs(clientLogger);
+    this.issuesPublicationThrottler = new PublicationThrottler(publicationScheduler, clientLogger, frameIntervalMs);
+    this.hotspotsPublicationThrottler = new PublicationThrottler(publicationScheduler, clientLogger, frameIntervalMs);
+  }
+
+  public void shutdown() {
+    clientLogger.debug(format("Findings publications: %d issues and %d hotspots publications, %d and %d skipped by rate limiting, %d stale dropped",
+      issuesPublicationThrottler.getPublishedCount(), hotspotsPublicationThrottler.getPublishedCount(), issuesPublicationThrottler.getSkippedCount(),
+      hotspotsPublicationThrottler.getSkippedCount(), getDroppedStalePublicationsCount()));
+    Utils.shutdownAndAwait(publicationScheduler, true);
+  }
+
+  /**
+   * Pending publications of a closed file must not run after its diagnostics were cleared.
+   */
+  public void didClose(URI fileUri) {
+    issuesPublicationThrottler.forget(fileUri);
+    hotspotsPublicationThrottler.forget(fileUri);
   }
 
   private void clearIssueCacheAndPublishEmptyDiagnostics(URI f) {
@@ -86,8 +118,7 @@ public class AnalysisHelper {
 
   private Map<URI, GetJavaConfigResponse> collectJavaFilesWithConfig(Map<URI, VersionedOpenFile> javaFiles) {
     Map<URI, GetJavaConfigResponse> javaFilesWithConfig = new HashMap<>();
-    javaFiles.forEach((uri, openFile) -> {
-      var javaConfigOpt = javaConfigCache.getOrFetch(uri);
+    javaConfigCache.getOrFetch(javaFiles.keySet()).forEach((uri, javaConfigOpt) -> {
       if (javaConfigOpt.isEmpty()) {
         clientLogger.debug(format("Analysis of Java file \"%s\" may not show all issues because SonarLint" +
           " was unable to query project configuration (classpath, source level, ...)", uri));
@@ -99,29 +130,68 @@ public class AnalysisHelper {
     return javaFilesWithConfig;
   }
 
-  public void handleIssues(Map<URI, List<RaisedFindingDto>> issuesByFileUri) {
-    issuesCache.reportIssues(issuesByFileUri);
-    issuesByFileUri.forEach((uri, issues) -> {
-      diagnosticPublisher.publishDiagnostics(uri, true);
-      openNotebooksCache.getFile(uri).ifPresent(notebook -> {
-        // clean up old diagnostics
-        notebookDiagnosticPublisher.cleanupCellsList(uri);
-        notebookDiagnosticPublisher.cleanupDiagnosticsForCellsWithoutIssues(uri);
-        notebookDiagnosticPublisher.publishNotebookDiagnostics(uri, notebook);
-      });
-    });
+  public void handleIssues(Map<URI, List<RaisedFindingDto>> raisedIssuesByFileUri, boolean isIntermediatePublication, @Nullable UUID analysisId) {
+    var issuesByFileUri = withoutStaleFindings(raisedIssuesByFileUri, isIntermediatePublication, analysisId);
+    if (isIntermediatePublication) {
+      issuesCache.mergeIssues(issuesByFileUri);
+      issuesByFileUri.keySet().forEach(uri -> issuesPublicationThrottler.publishIntermediate(uri, () -> publishIssues(uri)));
+    } else {
+      issuesCache.reportIssues(issuesByFileUri);
+      issuesByFileUri.keySet().forEach(uri -> issuesPublicationThrottler.publishFinal(uri, () -> {
+        publishIssues(uri);
+        // Resolve issue code actions are then computed without waiting for the server
+        issueStatusChangePermissionsCache.warmUp(uri, issuesCache.get(uri).values());
+      }));
+    }
   }
 
-  public void handleHotspots(Map<URI, List<RaisedHotspotDto>> hotspotsByFileUri) {
-    securityHotspotsCache.reportHotspots(hotspotsByFileUri);
-    hotspotsByFileUri.forEach((uri, issues) -> {
-      diagnosticPublisher.publishHotspots(uri);
+  private void publishIssues(URI uri) {
+    diagnosticPublisher.publishDiagnostics(uri, true);
+    openNotebooksCache.getFile(uri).ifPresent(notebook -> {
+      // clean up old diagnostics
+      notebookDiagnosticPublisher.cleanupCellsList(uri);
       notebookDiagnosticPublisher.cleanupDiagnosticsForCellsWithoutIssues(uri);
-      openNotebooksCache.getFile(uri).ifPresent(notebook -> notebookDiagnosticPublisher.publishNotebookDiagnostics(uri, notebook));
+      notebookDiagnosticPublisher.publishNotebookDiagnostics(uri, notebook);
     });
   }
 
+  public void handleHotspots(Map<URI, List<RaisedHotspotDto>> raisedHotspotsByFileUri, boolean isIntermediatePublication, @Nullable UUID analysisId) {
+    var hotspotsByFileUri = withoutStaleFindings(raisedHotspotsByFileUri, isIntermediatePublication, analysisId);
+    if (isIntermediatePublication) {
+      securityHotspotsCache.mergeHotspots(hotspotsByFileUri);
+      hotspotsByFileUri.keySet().forEach(uri -> hotspotsPublicationThrottler.publishIntermediate(uri, () -> publishHotspots(uri)));
+    } else {
+      securityHotspotsCache.reportHotspots(hotspotsByFileUri);
+      hotspotsByFileUri.keySet().forEach(uri -> hotspotsPublicationThrottler.publishFinal(uri, () -> publishHotspots(uri)));
+    }
+  }
+
+  private void publishHotspots(URI uri) {
+    diagnosticPublisher.publishHotspots(uri);
+    notebookDiagnosticPublisher.cleanupDiagnosticsForCellsWithoutIssues(uri);
+    openNotebooksCache.getFile(uri).ifPresent(notebook -> notebookDiagnosticPublisher.publishNotebookDiagnostics(uri, notebook));
+  }
+
+  private <T> Map<URI, List<T>> withoutStaleFindings(Map<URI, List<T>> findingsByFileUri, boolean isIntermediatePublication, @Nullable UUID analysisId) {
+    var staleFileUris = findingsByFileUri.keySet().stream()
+      .filter(uri -> !analysisVersionTracker.accept(uri, analysisId, isIntermediatePublication))
+      .toList();
+    if (staleFileUris.isEmpty()) {
+      return findingsByFileUri;
+    }
+    clientLogger.debug(format("Ignoring findings of analysis %s, a more recent analysis completed for %s", analysisId, staleFileUris));
+    var result = new HashMap<>(findingsByFileUri);
+    staleFileUris.forEach(result::remove);
+    return result;
+  }
+
+  public long getDroppedStalePublicationsCount() {
+    return analysisVersionTracker.getDroppedStalePublicationsCount();
+  }
+
   public Map<String, String> getInferredAnalysisProperties(String configurationScopeId, List<URI> filesToAnalyzeUris) {
+    // Properties are requested when an analysis starts
+    analysisVersionTracker.analysisStarted(filesToAnalyzeUris);
     // Need to analyze files outside any workspace folder as well
     var workspaceFolder = configurationScopeId.equals(ROOT_CONFIGURATION_SCOPE) ?
       Optional.empty() : workspaceFoldersManager.getFolder(URI.create(configurationScopeId));
@@ -0,0 +1,165 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * Track, per open file, the document version each analysis was started for, to drop the findings of analyses older than the latest
+ * completed one.
+ * <p>
+ * The backend does not tell which version of a file it analyzes. An analysis is assumed to be for the last version of the file sent
+ * to the backend when the analysis started. When the analysis id is known at start, e.g. for analyses forced by the language server,
+ * the id is recorded with this version. Otherwise, the start is only known from the request of analysis properties, and the id is bound
+ * to the oldest start not yet bound to an id the first time findings are raised with this id, which assumes the backend raises findings
+ * in the order analyses were started. Starts older than the latest completed analysis are discarded, so that an analysis that never
+ * raised findings, e.g. because it was cancelled, does not shift the binding of the next ones.
+ * <p>
+ * Findings are only dropped when their version is known: an id that was never recorded, and for which no start is pending, is accepted
+ * without changing the latest completed version.
+ */
+class AnalysisVersionTracker {
+
+  static final int MAX_TRACKED_ANALYSES_PER_FILE = 16;
+  private static final int UNKNOWN_VERSION = Integer.MIN_VALUE;
+
+  private final Map<URI, FileAnalyses> analysesPerFileUri = new ConcurrentHashMap<>();
+  private final AtomicLong droppedStalePublicationsCount = new AtomicLong();
+
+  void didSendContent(URI fileUri, int version) {
+    var analyses = analysesPerFileUri.computeIfAbsent(fileUri, k -> new FileAnalyses());
+    synchronized (analyses) {
+      analyses.sentVersion = version;
+    }
+  }
+
+  /**
+   * @return the last version of each file sent to the backend, to be recorded with {@link #analysisStarted(UUID, Map)} once the
+   * analysis id is known
+   */
+  Map<URI, Integer> getSentVersions(Collection<URI> fileUris) {
+    var sentVersionPerFileUri = new HashMap<URI, Integer>();
+    for (var fileUri : fileUris) {
+      var analyses = analysesPerFileUri.get(fileUri);
+      if (analyses != null) {
+        synchronized (analyses) {
+          sentVersionPerFileUri.put(fileUri, analyses.sentVersion);
+        }
+      }
+    }
+    return sentVersionPerFileUri;
+  }
+
+  /**
+   * An analysis started for the given files, but its id is not known yet.
+   */
+  void analysisStarted(Collection<URI> fileUris) {
+    for (var fileUri : fileUris) {
+      var analyses = analysesPerFileUri.get(fileUri);
+      if (analyses != null) {
+        synchronized (analyses) {
+          if (analyses.pendingStartedVersions.size() == MAX_TRACKED_ANALYSES_PER_FILE) {
+            analyses.pendingStartedVersions.removeFirst();
+          }
+          analyses.pendingStartedVersions.addLast(analyses.sentVersion);
+        }
+      }
+    }
+  }
+
+  /**
+   * An analysis with a known id started for the given versions of the files.
+   */
+  void analysisStarted(UUID analysisId, Map<URI, Integer> startedVersionPerFileUri) {
+    startedVersionPerFileUri.forEach((fileUri, version) -> {
+      var analyses = analysesPerFileUri.get(fileUri);
+      if (analyses != null) {
+        synchronized (analyses) {
+          analyses.versionPerAnalysisId.put(analysisId, version);
+          // The start of this analysis may also have been reported without its id
+          analyses.pendingStartedVersions.removeFirstOccurrence(version);
+        }
+      }
+    });
+  }
+
+  /**
+   * @return false if the findings come from an analysis of a version older than the latest completed analysis of the file
+   */
+  boolean accept(URI fileUri, @Nullable UUID analysisId, boolean isIntermediatePublication) {
+    var analyses = analysesPerFileUri.get(fileUri);
+    if (analysisId == null || analyses == null) {
+      return true;
+    }
+    synchronized (analyses) {
+      var version = analyses.versionPerAnalysisId.get(analysisId);
+      if (version == null) {
+        version = analyses.pendingStartedVersions.pollFirst();
+        if (version == null) {
+          // The analyzed version can't be determined, better show findings that may be stale than hide fresh ones
+          return true;
+        }
+        analyses.versionPerAnalysisId.put(analysisId, version);
+      }
+      if (version < analyses.latestCompletedVersion) {
+        droppedStalePublicationsCount.incrementAndGet();
+        return false;
+      }
+      if (!isIntermediatePublication) {
+        analyses.latestCompletedVersion = version;
+        // Findings of these analyses would be dropped anyway, and their starts would otherwise be bound to more recent analyses
+        var completedVersion = version;
+        analyses.pendingStartedVersions.removeIf(pendingVersion -> pendingVersion < completedVersion);
+      }
+      return true;
+    }
+  }
+
+  void forget(URI fileUri) {
+    analysesPerFileUri.remove(fileUri);
+  }
+
+  long getDroppedStalePublicationsCount() {
+    return droppedStalePublicationsCount.get();
+  }
+
+  private static class FileAnalyses {
+    private int sentVersion = UNKNOWN_VERSION;
+    private int latestCompletedVersion = UNKNOWN_VERSION;
+    // Versions of the analyses started without a known id, in start order
+    private final Deque<Integer> pendingStartedVersions = new ArrayDeque<>();
+    private final Map<UUID, Integer> versionPerAnalysisId = new LinkedHashMap<>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<UUID, Integer> eldest) {
+        return size() > MAX_TRACKED_ANALYSES_PER_FILE;
+      }
+    };
+  }
+}
@@ -22,13 +22,11 @@ package org.sonarsource.sonarlint.ls;
 import com.google.gson.JsonPrimitive;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
@@ -57,7 +55,6 @@ import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
 import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
 import org.jetbrains.annotations.NotNull;
 import org.sonarsource.sonarlint.core.rpc.protocol.SonarLintRpcErrorCode;
-import org.sonarsource.sonarlint.core.rpc.protocol.backend.issue.CheckStatusChangePermittedParams;
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.issue.EffectiveIssueDetailsDto;
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.rules.EffectiveRuleDetailsDto;
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.rules.GetStandaloneRuleDescriptionResponse;
@@ -82,6 +79,7 @@ import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient.ShowRuleDesc
 import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
 import org.sonarsource.sonarlint.ls.commands.ShowAllLocationsCommand;
 import org.sonarsource.sonarlint.ls.connected.DelegatingFinding;
+import org.sonarsource.sonarlint.ls.connected.IssueStatusChangePermissionsCache;
 import org.sonarsource.sonarlint.ls.connected.ProjectBinding;
 import org.sonarsource.sonarlint.ls.connected.ProjectBindingManager;
 import org.sonarsource.sonarlint.ls.connected.TaintVulnerabilitiesCache;
@@ -95,14 +93,12 @@ import org.sonarsource.sonarlint.ls.notebooks.VersionedOpenNotebook;
 import org.sonarsource.sonarlint.ls.settings.SettingsManager;
 import org.sonarsource.sonarlint.ls.telemetry.SonarLintTelemetry;
 import org.sonarsource.sonarlint.ls.util.EnumLabelsMapper;
-import org.sonarsource.sonarlint.ls.util.Utils;
 
 import static java.net.URI.create;
 import static org.sonarsource.sonarlint.core.client.utils.CleanCodeAttribute.fromDto;
 import static org.sonarsource.sonarlint.ls.backend.BackendService.ROOT_CONFIGURATION_SCOPE;
 import static org.sonarsource.sonarlint.ls.clientapi.SonarLintVSCodeClient.SONARLINT_SOURCE;
 import static org.sonarsource.sonarlint.ls.util.EnumLabelsMapper.cleanCodeAttributeToLabel;
-import static org.sonarsource.sonarlint.ls.util.Utils.interrupted;
 
 public class CommandManager {
 
@@ -146,12 +142,13 @@ public class CommandManager {
   private final BackendServiceFacade backendServiceFacade;
   private final WorkspaceFoldersManager workspaceFoldersManager;
   private final OpenNotebooksCache openNotebooksCache;
+  private final IssueStatusChangePermissionsCache issueStatusChangePermissionsCache;
   private final LanguageClientLogger logOutput;
 
   CommandManager(SonarLintExtendedLanguageClient client, SettingsManager settingsManager, ProjectBindingManager bindingManager,
     SonarLintTelemetry telemetry, TaintVulnerabilitiesCache taintVulnerabilitiesCache, IssuesCache issuesCache,
     HotspotsCache securityHotspotsCache, BackendServiceFacade backendServiceFacade, WorkspaceFoldersManager workspaceFoldersManager,
-    OpenNotebooksCache openNotebooksCache, LanguageClientLogger logOutput) {
+    OpenNotebooksCache openNotebooksCache, IssueStatusChangePermissionsCache issueStatusChangePermissionsCache, LanguageClientLogger logOutput) {
     this.client = client;
     this.settingsManager = settingsManager;
     this.bindingManager = bindingManager;
@@ -162,6 +159,7 @@ public class CommandManager {
     this.backendServiceFacade = backendServiceFacade;
     this.workspaceFoldersManager = workspaceFoldersManager;
     this.openNotebooksCache = openNotebooksCache;
+    this.issueStatusChangePermissionsCache = issueStatusChangePermissionsCache;
     this.logOutput = logOutput;
   }
 
@@ -244,14 +242,10 @@ public class CommandManager {
   private Optional<CodeAction> createResolveIssueCodeAction(Diagnostic diagnostic, URI uri, ProjectBinding binding, String ruleKey,
     DelegatingFinding raisedFindingDto) {
     if (raisedFindingDto.getIssueId() != null) {
-      var issueId = raisedFindingDto.getIssueId();
-      var serverIssueKey = raisedFindingDto.getServerIssueKey();
-      var key = serverIssueKey == null ? issueId.toString() : serverIssueKey;
-      var changeStatusPermittedResponse =
-        Utils.safelyGetCompletableFuture(backendServiceFacade.getBackendService().checkChangeIssueStatusPermitted(
-          new CheckStatusChangePermittedParams(binding.connectionId(), key)
-        ), logOutput);
-      if (changeStatusPermittedResponse.isPresent() && changeStatusPermittedResponse.get().isPermitted()) {
+      var key = IssueStatusChangePermissionsCache.issueKey(raisedFindingDto);
+      // When the permission is not known yet, the action is offered anyway: the client checks it again before changing the status
+      var isPermitted = issueStatusChangePermissionsCache.getIfAvailable(binding.connectionId(), key).orElse(true);
+      if (isPermitted) {
         return Optional.of(createResolveIssueCodeAction(diagnostic, ruleKey, key, uri, false));
       }
     }
@@ -324,26 +318,6 @@ public class CommandManager {
     return Either.forRight(newCodeAction);
   }
 
-  public Map<String, List<Rule>> listAllStandaloneRules() {
-    var result = new HashMap<String, List<Rule>>();
-    try {
-      return backendServiceFacade.getBackendService().listAllStandaloneRulesDefinitions()
-        .thenApply(response -> {
-          response.getRulesByKey().forEach((ruleKey, ruleDefinition) -> {
-            var language = ruleDefinition.getLanguage();
-            var languageName = LSLanguage.valueOf(language.name()).getLabel();
-            result.computeIfAbsent(languageName, k -> new ArrayList<>()).add(Rule.of(ruleDefinition));
-          });
-          return result;
-        }).get();
-    } catch (InterruptedException e) {
-      interrupted(e, logOutput);
-      return Map.of();
-    } catch (ExecutionException e) {
-      throw new IllegalStateException("Failed to list all standalone rules", e);
-    }
-  }
-
   private void openStandaloneRuleDescription(String ruleKey) {
     backendServiceFacade.getBackendService().getStandaloneRuleDetails(ruleKey)
       .thenAccept(detailsResponse -> showStandaloneRuleDescription(ruleKey, detailsResponse))
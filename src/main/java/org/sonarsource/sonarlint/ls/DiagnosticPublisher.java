@@ -22,7 +22,11 @@ package org.sonarsource.sonarlint.ls;
 import java.net.URI;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.DiagnosticSeverity;
@@ -64,6 +68,12 @@ public class DiagnosticPublisher {
 
   private boolean focusOnNewCode;
 
+  /**
+   * Last diagnostics sent to the client, per file URI. Used to skip notifications that would not change anything in the editor.
+   */
+  private final Map<URI, List<Diagnostic>> lastPublishedDiagnostics = new ConcurrentHashMap<>();
+  private final Map<URI, List<Diagnostic>> lastPublishedHotspots = new ConcurrentHashMap<>();
+
   public DiagnosticPublisher(SonarLintExtendedLanguageClient client, TaintVulnerabilitiesCache taintVulnerabilitiesCache,
     IssuesCache issuesCache, HotspotsCache hotspotsCache, OpenNotebooksCache openNotebooksCache, DependencyRisksCache dependencyRisksCache) {
     this.client = client;
@@ -84,9 +94,33 @@ public class DiagnosticPublisher {
       return;
     }
     if (!onlyIssues) {
-      client.publishSecurityHotspots(createPublishSecurityHotspotsParams(f));
+      publishIfChanged(lastPublishedHotspots, createPublishSecurityHotspotsParams(f), client::publishSecurityHotspots);
     }
-    client.publishDiagnostics(createPublishDiagnosticsParams(f));
+    publishIfChanged(lastPublishedDiagnostics, createPublishDiagnosticsParams(f), client::publishDiagnostics);
+  }
+
+  private static void publishIfChanged(Map<URI, List<Diagnostic>> lastPublished, PublishDiagnosticsParams params, Consumer<PublishDiagnosticsParams> publisher) {
+    var uri = URI.create(params.getUri());
+    var diagnostics = params.getDiagnostics();
+    if (diagnostics.equals(lastPublished.put(uri, diagnostics))) {
+      return;
+    }
+    // Not called under the lock of the map, the client may be slow or call back
+    publisher.accept(params);
+    var current = lastPublished.get(uri);
+    if (current != diagnostics) {
+      // A concurrent publication for the same file was recorded meanwhile, and the client may have received it before this one.
+      // Forget both so that the next publication is always sent.
+      lastPublished.remove(uri, current);
+    }
+  }
+
+  /**
+   * Forget what was published for this file, so that the next publication is always sent to the client.
+   */
+  public void forget(URI f) {
+    lastPublishedDiagnostics.remove(f);
+    lastPublishedHotspots.remove(f);
   }
 
   public void publishTaints(URI f) {
@@ -102,7 +136,7 @@ public class DiagnosticPublisher {
   }
 
   public void publishHotspots(URI f) {
-    client.publishSecurityHotspots(createPublishSecurityHotspotsParams(f));
+    publishIfChanged(lastPublishedHotspots, createPublishSecurityHotspotsParams(f), client::publishSecurityHotspots);
   }
 
   Diagnostic issueDtoToDiagnostic(Map.Entry<String, DelegatingFinding> entry) {
@@ -210,6 +244,25 @@ public class DiagnosticPublisher {
     public void setImpactSeverity(Integer impactSeverity) {
       this.impactSeverity = impactSeverity;
     }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      var that = (DiagnosticData) o;
+      return isAiCodeFixable == that.isAiCodeFixable && isOnNewCode == that.isOnNewCode && hasQuickFix == that.hasQuickFix
+        && Objects.equals(entryKey, that.entryKey) && Objects.equals(serverIssueKey, that.serverIssueKey) && status == that.status
+        && Objects.equals(impactSeverity, that.impactSeverity);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(entryKey, serverIssueKey, status, isAiCodeFixable, isOnNewCode, hasQuickFix, impactSeverity);
+    }
   }
 
   public static void setSource(Diagnostic diagnostic, DelegatingFinding issue) {
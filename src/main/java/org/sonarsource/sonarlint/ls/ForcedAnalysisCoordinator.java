@@ -20,8 +20,11 @@
 package org.sonarsource.sonarlint.ls;
 
 import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
@@ -30,6 +33,7 @@ import org.sonarsource.sonarlint.ls.file.OpenFilesCache;
 import org.sonarsource.sonarlint.ls.file.VersionedOpenFile;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFolderWrapper;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFoldersManager;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
 import org.sonarsource.sonarlint.ls.notebooks.OpenNotebooksCache;
 import org.sonarsource.sonarlint.ls.notebooks.VersionedOpenNotebook;
 import org.sonarsource.sonarlint.ls.settings.SettingsManager;
@@ -53,9 +57,19 @@ public class ForcedAnalysisCoordinator implements WorkspaceSettingsChangeListene
   private final SonarLintExtendedLanguageClient client;
   private final BackendServiceFacade backendServiceFacade;
   private final SettingsManager settingsManager;
+  private final AnalysisVersionTracker analysisVersionTracker;
+  private final PrioritizedAnalysisScheduler analysisScheduler;
 
   public ForcedAnalysisCoordinator(WorkspaceFoldersManager workspaceFoldersManager, ProjectBindingManager bindingManager, OpenFilesCache openFilesCache,
-    OpenNotebooksCache openNotebooksCache, SonarLintExtendedLanguageClient client, BackendServiceFacade backendServiceFacade, SettingsManager settingsManager) {
+    OpenNotebooksCache openNotebooksCache, SonarLintExtendedLanguageClient client, BackendServiceFacade backendServiceFacade, SettingsManager settingsManager,
+    AnalysisVersionTracker analysisVersionTracker, LanguageClientLogger lsLogOutput) {
+    this(workspaceFoldersManager, bindingManager, openFilesCache, openNotebooksCache, client, backendServiceFacade, settingsManager, analysisVersionTracker,
+      analyzer -> new PrioritizedAnalysisScheduler(analyzer, lsLogOutput));
+  }
+
+  ForcedAnalysisCoordinator(WorkspaceFoldersManager workspaceFoldersManager, ProjectBindingManager bindingManager, OpenFilesCache openFilesCache,
+    OpenNotebooksCache openNotebooksCache, SonarLintExtendedLanguageClient client, BackendServiceFacade backendServiceFacade, SettingsManager settingsManager,
+    AnalysisVersionTracker analysisVersionTracker, Function<BiConsumer<URI, List<URI>>, PrioritizedAnalysisScheduler> schedulerFactory) {
     this.workspaceFoldersManager = workspaceFoldersManager;
     this.bindingManager = bindingManager;
     this.openFilesCache = openFilesCache;
@@ -63,6 +77,8 @@ public class ForcedAnalysisCoordinator implements WorkspaceSettingsChangeListene
     this.backendServiceFacade = backendServiceFacade;
     this.client = client;
     this.settingsManager = settingsManager;
+    this.analysisVersionTracker = analysisVersionTracker;
+    this.analysisScheduler = schedulerFactory.apply(this::analyzeFilesList);
   }
 
   public void analyzeAllOpenFilesInFolder(@Nullable WorkspaceFolderWrapper folder) {
@@ -84,13 +100,23 @@ public class ForcedAnalysisCoordinator implements WorkspaceSettingsChangeListene
           .stream().filter(it -> notIgnoredFileUris.getFileUris().contains(it.getUri().toString()))
           .toList();
         var filesByMaybeFolderUri = notIgnoredFiles.stream().collect(groupingBy(f -> workspaceFoldersManager.findFolderForFile(f.getUri())));
+        var filesToAnalysePerFolderUri = new LinkedHashMap<URI, List<URI>>();
         for (var entry : filesByMaybeFolderUri.entrySet()) {
           var maybeFolderUri = entry.getKey();
           var filesToAnalyse = entry.getValue().stream().map(VersionedOpenFile::getUri).toList();
-          if (maybeFolderUri.isPresent()) {
-            var folderUri = maybeFolderUri.get().getUri();
-            backendServiceFacade.getBackendService().analyzeFilesList(folderUri.toString(), filesToAnalyse);
-          }
+          maybeFolderUri.ifPresent(folder -> filesToAnalysePerFolderUri.put(folder.getUri(), filesToAnalyse));
+        }
+        analysisScheduler.schedule(filesToAnalysePerFolderUri);
+      });
+  }
+
+  private void analyzeFilesList(URI folderUri, List<URI> fileUris) {
+    var sentVersions = analysisVersionTracker.getSentVersions(fileUris);
+    backendServiceFacade.getBackendService().analyzeFilesList(folderUri.toString(), fileUris)
+      .thenAccept(response -> {
+        var analysisId = response.getAnalysisId();
+        if (analysisId != null) {
+          analysisVersionTracker.analysisStarted(analysisId, sentVersions);
         }
       });
   }
@@ -158,6 +184,17 @@ public class ForcedAnalysisCoordinator implements WorkspaceSettingsChangeListene
     analyzeAllOpenJavaFiles();
   }
 
+  /**
+   * Hint from the client about the documents currently visible in the editor, whose analysis is submitted first.
+   */
+  public void didChangeVisibleDocuments(List<URI> visibleDocumentUris, @Nullable URI activeDocumentUri) {
+    analysisScheduler.didChangeVisibleFiles(visibleDocumentUris, activeDocumentUri);
+  }
+
+  public void shutdown() {
+    analysisScheduler.shutdown();
+  }
+
   public void didServerModeChange(SonarLintExtendedLanguageServer.ServerMode serverMode) {
     if (serverMode == SonarLintExtendedLanguageServer.ServerMode.STANDARD) {
       analyzeAllOpenJavaFiles();
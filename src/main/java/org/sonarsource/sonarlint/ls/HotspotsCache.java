@@ -35,10 +35,8 @@ import org.sonarsource.sonarlint.core.rpc.protocol.client.hotspot.RaisedHotspotD
 import org.sonarsource.sonarlint.ls.connected.DelegatingHotspot;
 import org.sonarsource.sonarlint.ls.file.VersionedOpenFile;
 
-import static org.sonarsource.sonarlint.ls.util.Utils.isDelegatingIssueWithServerIssueKey;
-
 public class HotspotsCache {
-  private final Map<URI, Map<String, DelegatingHotspot>> hotspotsPerIdPerFileURI = new ConcurrentHashMap<>();
+  private final Map<URI, IndexedFindings<DelegatingHotspot>> hotspotsPerIdPerFileURI = new ConcurrentHashMap<>();
 
   public void clear(URI fileUri) {
     hotspotsPerIdPerFileURI.remove(fileUri);
@@ -60,55 +58,43 @@ public class HotspotsCache {
   }
 
   public void reportHotspots(Map<URI, List<RaisedHotspotDto>> hotspotsByFileUri) {
-    hotspotsByFileUri.forEach((fileUri, hotspots) -> {
-      if (hotspotsPerIdPerFileURI.containsKey(fileUri)) {
-        hotspotsPerIdPerFileURI.get(fileUri).clear();
-      }
-      hotspotsPerIdPerFileURI.computeIfAbsent(fileUri, a -> new ConcurrentHashMap<>())
-        .putAll(hotspots.stream().collect(Collectors.toMap(i -> i.getId().toString(), i -> new DelegatingHotspot(i, fileUri, i.getStatus(), i.getVulnerabilityProbability()))));
-    });
+    hotspotsByFileUri.forEach((fileUri, hotspots) -> hotspotsPerIdPerFileURI.computeIfAbsent(fileUri, a -> new IndexedFindings<>())
+      .replaceAll(toDelegatingHotspots(fileUri, hotspots)));
   }
 
-  public void removeFindingWithServerKey(String fileUriStr, String key) {
-    var fileUri = URI.create(fileUriStr);
-    var hotspots = hotspotsPerIdPerFileURI.get(fileUri);
-    if (hotspots != null) {
-      var first = hotspots.entrySet()
-        .stream()
-        .filter(hotspotEntry -> isDelegatingIssueWithServerIssueKey(key, hotspotEntry.getValue()) || isLocalIssueWithKey(key, hotspotEntry.getValue()))
-        .map(Map.Entry::getKey)
-        .findFirst();
-      first.ifPresent(hotspots::remove);
-    }
+  /**
+   * Merge the hotspots of an intermediate publication with the known ones, that will be reconciled by the final publication.
+   */
+  public void mergeHotspots(Map<URI, List<RaisedHotspotDto>> hotspotsByFileUri) {
+    hotspotsByFileUri.forEach((fileUri, hotspots) -> hotspotsPerIdPerFileURI.computeIfAbsent(fileUri, a -> new IndexedFindings<>())
+      .putAll(toDelegatingHotspots(fileUri, hotspots)));
   }
 
-  private static boolean isLocalIssueWithKey(String key, DelegatingHotspot findingDto) {
-    return key.equals(findingDto.getIssueId().toString());
+  private static List<DelegatingHotspot> toDelegatingHotspots(URI fileUri, List<RaisedHotspotDto> hotspots) {
+    return hotspots.stream().map(i -> new DelegatingHotspot(i, fileUri, i.getStatus(), i.getVulnerabilityProbability())).toList();
   }
 
-  public Optional<Map.Entry<String, RaisedHotspotDto>> findHotspotPerId(String fileUriStr, String serverIssueKey) {
-    var fileUri = URI.create(fileUriStr);
-    var hotspots = hotspotsPerIdPerFileURI.get(fileUri);
+  /**
+   * @param key either the server issue key, or the local id of the hotspot
+   */
+  public void removeFindingWithServerKey(String fileUriStr, String key) {
+    var hotspots = hotspotsPerIdPerFileURI.get(URI.create(fileUriStr));
     if (hotspots != null) {
-      return hotspots.entrySet()
-        .stream()
-        .filter(hotspotEntry -> isDelegatingIssueWithServerIssueKey(serverIssueKey, hotspotEntry.getValue()))
-        .findFirst()
-        .map(entry -> Map.entry(entry.getKey(), entry.getValue().getRaisedHotspotDto()));
+      hotspots.remove(key);
     }
-    return Optional.empty();
+  }
+
+  public Optional<Map.Entry<String, RaisedHotspotDto>> findHotspotPerId(String fileUriStr, String serverIssueKey) {
+    return Optional.ofNullable(hotspotsPerIdPerFileURI.get(URI.create(fileUriStr)))
+      .flatMap(hotspots -> hotspots.findByServerKey(serverIssueKey))
+      .map(hotspot -> Map.entry(hotspot.getIssueId().toString(), hotspot.getRaisedHotspotDto()));
   }
 
   public void updateHotspotStatus(String fileUriStr, String serverIssueKey, HotspotStatus newStatus) {
-    var hotspotPerId = findHotspotPerId(fileUriStr, serverIssueKey);
-    if (hotspotPerId.isPresent()) {
-      var raisedFindings = hotspotPerId.get().getValue();
-      var delegatingHotspot = new DelegatingHotspot(raisedFindings, URI.create(fileUriStr), raisedFindings.getStatus(), raisedFindings.getVulnerabilityProbability());
-      var clonedDelegatingHotspot = delegatingHotspot.cloneWithNewStatus(newStatus);
-      var hotspotsByKey = hotspotsPerIdPerFileURI.get(URI.create(fileUriStr));
-      if (hotspotsByKey != null) {
-        hotspotsByKey.put(hotspotPerId.get().getKey(), clonedDelegatingHotspot);
-      }
+    var hotspots = hotspotsPerIdPerFileURI.get(URI.create(fileUriStr));
+    if (hotspots != null) {
+      hotspots.findByServerKey(serverIssueKey)
+        .ifPresent(hotspot -> hotspots.put(hotspot.cloneWithNewStatus(newStatus)));
     }
   }
 
@@ -121,6 +107,7 @@ public class HotspotsCache {
   }
 
   public Map<String, DelegatingHotspot> get(URI fileUri) {
-    return hotspotsPerIdPerFileURI.getOrDefault(fileUri, Map.of());
+    var hotspots = hotspotsPerIdPerFileURI.get(fileUri);
+    return hotspots != null ? hotspots.asMap() : Map.of();
   }
 }
@@ -0,0 +1,85 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.sonarsource.sonarlint.ls.connected.DelegatingFinding;
+
+/**
+ * Findings of a single file, keyed by local id (the entry key), with a secondary index on server issue key.
+ * Writes are serialized to keep both maps consistent, reads are lock free.
+ */
+class IndexedFindings<T extends DelegatingFinding> {
+
+  private final Map<String, T> findingsPerEntryKey = new ConcurrentHashMap<>();
+  private final Map<String, String> entryKeyPerServerKey = new ConcurrentHashMap<>();
+  private final Map<String, T> unmodifiableView = Collections.unmodifiableMap(findingsPerEntryKey);
+
+  synchronized void replaceAll(Collection<T> findings) {
+    findingsPerEntryKey.clear();
+    entryKeyPerServerKey.clear();
+    findings.forEach(this::put);
+  }
+
+  /**
+   * Add or update the given findings, keeping the others.
+   */
+  synchronized void putAll(Collection<T> findings) {
+    findings.forEach(this::put);
+  }
+
+  synchronized void put(T finding) {
+    var entryKey = finding.getIssueId().toString();
+    var previous = findingsPerEntryKey.put(entryKey, finding);
+    if (previous != null && previous.getServerIssueKey() != null) {
+      entryKeyPerServerKey.remove(previous.getServerIssueKey(), entryKey);
+    }
+    if (finding.getServerIssueKey() != null) {
+      entryKeyPerServerKey.put(finding.getServerIssueKey(), entryKey);
+    }
+  }
+
+  /**
+   * @param key either a server issue key, or a local id
+   */
+  synchronized void remove(String key) {
+    var entryKey = entryKeyPerServerKey.getOrDefault(key, key);
+    var removed = findingsPerEntryKey.remove(entryKey);
+    if (removed != null && removed.getServerIssueKey() != null) {
+      entryKeyPerServerKey.remove(removed.getServerIssueKey(), entryKey);
+    }
+  }
+
+  Optional<T> findByServerKey(String serverIssueKey) {
+    var entryKey = entryKeyPerServerKey.get(serverIssueKey);
+    return Optional.ofNullable(entryKey != null ? findingsPerEntryKey.get(entryKey) : null);
+  }
+
+  /**
+   * @return an unmodifiable view of the findings, keyed by the string form of their local id
+   */
+  Map<String, T> asMap() {
+    return unmodifiableView;
+  }
+}
@@ -25,49 +25,46 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 import org.eclipse.lsp4j.Diagnostic;
 import org.sonarsource.sonarlint.core.rpc.protocol.client.issue.RaisedFindingDto;
 import org.sonarsource.sonarlint.ls.connected.DelegatingFinding;
 import org.sonarsource.sonarlint.ls.connected.DelegatingIssue;
 
-import static org.sonarsource.sonarlint.ls.util.Utils.isDelegatingIssueWithServerIssueKey;
-
 public class IssuesCache {
 
-  private final Map<URI, Map<String, DelegatingFinding>> issuesPerIdPerFileURI = new ConcurrentHashMap<>();
+  private final Map<URI, IndexedFindings<DelegatingFinding>> issuesPerIdPerFileURI = new ConcurrentHashMap<>();
 
   public void clear(URI fileUri) {
     issuesPerIdPerFileURI.remove(fileUri);
   }
 
   public void reportIssues(Map<URI, List<RaisedFindingDto>> issuesByFileUri) {
-    issuesByFileUri.forEach((fileUri, issues) -> {
-      if (issuesPerIdPerFileURI.containsKey(fileUri)) {
-        issuesPerIdPerFileURI.get(fileUri).clear();
-      }
-      issuesPerIdPerFileURI.computeIfAbsent(fileUri, a -> new ConcurrentHashMap<>())
-        .putAll(issues.stream().collect(Collectors.toMap(i -> i.getId().toString(), i -> new DelegatingIssue(i, fileUri))));
-    });
+    issuesByFileUri.forEach((fileUri, issues) -> issuesPerIdPerFileURI.computeIfAbsent(fileUri, a -> new IndexedFindings<>())
+      .replaceAll(toDelegatingIssues(fileUri, issues)));
+  }
+
+  /**
+   * Merge the issues of an intermediate publication with the known ones, that will be reconciled by the final publication.
+   */
+  public void mergeIssues(Map<URI, List<RaisedFindingDto>> issuesByFileUri) {
+    issuesByFileUri.forEach((fileUri, issues) -> issuesPerIdPerFileURI.computeIfAbsent(fileUri, a -> new IndexedFindings<>())
+      .putAll(toDelegatingIssues(fileUri, issues)));
+  }
+
+  private static List<DelegatingFinding> toDelegatingIssues(URI fileUri, List<RaisedFindingDto> issues) {
+    return issues.stream().<DelegatingFinding>map(i -> new DelegatingIssue(i, fileUri)).toList();
   }
 
+  /**
+   * @param key either the server issue key, or the local id of the issue
+   */
   public void removeFindingWithServerKey(String fileUriStr, String key) {
-    var fileUri = URI.create(fileUriStr);
-    var issues = issuesPerIdPerFileURI.get(fileUri);
+    var issues = issuesPerIdPerFileURI.get(URI.create(fileUriStr));
     if (issues != null) {
-      var first = issues.entrySet()
-        .stream()
-        .filter(issueEntry -> isDelegatingIssueWithServerIssueKey(key, issueEntry.getValue()) || isLocalIssueWithKey(key, issueEntry.getValue()))
-        .map(Map.Entry::getKey)
-        .findFirst();
-      first.ifPresent(issues::remove);
+      issues.remove(key);
     }
   }
 
-  private static boolean isLocalIssueWithKey(String key, DelegatingFinding findingDto) {
-    return key.equals(findingDto.getIssueId().toString());
-  }
-
   public Optional<DelegatingFinding> getIssueForDiagnostic(URI fileUri, Diagnostic d) {
     var issuesForFile = get(fileUri);
     return Optional.ofNullable(d.getData())
@@ -78,10 +75,11 @@ public class IssuesCache {
 
   public Optional<DelegatingFinding> getIssueById(URI fileUri, String issueId) {
     return Optional.ofNullable(issuesPerIdPerFileURI.get(fileUri))
-      .map(issues -> issues.get(issueId));
+      .map(issues -> issues.asMap().get(issueId));
   }
 
   public Map<String, DelegatingFinding> get(URI fileUri) {
-    return issuesPerIdPerFileURI.getOrDefault(fileUri, Map.of());
+    var issues = issuesPerIdPerFileURI.get(fileUri);
+    return issues != null ? issues.asMap() : Map.of();
   }
 }
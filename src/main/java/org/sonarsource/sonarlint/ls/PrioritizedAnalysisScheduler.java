@@ -0,0 +1,242 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
+import org.sonarsource.sonarlint.ls.util.CatchingRunnable;
+import org.sonarsource.sonarlint.ls.util.Utils;
+
+import static java.lang.String.format;
+
+/**
+ * Submit forced analyses of open files, starting with the documents visible in the editor.
+ * <p>
+ * The active document, then the other visible documents, are submitted immediately. Other files are split into batches of
+ * {@value #BATCH_SIZE_PROPERTY_KEY} files. Background batches are rate limited: the first ones are submitted immediately, then at most
+ * {@value #BATCHES_PER_INTERVAL_PROPERTY_KEY} batches are submitted every {@link #DEFAULT_BATCH_INTERVAL_MS} ms, so that a document becoming
+ * visible in the meantime does not wait behind all background files in the backend queue.
+ * <p>
+ * This does not bound the number of analyses running at the same time: the backend queues submitted analyses and does not report when
+ * they complete.
+ */
+class PrioritizedAnalysisScheduler {
+
+  static final String BATCH_SIZE_PROPERTY_KEY = "sonarlint.internal.analysis.backgroundBatchSize";
+  static final String BATCHES_PER_INTERVAL_PROPERTY_KEY = "sonarlint.internal.analysis.backgroundBatchesPerInterval";
+  static final int DEFAULT_BATCH_SIZE = 10;
+  static final int DEFAULT_BATCHES_PER_INTERVAL = 2;
+  static final long DEFAULT_BATCH_INTERVAL_MS = 500;
+
+  private final BiConsumer<URI, List<URI>> analyzer;
+  private final ScheduledExecutorService scheduler;
+  private final LanguageClientLogger lsLogOutput;
+  private final int batchSize;
+  private final int batchesPerInterval;
+  private final long batchIntervalMs;
+
+  // Guarded by this
+  private final Deque<Batch> backgroundBatches = new ArrayDeque<>();
+  private boolean drainScheduled;
+  private Set<URI> visibleFileUris = Set.of();
+  @Nullable
+  private URI activeFileUri;
+
+  private final AtomicLong priorityFilesCount = new AtomicLong();
+  private final AtomicLong backgroundFilesCount = new AtomicLong();
+  private final AtomicLong backgroundBatchesCount = new AtomicLong();
+
+  PrioritizedAnalysisScheduler(BiConsumer<URI, List<URI>> analyzer, LanguageClientLogger lsLogOutput) {
+    this(analyzer, Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("SonarLint Language Server analysis scheduler", true)), lsLogOutput,
+      getPositiveIntProperty(BATCH_SIZE_PROPERTY_KEY, DEFAULT_BATCH_SIZE, lsLogOutput),
+      getPositiveIntProperty(BATCHES_PER_INTERVAL_PROPERTY_KEY, DEFAULT_BATCHES_PER_INTERVAL, lsLogOutput),
+      DEFAULT_BATCH_INTERVAL_MS);
+  }
+
+  PrioritizedAnalysisScheduler(BiConsumer<URI, List<URI>> analyzer, ScheduledExecutorService scheduler, LanguageClientLogger lsLogOutput, int batchSize,
+    int batchesPerInterval, long batchIntervalMs) {
+    this.analyzer = analyzer;
+    this.scheduler = scheduler;
+    this.lsLogOutput = lsLogOutput;
+    this.batchSize = batchSize;
+    this.batchesPerInterval = batchesPerInterval;
+    this.batchIntervalMs = batchIntervalMs;
+  }
+
+  static int getPositiveIntProperty(String key, int defaultValue, LanguageClientLogger lsLogOutput) {
+    var property = System.getProperty(key);
+    if (property == null) {
+      return defaultValue;
+    }
+    try {
+      return Math.max(1, Integer.parseInt(property.trim()));
+    } catch (NumberFormatException e) {
+      lsLogOutput.warn(format("Invalid value \"%s\" for property %s, using default value %d", property, key, defaultValue));
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Update the documents visible in the client. Files waiting in background batches that became visible are submitted immediately.
+   */
+  void didChangeVisibleFiles(Collection<URI> visibleFiles, @Nullable URI activeFile) {
+    var promoted = new LinkedHashMap<URI, List<URI>>();
+    synchronized (this) {
+      this.visibleFileUris = Set.copyOf(visibleFiles);
+      this.activeFileUri = activeFile;
+      for (var iterator = backgroundBatches.iterator(); iterator.hasNext();) {
+        var batch = iterator.next();
+        for (var fileIterator = batch.fileUris.iterator(); fileIterator.hasNext();) {
+          var fileUri = fileIterator.next();
+          if (isVisible(fileUri)) {
+            promoted.computeIfAbsent(batch.folderUri, k -> new ArrayList<>()).add(fileUri);
+            fileIterator.remove();
+          }
+        }
+        if (batch.fileUris.isEmpty()) {
+          iterator.remove();
+        }
+      }
+    }
+    promoted.forEach(this::submitPriority);
+  }
+
+  /**
+   * Submit the analysis of the given files, grouped by workspace folder. Files already waiting in a background batch are not queued twice.
+   */
+  void schedule(Map<URI, List<URI>> filesPerFolderUri) {
+    var priorityFilesPerFolderUri = new LinkedHashMap<URI, List<URI>>();
+    var drainNow = false;
+    synchronized (this) {
+      var allFileUris = new HashSet<URI>();
+      filesPerFolderUri.values().forEach(allFileUris::addAll);
+      backgroundBatches.forEach(batch -> batch.fileUris.removeAll(allFileUris));
+      backgroundBatches.removeIf(batch -> batch.fileUris.isEmpty());
+      filesPerFolderUri.forEach((folderUri, fileUris) -> {
+        var priorityFiles = new ArrayList<URI>();
+        var backgroundFiles = new ArrayList<URI>();
+        for (var fileUri : fileUris) {
+          if (fileUri.equals(activeFileUri)) {
+            priorityFiles.add(0, fileUri);
+          } else if (isVisible(fileUri)) {
+            priorityFiles.add(fileUri);
+          } else {
+            backgroundFiles.add(fileUri);
+          }
+        }
+        if (!priorityFiles.isEmpty()) {
+          priorityFilesPerFolderUri.put(folderUri, priorityFiles);
+        }
+        for (var i = 0; i < backgroundFiles.size(); i += batchSize) {
+          backgroundBatches.add(new Batch(folderUri, new ArrayList<>(backgroundFiles.subList(i, Math.min(backgroundFiles.size(), i + batchSize)))));
+        }
+      });
+      if (!drainScheduled && !backgroundBatches.isEmpty()) {
+        drainScheduled = true;
+        drainNow = true;
+      }
+    }
+    priorityFilesPerFolderUri.forEach(this::submitPriority);
+    if (drainNow) {
+      drain();
+    }
+  }
+
+  private boolean isVisible(URI fileUri) {
+    return fileUri.equals(activeFileUri) || visibleFileUris.contains(fileUri);
+  }
+
+  private void submitPriority(URI folderUri, List<URI> fileUris) {
+    priorityFilesCount.addAndGet(fileUris.size());
+    analyzer.accept(folderUri, fileUris);
+  }
+
+  private void drain() {
+    var batches = new ArrayList<Batch>(batchesPerInterval);
+    int pendingFiles;
+    synchronized (this) {
+      while (batches.size() < batchesPerInterval && !backgroundBatches.isEmpty()) {
+        batches.add(backgroundBatches.poll());
+      }
+      pendingFiles = backgroundBatches.stream().mapToInt(batch -> batch.fileUris.size()).sum();
+      drainScheduled = !backgroundBatches.isEmpty();
+      if (drainScheduled) {
+        scheduler.schedule(new CatchingRunnable(this::drain, t -> lsLogOutput.errorWithStackTrace("Failed to submit background analysis", t)),
+          batchIntervalMs, TimeUnit.MILLISECONDS);
+      }
+    }
+    if (!batches.isEmpty()) {
+      lsLogOutput.debug(format("Submitting %d background analysis batch(es) of at most %d files, %d files pending", batches.size(), batchSize, pendingFiles));
+    }
+    for (var batch : batches) {
+      backgroundBatchesCount.incrementAndGet();
+      backgroundFilesCount.addAndGet(batch.fileUris.size());
+      analyzer.accept(batch.folderUri, List.copyOf(batch.fileUris));
+    }
+  }
+
+  int getBatchSize() {
+    return batchSize;
+  }
+
+  int getBatchesPerInterval() {
+    return batchesPerInterval;
+  }
+
+  synchronized int getPendingBackgroundFilesCount() {
+    return backgroundBatches.stream().mapToInt(batch -> batch.fileUris.size()).sum();
+  }
+
+  long getPriorityFilesCount() {
+    return priorityFilesCount.get();
+  }
+
+  long getBackgroundFilesCount() {
+    return backgroundFilesCount.get();
+  }
+
+  long getBackgroundBatchesCount() {
+    return backgroundBatchesCount.get();
+  }
+
+  void shutdown() {
+    lsLogOutput.debug(format("Forced analyses: %d priority files, %d background files in %d batches", getPriorityFilesCount(), getBackgroundFilesCount(),
+      getBackgroundBatchesCount()));
+    Utils.shutdownAndAwait(scheduler, true);
+  }
+
+  private record Batch(URI folderUri, List<URI> fileUris) {
+  }
+}
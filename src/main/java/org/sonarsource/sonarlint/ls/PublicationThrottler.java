@@ -0,0 +1,159 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
+import org.sonarsource.sonarlint.ls.util.CatchingRunnable;
+
+import static java.lang.String.format;
+
+/**
+ * Rate limit the publications triggered by intermediate analysis results of a file to one per frame interval.
+ * <p>
+ * Publications are expected to publish the current state of the caches, so when several publications are requested within a frame,
+ * only the last one is run at the end of the frame. The final publication of an analysis is run immediately and ends the frames of the file.
+ * Closing the file also ends its frames and cancels the pending publication. The interval can be configured with the {@value #FRAME_INTERVAL_PROPERTY_KEY} system property, <code>0</code> disables rate limiting.
+ */
+class PublicationThrottler {
+
+  static final String FRAME_INTERVAL_PROPERTY_KEY = "sonarlint.internal.diagnostics.frameIntervalMs";
+  static final long DEFAULT_FRAME_INTERVAL_MS = 200;
+
+  private final ScheduledExecutorService scheduler;
+  private final LanguageClientLogger lsLogOutput;
+  private final long frameIntervalNanos;
+  private final Map<URI, Frame> framePerFileUri = new ConcurrentHashMap<>();
+
+  private final AtomicLong publishedCount = new AtomicLong();
+  private final AtomicLong skippedCount = new AtomicLong();
+
+  PublicationThrottler(ScheduledExecutorService scheduler, LanguageClientLogger lsLogOutput, long frameIntervalMs) {
+    this.scheduler = scheduler;
+    this.lsLogOutput = lsLogOutput;
+    this.frameIntervalNanos = TimeUnit.MILLISECONDS.toNanos(frameIntervalMs);
+  }
+
+  static long getFrameIntervalMs(LanguageClientLogger lsLogOutput) {
+    var property = System.getProperty(FRAME_INTERVAL_PROPERTY_KEY);
+    if (property == null) {
+      return DEFAULT_FRAME_INTERVAL_MS;
+    }
+    try {
+      return Math.max(0, Long.parseLong(property.trim()));
+    } catch (NumberFormatException e) {
+      lsLogOutput.warn(format("Invalid value \"%s\" for property %s, using default frame interval", property, FRAME_INTERVAL_PROPERTY_KEY));
+      return DEFAULT_FRAME_INTERVAL_MS;
+    }
+  }
+
+  void publishIntermediate(URI fileUri, Runnable publication) {
+    if (frameIntervalNanos == 0) {
+      publish(publication);
+      return;
+    }
+    var frame = framePerFileUri.computeIfAbsent(fileUri, k -> new Frame());
+    synchronized (frame) {
+      if (frame.pendingPublication != null) {
+        frame.pendingPublication = publication;
+        skippedCount.incrementAndGet();
+        return;
+      }
+      var now = System.nanoTime();
+      var elapsed = now - frame.lastPublicationNanos;
+      if (frame.published && elapsed < frameIntervalNanos) {
+        frame.pendingPublication = publication;
+        frame.scheduledFlush = scheduler.schedule(new CatchingRunnable(() -> flush(frame), t -> lsLogOutput.errorWithStackTrace("Failed to publish findings", t)),
+          frameIntervalNanos - elapsed, TimeUnit.NANOSECONDS);
+        return;
+      }
+      frame.published = true;
+      frame.lastPublicationNanos = now;
+    }
+    publish(publication);
+  }
+
+  void publishFinal(URI fileUri, Runnable publication) {
+    forget(fileUri);
+    publish(publication);
+  }
+
+  /**
+   * Cancel the pending publication of a closed file. A publication already running is not interrupted.
+   */
+  void forget(URI fileUri) {
+    var frame = framePerFileUri.remove(fileUri);
+    if (frame != null) {
+      synchronized (frame) {
+        if (frame.pendingPublication != null) {
+          skippedCount.incrementAndGet();
+        }
+        frame.cancel();
+      }
+    }
+  }
+
+  private void flush(Frame frame) {
+    Runnable publication;
+    synchronized (frame) {
+      publication = frame.pendingPublication;
+      frame.pendingPublication = null;
+      frame.scheduledFlush = null;
+      frame.lastPublicationNanos = System.nanoTime();
+    }
+    if (publication != null) {
+      publish(publication);
+    }
+  }
+
+  private void publish(Runnable publication) {
+    publishedCount.incrementAndGet();
+    publication.run();
+  }
+
+  long getPublishedCount() {
+    return publishedCount.get();
+  }
+
+  long getSkippedCount() {
+    return skippedCount.get();
+  }
+
+  private static class Frame {
+    private boolean published;
+    private long lastPublicationNanos;
+    private Runnable pendingPublication;
+    private ScheduledFuture<?> scheduledFlush;
+
+    private void cancel() {
+      pendingPublication = null;
+      if (scheduledFlush != null) {
+        scheduledFlush.cancel(false);
+        scheduledFlush = null;
+      }
+    }
+  }
+}
@@ -239,6 +239,40 @@ public interface SonarLintExtendedLanguageServer extends LanguageServer {
   @JsonNotification("sonarlint/didLocalBranchNameChange")
   void didLocalBranchNameChange(DidLocalBranchNameChangeParams params);
 
+  class DidChangeVisibleDocumentsParams {
+    private List<String> visibleDocumentUris;
+    @Nullable
+    private String activeDocumentUri;
+
+    public DidChangeVisibleDocumentsParams(List<String> visibleDocumentUris, @Nullable String activeDocumentUri) {
+      setVisibleDocumentUris(visibleDocumentUris);
+      setActiveDocumentUri(activeDocumentUri);
+    }
+
+    public List<String> getVisibleDocumentUris() {
+      return visibleDocumentUris;
+    }
+
+    public void setVisibleDocumentUris(List<String> visibleDocumentUris) {
+      this.visibleDocumentUris = visibleDocumentUris;
+    }
+
+    @CheckForNull
+    public String getActiveDocumentUri() {
+      return activeDocumentUri;
+    }
+
+    public void setActiveDocumentUri(@Nullable String activeDocumentUri) {
+      this.activeDocumentUri = activeDocumentUri;
+    }
+  }
+
+  /**
+   * Sent by the client when the documents visible in the editor change, so that their analysis can be given priority.
+   */
+  @JsonNotification("sonarlint/didChangeVisibleDocuments")
+  void didChangeVisibleDocuments(DidChangeVisibleDocumentsParams params);
+
   class OnTokenUpdateNotificationParams {
     private final String connectionId;
     private final String token;
@@ -123,12 +123,15 @@ import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient.ConnectionCh
 import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
 import org.sonarsource.sonarlint.ls.clientapi.SonarLintVSCodeClient;
 import org.sonarsource.sonarlint.ls.connected.DependencyRisksCache;
+import org.sonarsource.sonarlint.ls.connected.IssueStatusChangePermissionsCache;
 import org.sonarsource.sonarlint.ls.connected.ProjectBindingManager;
 import org.sonarsource.sonarlint.ls.connected.TaintVulnerabilitiesCache;
 import org.sonarsource.sonarlint.ls.connected.api.HostInfoProvider;
 import org.sonarsource.sonarlint.ls.connected.notifications.SmartNotifications;
 import org.sonarsource.sonarlint.ls.embeddedserver.EmbeddedServerManager;
 import org.sonarsource.sonarlint.ls.file.FileTypeClassifier;
+import org.sonarsource.sonarlint.ls.file.IdleOpenFilesCompressor;
+import org.sonarsource.sonarlint.ls.file.OpenFileUpdatesCoalescer;
 import org.sonarsource.sonarlint.ls.file.OpenFilesCache;
 import org.sonarsource.sonarlint.ls.file.VersionedOpenFile;
 import org.sonarsource.sonarlint.ls.folders.ModuleEventsProcessor;
@@ -174,6 +177,8 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
   private final WorkspaceFoldersManager workspaceFoldersManager;
   private final SettingsManager settingsManager;
   private final ProjectBindingManager bindingManager;
+  private final IssueStatusChangePermissionsCache issueStatusChangePermissionsCache;
+  private final StandaloneRulesCache standaloneRulesCache;
   private final ForcedAnalysisCoordinator forcedAnalysisCoordinator;
   private final DependencyRisksCache dependencyRisksCache;
   private final OpenFilesCache openFilesCache;
@@ -197,6 +202,10 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
   private TraceValue traceLevel;
 
   private final ModuleEventsProcessor moduleEventsProcessor;
+  private final OpenFileUpdatesCoalescer openFileUpdatesCoalescer;
+  private final IdleOpenFilesCompressor idleOpenFilesCompressor;
+  private final AnalysisVersionTracker analysisVersionTracker = new AnalysisVersionTracker();
+  private final AnalysisHelper analysisHelper;
   private final BackendServiceFacade backendServiceFacade;
   private final CountDownLatch shutdownLatch;
 
@@ -220,6 +229,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     this.client = launcher.getRemoteProxy();
     this.lsLogOutput = new LanguageClientLogger(this.client);
     this.openFilesCache = new OpenFilesCache(lsLogOutput);
+    this.idleOpenFilesCompressor = new IdleOpenFilesCompressor(openFilesCache, lsLogOutput);
 
     this.embeddedServerManager = new EmbeddedServerManager(client);
     this.issuesCache = new IssuesCache();
@@ -249,6 +259,10 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     this.bindingManager = new ProjectBindingManager(workspaceFoldersManager, settingsManager,
       client, lsLogOutput, backendServiceFacade, openNotebooksCache);
     vsCodeClient.setBindingManager(bindingManager);
+    this.issueStatusChangePermissionsCache = new IssueStatusChangePermissionsCache(backendServiceFacade, bindingManager, lsLogOutput);
+    this.standaloneRulesCache = new StandaloneRulesCache(backendServiceFacade, lsLogOutput);
+    vsCodeClient.setStandaloneRulesCache(standaloneRulesCache);
+    this.settingsManager.addListener(standaloneRulesCache);
     this.telemetry = new SonarLintTelemetry(backendServiceFacade, lsLogOutput);
     this.backendServiceFacade.setTelemetry(telemetry);
     this.settingsManager.addListener(telemetry);
@@ -257,18 +271,24 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     this.workspaceFoldersManager.addListener(settingsManager);
     var smartNotifications = new SmartNotifications(client, telemetry);
     vsCodeClient.setSmartNotifications(smartNotifications);
-    this.moduleEventsProcessor = new ModuleEventsProcessor(workspaceFoldersManager, fileTypeClassifier, javaConfigCache, backendServiceFacade, settingsManager);
-    var analysisHelper = new AnalysisHelper(client, lsLogOutput, workspaceFoldersManager, javaConfigCache, settingsManager,
+    this.moduleEventsProcessor = new ModuleEventsProcessor(workspaceFoldersManager, fileTypeClassifier, javaConfigCache, openFilesCache, backendServiceFacade,
+      settingsManager, lsLogOutput);
+    this.openFileUpdatesCoalescer = new OpenFileUpdatesCoalescer(file -> {
+      analysisVersionTracker.didSendContent(file.getUri(), file.getVersion());
+      moduleEventsProcessor.notifyBackendWithUpdatedContent(file);
+    }, lsLogOutput);
+    this.analysisHelper = new AnalysisHelper(client, lsLogOutput, workspaceFoldersManager, javaConfigCache, settingsManager,
       issuesCache, securityHotspotsCache, diagnosticPublisher,
-      openNotebooksCache, notebookDiagnosticPublisher, openFilesCache);
+      openNotebooksCache, notebookDiagnosticPublisher, openFilesCache, analysisVersionTracker, issueStatusChangePermissionsCache);
     vsCodeClient.setAnalysisTaskExecutor(analysisHelper);
     this.forcedAnalysisCoordinator = new ForcedAnalysisCoordinator(workspaceFoldersManager, bindingManager, openFilesCache,
-      openNotebooksCache, client, backendServiceFacade, settingsManager);
+      openNotebooksCache, client, backendServiceFacade, settingsManager, analysisVersionTracker, lsLogOutput);
     bindingManager.setAnalysisManager(forcedAnalysisCoordinator);
     this.settingsManager.addListener((WorkspaceSettingsChangeListener) forcedAnalysisCoordinator);
     this.settingsManager.addListener((WorkspaceFolderSettingsChangeListener) forcedAnalysisCoordinator);
     this.commandManager = new CommandManager(client, settingsManager, bindingManager, telemetry, taintVulnerabilitiesCache,
-      issuesCache, securityHotspotsCache, backendServiceFacade, workspaceFoldersManager, openNotebooksCache, lsLogOutput);
+      issuesCache, securityHotspotsCache, backendServiceFacade, workspaceFoldersManager, openNotebooksCache,
+      issueStatusChangePermissionsCache, lsLogOutput);
 
     this.branchManager = new WorkspaceFolderBranchManager(backendServiceFacade, lsLogOutput);
     vsCodeClient.setBranchManager(branchManager);
@@ -381,7 +401,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
   private static TextDocumentSyncOptions getTextDocumentSyncOptions() {
     var textDocumentSyncOptions = new TextDocumentSyncOptions();
     textDocumentSyncOptions.setOpenClose(true);
-    textDocumentSyncOptions.setChange(TextDocumentSyncKind.Full);
+    textDocumentSyncOptions.setChange(TextDocumentSyncKind.Incremental);
     return textDocumentSyncOptions;
   }
 
@@ -391,6 +411,10 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
       branchManager::shutdown,
       settingsManager::shutdown,
       workspaceFoldersManager::shutdown,
+      openFileUpdatesCoalescer::shutdown,
+      idleOpenFilesCompressor::shutdown,
+      forcedAnalysisCoordinator::shutdown,
+      analysisHelper::shutdown,
       moduleEventsProcessor::shutdown,
       branchChangeEventExecutor::shutdown,
       backendServiceFacade::shutdown)
@@ -453,8 +477,13 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
           return;
         }
         var file = openFilesCache.didOpen(uri, params.getTextDocument().getLanguageId(), params.getTextDocument().getText(), params.getTextDocument().getVersion());
+        if (file.isJava()) {
+          // Analysis of Java files needs the project configuration, start fetching it while the file is sent to the backend
+          javaConfigCache.prefetch(uri);
+        }
         CompletableFutures.computeAsync(cancelChecker -> {
           String configScopeId;
+          analysisVersionTracker.didSendContent(uri, file.getVersion());
           moduleEventsProcessor.notifyBackendWithFileLanguageAndContent(file);
           var maybeWorkspaceFolder = workspaceFoldersManager.findFolderForFile(uri);
           if (maybeWorkspaceFolder.isPresent()) {
@@ -474,16 +503,12 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
   @Override
   public void didChange(DidChangeTextDocumentParams params) {
     var uri = create(params.getTextDocument().getUri());
-    openFilesCache.didChange(uri, params.getContentChanges().get(0).getText(), params.getTextDocument().getVersion());
+    openFilesCache.didChange(uri, params.getContentChanges(), params.getTextDocument().getVersion());
     Optional<VersionedOpenFile> file = openFilesCache.getFile(uri);
     if (file.isEmpty()) {
       lsLogOutput.warn("Illegal state: trying to update file that was not open");
     } else {
-      // VSCode sends us full file content in the change event
-      CompletableFutures.computeAsync(cancelChecker -> {
-        moduleEventsProcessor.notifyBackendWithUpdatedContent(file.get());
-        return null;
-      });
+      openFileUpdatesCoalescer.didChange(file.get());
     }
   }
 
@@ -491,10 +516,14 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
   public void didClose(DidCloseTextDocumentParams params) {
     var uri = create(params.getTextDocument().getUri());
     openFilesCache.didClose(uri);
+    openFileUpdatesCoalescer.didClose(uri);
+    analysisVersionTracker.forget(uri);
+    analysisHelper.didClose(uri);
     javaConfigCache.didClose(uri);
     issuesCache.clear(uri);
     securityHotspotsCache.clear(uri);
     diagnosticPublisher.publishDiagnostics(uri, false);
+    diagnosticPublisher.forget(uri);
     var maybeWorkspaceFolder = workspaceFoldersManager.findFolderForFile(uri);
     var configScopeId = maybeWorkspaceFolder
       .map(WorkspaceFolderWrapper::getUri)
@@ -510,10 +539,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
 
   @Override
   public CompletableFuture<Map<String, List<Rule>>> listAllRules() {
-    return CompletableFutures.computeAsync(cancelToken -> {
-      cancelToken.checkCanceled();
-      return commandManager.listAllStandaloneRules();
-    });
+    return standaloneRulesCache.getRulesByLanguage();
   }
 
   @Override
@@ -568,6 +594,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
       openFilesCache.didClose(notebookUri);
     }
     CompletableFutures.computeAsync(cancelChecker -> {
+      analysisVersionTracker.didSendContent(notebookUri, versionedOpenFile.getVersion());
       moduleEventsProcessor.notifyBackendWithFileLanguageAndContent(versionedOpenFile);
       var maybeWorkspaceFolder = workspaceFoldersManager.findFolderForFile(notebookUri);
       if (maybeWorkspaceFolder.isPresent()) {
@@ -580,16 +607,14 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
 
   @Override
   public void didChange(DidChangeNotebookDocumentParams params) {
-    openNotebooksCache.didChange(create(params.getNotebookDocument().getUri()), params.getNotebookDocument().getVersion(), params.getChange());
-    var openNotebook = openNotebooksCache.getFile(create(params.getNotebookDocument().getUri()));
+    var notebookUri = create(params.getNotebookDocument().getUri());
+    openNotebooksCache.didChange(notebookUri, params.getNotebookDocument().getVersion(), params.getChange());
+    var openNotebook = openNotebooksCache.getFile(notebookUri);
     if (openNotebook.isEmpty()) {
       lsLogOutput.warn("Illegal state: received change event for Notebook that is not open");
     } else {
-      var file = openNotebook.get().asVersionedOpenFile();
-      CompletableFutures.computeAsync(cancelChecker -> {
-        moduleEventsProcessor.notifyBackendWithUpdatedContent(file);
-        return null;
-      });
+      // Cells are only joined when the coalesced update is forwarded, not on every keystroke
+      openFileUpdatesCoalescer.didChange(notebookUri, openNotebook.get()::asVersionedOpenFile);
     }
   }
 
@@ -601,9 +626,12 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
   @Override
   public void didClose(DidCloseNotebookDocumentParams params) {
     var uri = create(params.getNotebookDocument().getUri());
+    analysisHelper.didClose(uri);
     issuesCache.clear(uri);
     notebookDiagnosticPublisher.removeAllExistingDiagnosticsForNotebook(uri);
     openNotebooksCache.didClose(uri);
+    openFileUpdatesCoalescer.didClose(uri);
+    analysisVersionTracker.forget(uri);
     var maybeWorkspaceFolder = workspaceFoldersManager.findFolderForFile(uri);
     if (maybeWorkspaceFolder.isPresent()) {
       var configScopeId = maybeWorkspaceFolder.get().getUri().toString();
@@ -631,6 +659,13 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     forcedAnalysisCoordinator.didServerModeChange(serverModeEnum);
   }
 
+  @Override
+  public void didChangeVisibleDocuments(DidChangeVisibleDocumentsParams params) {
+    var visibleDocumentUris = params.getVisibleDocumentUris() == null ? List.<URI>of() : params.getVisibleDocumentUris().stream().map(URI::create).toList();
+    var activeDocumentUri = params.getActiveDocumentUri();
+    forcedAnalysisCoordinator.didChangeVisibleDocuments(visibleDocumentUris, activeDocumentUri != null ? create(activeDocumentUri) : null);
+  }
+
   @Override
   public void didLocalBranchNameChange(DidLocalBranchNameChangeParams event) {
     var branchName = event.getBranchName();
@@ -722,8 +757,8 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
       cancelToken.checkCanceled();
       lsLogOutput.info("Updating credentials on token change.");
       backendServiceFacade.getBackendService().didChangeCredentials(onTokenUpdateNotificationParams.getConnectionId());
-      var updatedConnection = settingsManager.getCurrentSettings().getServerConnections().get(onTokenUpdateNotificationParams.getConnectionId());
-      updatedConnection.setToken(onTokenUpdateNotificationParams.getToken());
+      issueStatusChangePermissionsCache.didChangeCredentials(onTokenUpdateNotificationParams.getConnectionId());
+      settingsManager.didUpdateToken(onTokenUpdateNotificationParams.getConnectionId(), onTokenUpdateNotificationParams.getToken());
       bindingManager.validateConnection(onTokenUpdateNotificationParams.getConnectionId());
       return null;
     });
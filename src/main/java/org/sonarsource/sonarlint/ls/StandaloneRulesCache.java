@@ -0,0 +1,107 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.rules.ListAllStandaloneRulesDefinitionsResponse;
+import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
+import org.sonarsource.sonarlint.ls.domain.LSLanguage;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
+import org.sonarsource.sonarlint.ls.settings.WorkspaceSettings;
+import org.sonarsource.sonarlint.ls.settings.WorkspaceSettingsChangeListener;
+
+/**
+ * Catalogue of the rules available in standalone mode, grouped by language label.
+ * <p>
+ * The catalogue is only built once from the rule definitions of the backend, until plugins or the rules configuration change.
+ */
+public class StandaloneRulesCache implements WorkspaceSettingsChangeListener {
+
+  private final BackendServiceFacade backendServiceFacade;
+  private final LanguageClientLogger logOutput;
+  private final AtomicReference<CompletableFuture<Map<String, List<Rule>>>> rulesByLanguage = new AtomicReference<>();
+
+  public StandaloneRulesCache(BackendServiceFacade backendServiceFacade, LanguageClientLogger logOutput) {
+    this.backendServiceFacade = backendServiceFacade;
+    this.logOutput = logOutput;
+  }
+
+  /**
+   * @return a future of the rules per language label, completed by the backend and not by the calling thread
+   */
+  public CompletableFuture<Map<String, List<Rule>>> getRulesByLanguage() {
+    while (true) {
+      var current = rulesByLanguage.get();
+      if (current != null && !current.isCompletedExceptionally()) {
+        // Cancellation of a request must not cancel the shared computation
+        return current.copy();
+      }
+      var computation = new CompletableFuture<Map<String, List<Rule>>>();
+      if (rulesByLanguage.compareAndSet(current, computation)) {
+        listAllRules(computation);
+        return computation.copy();
+      }
+    }
+  }
+
+  private void listAllRules(CompletableFuture<Map<String, List<Rule>>> computation) {
+    backendServiceFacade.getBackendService().listAllStandaloneRulesDefinitions()
+      .thenApply(StandaloneRulesCache::groupByLanguage)
+      .whenComplete((result, error) -> {
+        if (error != null) {
+          logOutput.errorWithStackTrace("Failed to list all standalone rules", error);
+          computation.completeExceptionally(error);
+        } else {
+          computation.complete(result);
+        }
+      });
+  }
+
+  private static Map<String, List<Rule>> groupByLanguage(ListAllStandaloneRulesDefinitionsResponse response) {
+    var result = new HashMap<String, List<Rule>>();
+    response.getRulesByKey().forEach((ruleKey, ruleDefinition) -> {
+      var languageName = LSLanguage.valueOf(ruleDefinition.getLanguage().name()).getLabel();
+      result.computeIfAbsent(languageName, k -> new ArrayList<>()).add(Rule.of(ruleDefinition));
+    });
+    result.replaceAll((languageName, rules) -> List.copyOf(rules));
+    return Map.copyOf(result);
+  }
+
+  public void invalidate() {
+    rulesByLanguage.set(null);
+  }
+
+  @Override
+  public void onChange(@Nullable WorkspaceSettings oldValue, WorkspaceSettings newValue) {
+    if (oldValue == null
+      || !Objects.equals(oldValue.getExcludedRules(), newValue.getExcludedRules())
+      || !Objects.equals(oldValue.getIncludedRules(), newValue.getIncludedRules())
+      || !Objects.equals(oldValue.getRuleParameters(), newValue.getRuleParameters())) {
+      invalidate();
+    }
+  }
+}
@@ -426,9 +426,9 @@ public class BackendService {
     backend.getAnalysisService().analyzeFullProject(params);
   }
 
-  public void analyzeFilesList(String configScopeId, List<URI> filesToAnalyze) {
+  public CompletableFuture<ForceAnalyzeResponse> analyzeFilesList(String configScopeId, List<URI> filesToAnalyze) {
     var params = new AnalyzeFileListParams(configScopeId, filesToAnalyze);
-    backend.getAnalysisService().analyzeFileList(params);
+    return backend.getAnalysisService().analyzeFileList(params);
   }
 
   public CompletableFuture<ForceAnalyzeResponse> analyzeVCSChangedFiles(String configScopeId) {
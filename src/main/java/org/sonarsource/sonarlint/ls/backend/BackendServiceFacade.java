@@ -20,8 +20,6 @@
 package org.sonarsource.sonarlint.ls.backend;
 
 import java.io.IOException;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -84,13 +82,12 @@ public class BackendServiceFacade {
   public BackendServiceFacade(SonarLintRpcClientDelegate rpcClient, LanguageClientLogger lsLogOutput, SonarLintExtendedLanguageClient client, EnabledLanguages enabledLanguages) {
     this.lsLogOutput = lsLogOutput;
     this.enabledLanguages = enabledLanguages;
-    var clientToServerOutputStream = new PipedOutputStream();
+    var transport = BackendTransport.fromSystemProperty(lsLogOutput);
     try {
-      var clientToServerInputStream = new PipedInputStream(clientToServerOutputStream);
-      var serverToClientOutputStream = new PipedOutputStream();
-      var serverToClientInputStream = new PipedInputStream(serverToClientOutputStream);
-      new BackendJsonRpcLauncher(clientToServerInputStream, serverToClientOutputStream);
-      clientLauncher = new ClientJsonRpcLauncher(serverToClientInputStream, clientToServerOutputStream, rpcClient);
+      var clientToServer = transport.openChannel(lsLogOutput);
+      var serverToClient = transport.openChannel(lsLogOutput);
+      new BackendJsonRpcLauncher(clientToServer.input(), serverToClient.output());
+      clientLauncher = new ClientJsonRpcLauncher(serverToClient.input(), clientToServer.output(), rpcClient);
       this.backendService = new BackendService(clientLauncher.getServerProxy(), lsLogOutput, client);
     } catch (IOException e) {
       throw new IllegalStateException(e);
@@ -117,12 +114,12 @@ public class BackendServiceFacade {
     var standaloneRuleConfigByKey = SettingsManager.getStandaloneRuleConfigByKey(standaloneRulesConfiguration);
     var overriddenUserHome = SettingsManager.getSonarLintUserHomeOverride();
     Path storageRoot = null;
-    String sonarLintUserHome = null;
     Path workDir = null;
+    String sonarLintUserHome = null;
     if (overriddenUserHome != null) {
       storageRoot = overriddenUserHome.resolve("storage");
+      workDir = overriddenUserHome;
       sonarLintUserHome = overriddenUserHome.toString();
-      workDir = Path.of(sonarLintUserHome);
     }
 
     return new InitializeParams(
@@ -154,6 +151,19 @@ public class BackendServiceFacade {
       LogLevel.DEBUG);
   }
 
+  /**
+   * The SonarLint user home, resolved the same way as the backend does when no override is given. Only used to locate the data
+   * that the language server stores by itself: the backend keeps receiving the override, if any.
+   */
+  public static Path getSonarLintUserHome() {
+    var overriddenUserHome = SettingsManager.getSonarLintUserHomeOverride();
+    if (overriddenUserHome != null) {
+      return overriddenUserHome;
+    }
+    var userHomeFromEnv = System.getenv("SONARLINT_USER_HOME");
+    return userHomeFromEnv != null ? Path.of(userHomeFromEnv) : Path.of(System.getProperty("user.home"), ".sonarlint");
+  }
+
   static String determineIdeName(String appName) {
     if (appName.toLowerCase(Locale.ROOT).contains(CURSOR_APP_NAME.toLowerCase(Locale.ROOT))) {
       return CURSOR_APP_NAME;
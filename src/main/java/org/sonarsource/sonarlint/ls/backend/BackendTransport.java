@@ -0,0 +1,82 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.backend;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
+
+import static java.lang.String.format;
+
+/**
+ * How JSON-RPC messages travel between the language server and the SonarLint backend running in the same JVM.
+ * Selected with the {@value #PROPERTY_KEY} system property, to allow comparing both modes.
+ */
+enum BackendTransport {
+
+  /**
+   * Bounded pipe, whose capacity is selected with the {@value RingBufferPipe#CAPACITY_PROPERTY_KEY} system property, see {@link RingBufferPipe}.
+   */
+  PIPED {
+    @Override
+    Channel openChannel(LanguageClientLogger lsLogOutput) {
+      var pipe = new RingBufferPipe(RingBufferPipe.getCapacityFromSystemProperty(lsLogOutput));
+      return new Channel(pipe.input(), pipe.output());
+    }
+  },
+
+  /**
+   * Each flushed message is handed off as a whole to the reading side, see {@link InProcessChannel}.
+   */
+  IN_PROCESS {
+    @Override
+    Channel openChannel(LanguageClientLogger lsLogOutput) {
+      var channel = new InProcessChannel();
+      return new Channel(channel.input(), channel.output());
+    }
+  };
+
+  static final String PROPERTY_KEY = "sonarlint.internal.backend.transport";
+
+  abstract Channel openChannel(LanguageClientLogger lsLogOutput) throws IOException;
+
+  static BackendTransport fromSystemProperty(LanguageClientLogger lsLogOutput) {
+    var property = System.getProperty(PROPERTY_KEY);
+    if (property == null) {
+      return PIPED;
+    }
+    try {
+      var transport = valueOf(property.trim().toUpperCase(Locale.ROOT));
+      lsLogOutput.debug(format("Using %s transport to communicate with the backend", transport));
+      return transport;
+    } catch (IllegalArgumentException e) {
+      lsLogOutput.warn(format("Unknown backend transport \"%s\", falling back to %s", property, PIPED));
+      return PIPED;
+    }
+  }
+
+  /**
+   * One-way channel: what is written to {@link #output} can be read from {@link #input}.
+   */
+  record Channel(InputStream input, OutputStream output) {
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * One-way in-memory channel between two threads of the same JVM.
+ * <p>
+ * Unlike JDK piped streams, there is no fixed-size buffer for the writer to wait on, and no polling on the reader side:
+ * bytes written are accumulated by the writing thread, and handed off as a single chunk to the reader on {@link OutputStream#flush()}.
+ * The JSON-RPC message writer flushes once per message, so each message crosses the thread boundary in one queue operation.
+ */
+class InProcessChannel {
+
+  private static final byte[] END_OF_STREAM = new byte[0];
+
+  private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+  private final ChunkInputStream input = new ChunkInputStream();
+  private final ChunkOutputStream output = new ChunkOutputStream();
+
+  InputStream input() {
+    return input;
+  }
+
+  OutputStream output() {
+    return output;
+  }
+
+  private class ChunkOutputStream extends OutputStream {
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(8192);
+    private boolean closed;
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+      ensureOpen();
+      pending.write(b);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+      ensureOpen();
+      pending.write(b, off, len);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+      ensureOpen();
+      if (pending.size() > 0) {
+        chunks.add(pending.toByteArray());
+        pending.reset();
+      }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+      if (!closed) {
+        flush();
+        closed = true;
+        chunks.add(END_OF_STREAM);
+      }
+    }
+
+    private void ensureOpen() throws IOException {
+      if (closed) {
+        throw new IOException("Stream closed");
+      }
+    }
+  }
+
+  private class ChunkInputStream extends InputStream {
+    private byte[] current;
+    private int position;
+    private boolean endOfStream;
+
+    @Override
+    public synchronized int read() throws IOException {
+      if (!nextChunkIfNeeded()) {
+        return -1;
+      }
+      return current[position++] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (!nextChunkIfNeeded()) {
+        return -1;
+      }
+      var count = Math.min(len, current.length - position);
+      System.arraycopy(current, position, b, off, count);
+      position += count;
+      return count;
+    }
+
+    @Override
+    public synchronized int available() {
+      return current == null ? 0 : (current.length - position);
+    }
+
+    @Override
+    public void close() {
+      chunks.add(END_OF_STREAM);
+    }
+
+    /**
+     * @return false when the end of the stream is reached
+     */
+    private boolean nextChunkIfNeeded() throws IOException {
+      while (!endOfStream && (current == null || position == current.length)) {
+        try {
+          var chunk = chunks.take();
+          if (chunk == END_OF_STREAM) {
+            endOfStream = true;
+            current = null;
+          } else {
+            current = chunk;
+            position = 0;
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while waiting for data", e);
+        }
+      }
+      return !endOfStream;
+    }
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.backend;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
+
+import static java.lang.String.format;
+
+/**
+ * Bounded single-reader, single-writer pipe backed by a ring buffer.
+ * <p>
+ * Compared to JDK piped streams (1 KiB buffer, <code>wait(1000)</code> polling when the reader is blocked), the capacity is large enough
+ * to hold a full file content message, and a blocked side is parked and woken up as soon as the other side made progress.
+ * Positions are only advanced by their owner, so the data path is lock-free: concurrent writers (resp. readers) are serialized
+ * between themselves, but never block the other side.
+ * The buffer is only allocated on the first write, so that an unused pipe does not retain its capacity.
+ */
+class RingBufferPipe {
+
+  static final String CAPACITY_PROPERTY_KEY = "sonarlint.internal.backend.pipeCapacityMiB";
+  static final int DEFAULT_CAPACITY_MIB = 4;
+
+  private final int capacity;
+  private final int mask;
+  // Only assigned by the writer, before publishing the first written bytes through writePosition
+  private byte[] buffer;
+  private final RingInputStream input = new RingInputStream();
+  private final RingOutputStream output = new RingOutputStream();
+
+  // Total number of bytes written/read since creation. Only the writer (resp. the reader) advances its own position.
+  private volatile long writePosition;
+  private volatile long readPosition;
+  private volatile Thread waitingReader;
+  private volatile Thread waitingWriter;
+  private volatile boolean writerClosed;
+  private volatile boolean readerClosed;
+
+  /**
+   * @param capacity in bytes, rounded up to the next power of two
+   */
+  RingBufferPipe(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    var roundedCapacity = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+    this.capacity = roundedCapacity;
+    this.mask = roundedCapacity - 1;
+  }
+
+  static int getCapacityFromSystemProperty(LanguageClientLogger lsLogOutput) {
+    var property = System.getProperty(CAPACITY_PROPERTY_KEY);
+    var capacityMiB = DEFAULT_CAPACITY_MIB;
+    if (property != null) {
+      try {
+        capacityMiB = Math.max(1, Math.min(512, Integer.parseInt(property.trim())));
+      } catch (NumberFormatException e) {
+        lsLogOutput.warn(format("Invalid value \"%s\" for property %s, using default capacity", property, CAPACITY_PROPERTY_KEY));
+      }
+    }
+    return capacityMiB * 1024 * 1024;
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  // Visible for testing
+  boolean isAllocated() {
+    return buffer != null;
+  }
+
+  InputStream input() {
+    return input;
+  }
+
+  OutputStream output() {
+    return output;
+  }
+
+  private static void wakeUp(Thread thread) {
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private static void checkInterrupted() throws InterruptedIOException {
+    if (Thread.interrupted()) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting on pipe");
+    }
+  }
+
+  private class RingOutputStream extends OutputStream {
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+      awaitFreeSpace();
+      var position = writePosition;
+      allocatedBuffer()[(int) (position & mask)] = (byte) b;
+      writePosition = position + 1;
+      wakeUp(waitingReader);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+      Objects.checkFromIndexSize(off, len, b.length);
+      var remaining = len;
+      var offset = off;
+      while (remaining > 0) {
+        var free = awaitFreeSpace();
+        var count = Math.min(free, remaining);
+        var position = writePosition;
+        var start = (int) (position & mask);
+        var ring = allocatedBuffer();
+        var firstPart = Math.min(count, capacity - start);
+        System.arraycopy(b, offset, ring, start, firstPart);
+        System.arraycopy(b, offset + firstPart, ring, 0, count - firstPart);
+        // Volatile write publishes the copied bytes to the reader
+        writePosition = position + count;
+        wakeUp(waitingReader);
+        offset += count;
+        remaining -= count;
+      }
+    }
+
+    private byte[] allocatedBuffer() {
+      var ring = buffer;
+      if (ring == null) {
+        ring = new byte[capacity];
+        buffer = ring;
+      }
+      return ring;
+    }
+
+    private int awaitFreeSpace() throws IOException {
+      while (true) {
+        if (writerClosed) {
+          throw new IOException("Pipe closed");
+        }
+        if (readerClosed) {
+          throw new IOException("Pipe broken, reader is closed");
+        }
+        var free = capacity - (int) (writePosition - readPosition);
+        if (free > 0) {
+          return free;
+        }
+        waitingWriter = Thread.currentThread();
+        if (capacity - (int) (writePosition - readPosition) == 0 && !readerClosed) {
+          LockSupport.park(RingBufferPipe.this);
+        }
+        waitingWriter = null;
+        checkInterrupted();
+      }
+    }
+
+    @Override
+    public void flush() {
+      // Written bytes are immediately visible to the reader
+    }
+
+    @Override
+    public void close() {
+      writerClosed = true;
+      wakeUp(waitingReader);
+    }
+  }
+
+  private class RingInputStream extends InputStream {
+
+    @Override
+    public synchronized int read() throws IOException {
+      if (awaitData() < 0) {
+        return -1;
+      }
+      var position = readPosition;
+      var b = buffer[(int) (position & mask)] & 0xFF;
+      readPosition = position + 1;
+      wakeUp(waitingWriter);
+      return b;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+      Objects.checkFromIndexSize(off, len, b.length);
+      if (len == 0) {
+        return 0;
+      }
+      var available = awaitData();
+      if (available < 0) {
+        return -1;
+      }
+      var count = Math.min(available, len);
+      var position = readPosition;
+      var start = (int) (position & mask);
+      var firstPart = Math.min(count, capacity - start);
+      System.arraycopy(buffer, start, b, off, firstPart);
+      System.arraycopy(buffer, 0, b, off + firstPart, count - firstPart);
+      // Volatile write releases the space to the writer
+      readPosition = position + count;
+      wakeUp(waitingWriter);
+      return count;
+    }
+
+    /**
+     * @return number of bytes available, or -1 at the end of the stream
+     */
+    private int awaitData() throws IOException {
+      while (true) {
+        if (readerClosed) {
+          throw new IOException("Pipe closed");
+        }
+        // Read the flag before the position, so that bytes written before closing are never missed
+        var closed = writerClosed;
+        var available = (int) (writePosition - readPosition);
+        if (available > 0) {
+          return available;
+        }
+        if (closed) {
+          return -1;
+        }
+        waitingReader = Thread.currentThread();
+        if (writePosition == readPosition && !writerClosed) {
+          LockSupport.park(RingBufferPipe.this);
+        }
+        waitingReader = null;
+        checkInterrupted();
+      }
+    }
+
+    @Override
+    public int available() {
+      return (int) (writePosition - readPosition);
+    }
+
+    @Override
+    public void close() {
+      readerClosed = true;
+      wakeUp(waitingWriter);
+    }
+  }
+}
@@ -37,6 +37,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -50,6 +51,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import nl.altindag.ssl.util.CertificateUtils;
 import org.apache.commons.codec.digest.DigestUtils;
@@ -104,6 +106,7 @@ import org.sonarsource.sonarlint.ls.DiagnosticPublisher;
 import org.sonarsource.sonarlint.ls.SkippedPluginsNotifier;
 import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient;
 import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient.CreateConnectionParams;
+import org.sonarsource.sonarlint.ls.StandaloneRulesCache;
 import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
 import org.sonarsource.sonarlint.ls.commands.ShowAllLocationsCommand;
 import org.sonarsource.sonarlint.ls.connected.DependencyRisksCache;
@@ -152,6 +155,7 @@ public class SonarLintVSCodeClient implements SonarLintRpcClientDelegate {
   private final LSProgressMonitor progressMonitor;
 
   private AnalysisHelper analysisHelper;
+  private StandaloneRulesCache standaloneRulesCache;
 
   public SonarLintVSCodeClient(SonarLintExtendedLanguageClient client, HostInfoProvider hostInfoProvider, LanguageClientLogger logOutput,
     TaintVulnerabilitiesCache taintVulnerabilitiesCache, DependencyRisksCache dependencyRisksCache, SkippedPluginsNotifier skippedPluginsNotifier,
@@ -460,19 +464,11 @@ public class SonarLintVSCodeClient implements SonarLintRpcClientDelegate {
   @Override
   public void didChangeDependencyRisks(String configScopeId, Set<UUID> closedDependencyRiskIds, List<DependencyRiskDto> addedDependencyRisks,
     List<DependencyRiskDto> updatedDependencyRisks) {
-    closedDependencyRiskIds.forEach(id -> dependencyRisksCache.removeDependencyRisk(configScopeId, id.toString()));
-
     var folderUri = URI.create(configScopeId);
-    addedDependencyRisks.forEach(dependencyRiskDto -> {
-      var dependencyRisk = new DependencyRisk(dependencyRiskDto, configScopeId);
-      dependencyRisksCache.addDependencyRisk(folderUri, dependencyRisk);
-    });
-
-    updatedDependencyRisks.forEach(dependencyRiskDto -> {
-      var dependencyRisk = new DependencyRisk(dependencyRiskDto, configScopeId);
-      dependencyRisksCache.removeDependencyRisk(configScopeId, dependencyRisk.getId().toString());
-      dependencyRisksCache.addDependencyRisk(folderUri, dependencyRisk);
-    });
+    var addedOrUpdatedDependencyRisks = Stream.concat(addedDependencyRisks.stream(), updatedDependencyRisks.stream())
+      .map(dependencyRiskDto -> new DependencyRisk(dependencyRiskDto, configScopeId))
+      .toList();
+    dependencyRisksCache.applyChanges(folderUri, closedDependencyRiskIds, addedOrUpdatedDependencyRisks);
 
     diagnosticPublisher.publishDependencyRisks(folderUri);
   }
@@ -486,57 +482,25 @@ public class SonarLintVSCodeClient implements SonarLintRpcClientDelegate {
       .collect(groupingBy(taintVulnerabilityDto -> getFullFileUriFromFragments(folderUri, taintVulnerabilityDto.getIdeFilePath()), toList()));
 
     // Remove taints that were closed
-    taintVulnerabilitiesCache.getTaintVulnerabilitiesPerFile().values().stream().flatMap(Collection::stream)
-      .filter(taintIssue -> closedTaintVulnerabilityIds.contains(taintIssue.getId()))
-      .forEach(taintIssue -> taintVulnerabilitiesCache.removeTaintIssue(
-        getFullFileUriFromFragments(folderUri, taintIssue.getIdeFilePath()).toString(), taintIssue.getSonarServerKey()));
+    var changedFiles = new HashSet<>(taintVulnerabilitiesCache.removeTaintIssues(closedTaintVulnerabilityIds));
 
     workspaceFoldersManager.getFolder(URI.create(folderUri))
       .map(workspaceFolderWrapper -> Objects.requireNonNull(bindingManager
         .getServerConnectionSettingsFor(workspaceFolderWrapper.getSettings().getConnectionId())).isSonarCloudAlias())
-      .ifPresent(isSonarCloud -> updateTaintVulnerabilitiesCache(addedTaintVulnerabilitiesByFile, updatedTaintVulnerabilitiesByFile, folderUri, isSonarCloud));
+      .ifPresent(isSonarCloud -> changedFiles.addAll(
+        updateTaintVulnerabilitiesCache(addedTaintVulnerabilitiesByFile, updatedTaintVulnerabilitiesByFile, folderUri, isSonarCloud)));
+
+    changedFiles.forEach(diagnosticPublisher::publishTaints);
   }
 
-  private void updateTaintVulnerabilitiesCache(Map<URI, List<TaintVulnerabilityDto>> addedTaints, Map<URI, List<TaintVulnerabilityDto>> updateTaints,
+  private Set<URI> updateTaintVulnerabilitiesCache(Map<URI, List<TaintVulnerabilityDto>> addedTaints, Map<URI, List<TaintVulnerabilityDto>> updateTaints,
     String folderUri, boolean isSonarCloud) {
-    var existingTaintVulnerabilitiesPerFile = taintVulnerabilitiesCache.getTaintVulnerabilitiesPerFile();
-
+    var changedFiles = new HashSet<URI>();
     // add new ones
-    handleAddedTaints(addedTaints, folderUri, isSonarCloud, existingTaintVulnerabilitiesPerFile);
-
+    addedTaints.forEach((fileUri, added) -> changedFiles.addAll(taintVulnerabilitiesCache.addAll(fileUri, dtosToTaintIssues(folderUri, added, isSonarCloud))));
     // update existing ones
-    handleUpdatedTaints(updateTaints, folderUri, isSonarCloud, existingTaintVulnerabilitiesPerFile);
-  }
-
-  private void handleAddedTaints(Map<URI, List<TaintVulnerabilityDto>> addedTaints, String folderUri, boolean isSonarCloud,
-    Map<URI, List<TaintIssue>> existingTaintVulnerabilitiesPerFile) {
-    addedTaints.forEach((fileUri, added) -> {
-      var addedTaintIssuesForFile = dtosToTaintIssues(folderUri, added, isSonarCloud);
-      if (existingTaintVulnerabilitiesPerFile.containsKey(fileUri)) {
-        addedTaintIssuesForFile.addAll(existingTaintVulnerabilitiesPerFile.get(fileUri));
-      }
-      taintVulnerabilitiesCache.reload(fileUri, addedTaintIssuesForFile);
-      diagnosticPublisher.publishTaints(fileUri);
-    });
-  }
-
-  private void handleUpdatedTaints(Map<URI, List<TaintVulnerabilityDto>> updateTaints, String folderUri, boolean isSonarCloud,
-    Map<URI, List<TaintIssue>> existingTaintVulnerabilitiesPerFile) {
-    updateTaints.forEach((fileUri, updates) -> {
-      if (existingTaintVulnerabilitiesPerFile.containsKey(fileUri)) {
-        updates.forEach(dto -> {
-          if (taintVulnerabilitiesCache.getTaintVulnerabilityByKey(dto.getSonarServerKey()).isPresent()) {
-            taintVulnerabilitiesCache.removeTaintIssue(fileUri.toString(), dto.getSonarServerKey());
-          }
-          if (!dto.isResolved()) {
-            taintVulnerabilitiesCache.add(fileUri, new TaintIssue(dto, folderUri, isSonarCloud));
-          }
-        });
-      } else {
-        taintVulnerabilitiesCache.reload(fileUri, dtosToTaintIssues(folderUri, updates, isSonarCloud));
-      }
-      diagnosticPublisher.publishTaints(fileUri);
-    });
+    updateTaints.forEach((fileUri, updates) -> changedFiles.addAll(taintVulnerabilitiesCache.update(fileUri, dtosToTaintIssues(folderUri, updates, isSonarCloud))));
+    return changedFiles;
   }
 
   @Override
@@ -674,6 +638,10 @@ public class SonarLintVSCodeClient implements SonarLintRpcClientDelegate {
     this.diagnosticPublisher = diagnosticPublisher;
   }
 
+  public void setStandaloneRulesCache(StandaloneRulesCache standaloneRulesCache) {
+    this.standaloneRulesCache = standaloneRulesCache;
+  }
+
   @Override
   public void didSkipLoadingPlugin(String configurationScopeId, Language language,
     DidSkipLoadingPluginParams.SkipReason reason, String minVersion, @Nullable String currentVersion) {
@@ -706,13 +674,13 @@ public class SonarLintVSCodeClient implements SonarLintRpcClientDelegate {
       .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().stream()
         .map(i -> (RaisedFindingDto) i)
         .toList()));
-    analysisHelper.handleIssues(findings);
+    analysisHelper.handleIssues(findings, isIntermediatePublication, analysisId);
   }
 
   @Override
   public void raiseHotspots(String configurationScopeId, Map<URI, List<RaisedHotspotDto>> hotspotsByFileUri,
     boolean isIntermediatePublication, @Nullable UUID analysisId) {
-    analysisHelper.handleHotspots(hotspotsByFileUri);
+    analysisHelper.handleHotspots(hotspotsByFileUri, isIntermediatePublication, analysisId);
   }
 
   @Override
@@ -740,6 +708,7 @@ public class SonarLintVSCodeClient implements SonarLintRpcClientDelegate {
 
   @Override
   public void didChangePluginStatuses(String configScopeId, List<PluginStatusDto> pluginStatuses) {
+    standaloneRulesCache.invalidate();
     client.didChangePluginStatuses(new DidChangePluginStatusesParams(configScopeId, pluginStatuses));
   }
 
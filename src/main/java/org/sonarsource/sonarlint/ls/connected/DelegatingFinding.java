@@ -34,41 +34,30 @@ import org.sonarsource.sonarlint.core.rpc.protocol.common.StandardModeDetails;
 import org.sonarsource.sonarlint.core.rpc.protocol.common.TextRangeDto;
 import org.sonarsource.sonarlint.ls.Issue;
 
+/**
+ * Finding reported by the backend for a file.
+ * <p>
+ * Many findings can be retained at once in large workspaces, so all state is read from the wrapped DTO instead of being copied.
+ */
 public class DelegatingFinding implements Issue {
 
-  protected UUID issueId;
-  protected boolean resolved;
-  protected IssueSeverity severity;
-  protected String serverIssueKey;
-  protected final RuleType type;
   protected final RaisedFindingDto finding;
-  protected boolean isOnNewCode;
-  protected URI fileUri;
-  protected Either<StandardModeDetails, MQRModeDetails> severityDetails;
-
-  private DelegatingFinding(RaisedFindingDto finding) {
-    this.issueId = finding.getId();
-    this.severity = finding.getSeverityMode().isLeft() ? finding.getSeverityMode().getLeft().getSeverity() : null;
-    this.type = finding.getSeverityMode().isLeft() ? finding.getSeverityMode().getLeft().getType() : null;
-    this.isOnNewCode = finding.isOnNewCode();
-    this.finding = finding;
-    this.serverIssueKey = finding.getServerKey();
-    this.resolved = finding.isResolved();
-    this.severityDetails = finding.getSeverityMode();
-  }
+  protected final URI fileUri;
 
   public DelegatingFinding(RaisedFindingDto rawFinding, URI fileUri) {
-    this(rawFinding);
+    this.finding = rawFinding;
     this.fileUri = fileUri;
   }
 
   @CheckForNull
   public IssueSeverity getSeverity() {
+    var severityDetails = finding.getSeverityMode();
     return severityDetails.isLeft() ? severityDetails.getLeft().getSeverity() : null;
   }
 
   @CheckForNull
   public RuleType getType() {
+    var severityDetails = finding.getSeverityMode();
     return severityDetails.isLeft() ? severityDetails.getLeft().getType() : null;
   }
 
@@ -133,24 +122,24 @@ public class DelegatingFinding implements Issue {
   }
 
   public String getServerIssueKey() {
-    return serverIssueKey;
+    return finding.getServerKey();
   }
 
   public UUID getIssueId() {
-    return issueId;
+    return finding.getId();
   }
 
   @Override
   public Either<StandardModeDetails, MQRModeDetails> getSeverityDetails() {
-    return severityDetails;
+    return finding.getSeverityMode();
   }
 
   public boolean isResolved() {
-    return resolved;
+    return finding.isResolved();
   }
 
   public boolean isOnNewCode() {
-    return isOnNewCode;
+    return finding.isOnNewCode();
   }
 
   public RaisedFindingDto getFinding() {
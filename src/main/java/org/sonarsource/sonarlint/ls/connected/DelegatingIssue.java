@@ -23,14 +23,12 @@ import java.net.URI;
 import org.sonarsource.sonarlint.core.rpc.protocol.client.issue.RaisedFindingDto;
 
 public class DelegatingIssue extends DelegatingFinding {
-  RaisedFindingDto issue;
 
   public DelegatingIssue(RaisedFindingDto rawIssue, URI fileUri) {
     super(rawIssue, fileUri);
-    this.issue = rawIssue;
   }
 
   public RaisedFindingDto getIssue() {
-    return issue;
+    return finding;
   }
 }
@@ -21,9 +21,14 @@ package org.sonarsource.sonarlint.ls.connected;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 import org.eclipse.lsp4j.Diagnostic;
@@ -34,19 +39,35 @@ import org.sonarsource.sonarlint.ls.domain.DependencyRisk;
 
 import static java.util.Collections.emptyList;
 
+/**
+ * Dependency risks per configuration scope, updated from backend notifications and read from commands.
+ * <p>
+ * Each configuration scope holds an immutable snapshot, atomically replaced when changes are applied,
+ * and risks are also indexed by id so that commands don't have to scan every snapshot. Writes are serialized, and the index is only
+ * updated once the snapshot is published, so that a risk found by id is always visible in its configuration scope.
+ * <p>
+ * Applying changes copies the snapshot of the configuration scope, in time linear with the number of its risks. This does not change
+ * the cost of a notification: the diagnostics of the whole configuration scope are then published again, which is linear as well.
+ * In exchange, readers get a consistent list without locking.
+ */
 public class DependencyRisksCache {
 
   private final Map<URI, List<DependencyRisk>> dependencyRisksPerConfigScope = new ConcurrentHashMap<>();
+  private final Map<UUID, DependencyRisk> dependencyRisksById = new ConcurrentHashMap<>();
 
-  public void clear(URI fileUri) {
-    dependencyRisksPerConfigScope.remove(fileUri);
+  public synchronized void clear(URI fileUri) {
+    var previousRisks = dependencyRisksPerConfigScope.remove(fileUri);
+    if (previousRisks != null) {
+      previousRisks.forEach(this::unindex);
+    }
   }
 
   public Optional<DependencyRisk> getDependencyRiskById(String issueId) {
-    return dependencyRisksPerConfigScope.values().stream()
-      .flatMap(List::stream)
-      .filter(i -> issueId.equals(i.getId().toString()))
-      .findFirst();
+    try {
+      return Optional.ofNullable(dependencyRisksById.get(UUID.fromString(issueId)));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
   }
 
   public List<String> getAllowedTransitionsForDependencyRisk(String issueId) {
@@ -92,24 +113,64 @@ public class DependencyRisksCache {
     return messageBuilder.toString();
   }
 
-  public void putAll(URI folderUri, List<DependencyRisk> dependencyRisks) {
-    dependencyRisksPerConfigScope.put(folderUri, dependencyRisks);
+  public synchronized void putAll(URI folderUri, List<DependencyRisk> dependencyRisks) {
+    var newRisks = List.copyOf(dependencyRisks);
+    var previousRisks = dependencyRisksPerConfigScope.put(folderUri, newRisks);
+    if (previousRisks != null) {
+      previousRisks.forEach(this::unindex);
+    }
+    newRisks.forEach(this::index);
   }
 
   public void addDependencyRisk(URI folderUri, DependencyRisk dependencyRisk) {
-    dependencyRisksPerConfigScope.computeIfAbsent(folderUri, a -> new ArrayList<>()).add(dependencyRisk);
+    applyChanges(folderUri, Set.of(), List.of(dependencyRisk));
   }
 
   public void removeDependencyRisk(String folderUriStr, String key) {
-    var folderUri = URI.create(folderUriStr);
-    var issues = dependencyRisksPerConfigScope.get(folderUri);
-    if (issues != null) {
-      var issueToRemove = issues.stream().filter(dependencyRisk -> dependencyRisk.getId().toString().equals(key)).findFirst();
-      issueToRemove.ifPresent(issues::remove);
+    try {
+      applyChanges(URI.create(folderUriStr), Set.of(UUID.fromString(key)), List.of());
+    } catch (IllegalArgumentException e) {
+      // Not a dependency risk id, nothing to remove
+    }
+  }
+
+  /**
+   * Remove the closed dependency risks of the configuration scope, and add or replace the given ones, in a single snapshot update.
+   */
+  public synchronized void applyChanges(URI folderUri, Set<UUID> closedDependencyRiskIds, Collection<DependencyRisk> addedOrUpdatedDependencyRisks) {
+    var previousRisks = dependencyRisksPerConfigScope.get(folderUri);
+    if (previousRisks == null && addedOrUpdatedDependencyRisks.isEmpty()) {
+      return;
     }
+    var replacedIds = new HashSet<>(closedDependencyRiskIds);
+    addedOrUpdatedDependencyRisks.forEach(dependencyRisk -> replacedIds.add(dependencyRisk.getId()));
+    var newRisks = new ArrayList<DependencyRisk>();
+    var replacedRisks = new ArrayList<DependencyRisk>();
+    if (previousRisks != null) {
+      previousRisks.forEach(dependencyRisk -> (replacedIds.contains(dependencyRisk.getId()) ? replacedRisks : newRisks).add(dependencyRisk));
+    }
+    newRisks.addAll(addedOrUpdatedDependencyRisks);
+    dependencyRisksPerConfigScope.put(folderUri, Collections.unmodifiableList(newRisks));
+    replacedRisks.forEach(this::unindex);
+    addedOrUpdatedDependencyRisks.forEach(this::index);
   }
 
   public Map<URI, List<DependencyRisk>> getDependencyRisksPerConfigScope() {
-    return dependencyRisksPerConfigScope;
+    return Collections.unmodifiableMap(dependencyRisksPerConfigScope);
+  }
+
+  private void index(DependencyRisk dependencyRisk) {
+    var id = dependencyRisk.getId();
+    if (id != null) {
+      dependencyRisksById.put(id, dependencyRisk);
+    }
+  }
+
+  private void unindex(DependencyRisk dependencyRisk) {
+    var id = dependencyRisk.getId();
+    if (id != null) {
+      // Only remove the exact same instance, the same risk might have been indexed again meanwhile by another configuration scope
+      dependencyRisksById.remove(id, dependencyRisk);
+    }
   }
 }
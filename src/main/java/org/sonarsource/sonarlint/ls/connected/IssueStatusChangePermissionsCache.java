@@ -0,0 +1,135 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.annotation.CheckForNull;
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.issue.CheckStatusChangePermittedParams;
+import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
+
+/**
+ * Keep whether the user is allowed to change the status of issues, per connection and issue key, for a limited time.
+ * <p>
+ * Permissions are checked in background when issues are published, so that computing code actions never waits for the server.
+ */
+public class IssueStatusChangePermissionsCache {
+
+  static final Duration PERMISSION_TTL = Duration.ofMinutes(5);
+
+  private final BackendServiceFacade backendServiceFacade;
+  private final ProjectBindingManager bindingManager;
+  private final LanguageClientLogger logOutput;
+  private final LongSupplier currentTimeMillis;
+  private final long ttlMillis;
+  private final Map<PermissionKey, PermissionEntry> permissions = new ConcurrentHashMap<>();
+
+  public IssueStatusChangePermissionsCache(BackendServiceFacade backendServiceFacade, ProjectBindingManager bindingManager, LanguageClientLogger logOutput) {
+    this(backendServiceFacade, bindingManager, logOutput, System::currentTimeMillis, PERMISSION_TTL);
+  }
+
+  IssueStatusChangePermissionsCache(BackendServiceFacade backendServiceFacade, ProjectBindingManager bindingManager, LanguageClientLogger logOutput,
+    LongSupplier currentTimeMillis, Duration ttl) {
+    this.backendServiceFacade = backendServiceFacade;
+    this.bindingManager = bindingManager;
+    this.logOutput = logOutput;
+    this.currentTimeMillis = currentTimeMillis;
+    this.ttlMillis = ttl.toMillis();
+  }
+
+  /**
+   * @return whether changing the status of the issue is permitted, or empty if not known yet. In this case, the permission is
+   * checked in background.
+   */
+  public Optional<Boolean> getIfAvailable(String connectionId, String issueKey) {
+    var permitted = getOrCheck(new PermissionKey(connectionId, issueKey)).permitted();
+    return permitted.isDone() && !permitted.isCompletedExceptionally() ? Optional.ofNullable(permitted.join()) : Optional.empty();
+  }
+
+  /**
+   * Check in background the permissions for the given issues of a file, if it is bound and they are not already known.
+   */
+  public void warmUp(URI fileUri, Collection<DelegatingFinding> issues) {
+    bindingManager.getBindingIfExists(fileUri).ifPresent(binding -> {
+      evictExpired();
+      issues.forEach(issue -> {
+        var issueKey = issueKey(issue);
+        if (issueKey != null) {
+          getOrCheck(new PermissionKey(binding.connectionId(), issueKey));
+        }
+      });
+    });
+  }
+
+  public void didChangeCredentials(String connectionId) {
+    permissions.keySet().removeIf(key -> key.connectionId().equals(connectionId));
+  }
+
+  @CheckForNull
+  public static String issueKey(DelegatingFinding issue) {
+    var serverIssueKey = issue.getServerIssueKey();
+    if (serverIssueKey != null) {
+      return serverIssueKey;
+    }
+    return issue.getIssueId() != null ? issue.getIssueId().toString() : null;
+  }
+
+  private PermissionEntry getOrCheck(PermissionKey key) {
+    var now = currentTimeMillis.getAsLong();
+    var newEntry = new PermissionEntry(new CompletableFuture<>(), now + ttlMillis);
+    var entry = permissions.compute(key, (k, previousEntry) -> previousEntry != null && previousEntry.expirationTime() > now ? previousEntry : newEntry);
+    if (entry == newEntry) {
+      check(key, entry);
+    }
+    return entry;
+  }
+
+  private void check(PermissionKey key, PermissionEntry entry) {
+    backendServiceFacade.getBackendService().checkChangeIssueStatusPermitted(new CheckStatusChangePermittedParams(key.connectionId(), key.issueKey()))
+      .whenComplete((response, error) -> {
+        if (error != null) {
+          // Don't keep the failure, the permission will be checked again next time
+          permissions.remove(key, entry);
+          logOutput.debug("Unable to check permission to change status of issue " + key.issueKey() + ": " + error.getMessage());
+          entry.permitted().completeExceptionally(error);
+        } else {
+          entry.permitted().complete(response != null && response.isPermitted());
+        }
+      });
+  }
+
+  private void evictExpired() {
+    var now = currentTimeMillis.getAsLong();
+    permissions.values().removeIf(entry -> entry.expirationTime() <= now);
+  }
+
+  private record PermissionKey(String connectionId, String issueKey) {
+  }
+
+  private record PermissionEntry(CompletableFuture<Boolean> permitted, long expirationTime) {
+  }
+}
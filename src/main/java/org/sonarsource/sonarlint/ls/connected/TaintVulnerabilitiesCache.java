@@ -20,11 +20,18 @@
 package org.sonarsource.sonarlint.ls.connected;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.DiagnosticSeverity;
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.tracking.TaintVulnerabilityDto;
@@ -36,19 +43,33 @@ import org.sonarsource.sonarlint.ls.util.TextRangeUtils;
 import static java.util.Collections.emptyList;
 import static org.sonarsource.sonarlint.ls.util.Utils.buildMessageWithPluralizedSuffix;
 
+/**
+ * Taint vulnerabilities per file, indexed by id and by server key so that lookups and incremental changes
+ * don't have to walk the whole cache.
+ * <p>
+ * The per-file lists are immutable snapshots, replaced on each change: reads are lock-free, while changes are serialized
+ * to keep the lists and the indexes consistent.
+ */
 public class TaintVulnerabilitiesCache {
 
   private final Map<URI, List<TaintIssue>> taintVulnerabilitiesPerFile = new ConcurrentHashMap<>();
+  private final Map<UUID, IndexedTaint> taintVulnerabilitiesById = new ConcurrentHashMap<>();
+  private final Map<String, UUID> taintVulnerabilityIdPerServerKey = new ConcurrentHashMap<>();
+
+  private record IndexedTaint(URI fileUri, TaintIssue taintIssue) {
+  }
 
-  public void clear(URI fileUri) {
-    taintVulnerabilitiesPerFile.remove(fileUri);
+  public synchronized void clear(URI fileUri) {
+    var previousTaints = taintVulnerabilitiesPerFile.remove(fileUri);
+    if (previousTaints != null) {
+      previousTaints.forEach(this::unindex);
+    }
   }
 
   public Optional<TaintIssue> getTaintVulnerabilityByKey(String issueId) {
-    return taintVulnerabilitiesPerFile.values().stream()
-      .flatMap(List::stream)
-      .filter(i -> issueId.equals(i.getSonarServerKey()))
-      .findFirst();
+    var id = taintVulnerabilityIdPerServerKey.get(issueId);
+    return Optional.ofNullable(id != null ? taintVulnerabilitiesById.get(id) : null)
+      .map(IndexedTaint::taintIssue);
   }
 
   public Stream<Diagnostic> getAsDiagnostics(URI fileUri) {
@@ -93,24 +114,138 @@ public class TaintVulnerabilitiesCache {
     }
   }
 
-  public void reload(URI fileUri, List<TaintIssue> taintIssues) {
-    taintVulnerabilitiesPerFile.put(fileUri, taintIssues);
+  public synchronized void reload(URI fileUri, List<TaintIssue> taintIssues) {
+    var previousTaints = taintVulnerabilitiesPerFile.put(fileUri, List.copyOf(taintIssues));
+    if (previousTaints != null) {
+      previousTaints.forEach(this::unindex);
+    }
+    taintIssues.forEach(taintIssue -> index(fileUri, taintIssue));
   }
 
-  public void add(URI fileUri, TaintIssue taintIssue) {
-    taintVulnerabilitiesPerFile.get(fileUri).add(taintIssue);
+  /**
+   * Add the given taint vulnerabilities to the file, replacing the ones already known with the same id, wherever they were.
+   *
+   * @return the files whose taint vulnerabilities changed
+   */
+  public synchronized Set<URI> addAll(URI fileUri, Collection<TaintIssue> taintIssues) {
+    var changedFiles = new HashSet<URI>();
+    changedFiles.add(fileUri);
+    taintIssues.forEach(taintIssue -> {
+      var previousFileUri = removeById(taintIssue.getId());
+      if (previousFileUri != null) {
+        changedFiles.add(previousFileUri);
+      }
+    });
+    var newTaints = new ArrayList<>(taintVulnerabilitiesPerFile.getOrDefault(fileUri, emptyList()));
+    newTaints.addAll(taintIssues);
+    taintVulnerabilitiesPerFile.put(fileUri, Collections.unmodifiableList(newTaints));
+    taintIssues.forEach(taintIssue -> index(fileUri, taintIssue));
+    return changedFiles;
   }
 
-  public void removeTaintIssue(String fileUriStr, String key) {
+  /**
+   * Same as {@link #addAll(URI, Collection)}, except that resolved taint vulnerabilities are only removed from the cache.
+   *
+   * @return the files whose taint vulnerabilities changed
+   */
+  public synchronized Set<URI> update(URI fileUri, Collection<TaintIssue> taintIssues) {
+    var changedFiles = new HashSet<URI>();
+    taintIssues.stream()
+      .filter(TaintIssue::isResolved)
+      .map(taintIssue -> removeById(taintIssue.getId()))
+      .forEach(previousFileUri -> {
+        if (previousFileUri != null) {
+          changedFiles.add(previousFileUri);
+        }
+      });
+    var unresolvedTaints = taintIssues.stream().filter(taintIssue -> !taintIssue.isResolved()).toList();
+    if (!unresolvedTaints.isEmpty() || !taintVulnerabilitiesPerFile.containsKey(fileUri)) {
+      changedFiles.addAll(addAll(fileUri, unresolvedTaints));
+    }
+    return changedFiles;
+  }
+
+  /**
+   * @return the files whose taint vulnerabilities changed
+   */
+  public synchronized Set<URI> removeTaintIssues(Collection<UUID> ids) {
+    var changedFiles = new HashSet<URI>();
+    ids.forEach(id -> {
+      var previousFileUri = removeById(id);
+      if (previousFileUri != null) {
+        changedFiles.add(previousFileUri);
+      }
+    });
+    return changedFiles;
+  }
+
+  public synchronized void removeTaintIssue(String fileUriStr, String key) {
     var fileUri = URI.create(fileUriStr);
-    var issues = taintVulnerabilitiesPerFile.get(fileUri);
-    if (issues != null) {
-      var issueToRemove = issues.stream().filter(taintIssue -> taintIssue.getSonarServerKey().equals(key) || taintIssue.getId().toString().equals(key)).findFirst();
-      issueToRemove.ifPresent(issues::remove);
+    var id = taintVulnerabilityIdPerServerKey.get(key);
+    if (id == null) {
+      id = parseId(key);
+    }
+    var indexedTaint = id != null ? taintVulnerabilitiesById.get(id) : null;
+    if (indexedTaint != null && indexedTaint.fileUri().equals(fileUri)) {
+      removeById(id);
     }
   }
 
   public Map<URI, List<TaintIssue>> getTaintVulnerabilitiesPerFile() {
-    return taintVulnerabilitiesPerFile;
+    return Collections.unmodifiableMap(taintVulnerabilitiesPerFile);
+  }
+
+  /**
+   * @return the file the taint vulnerability was removed from, or null if it was not in the cache
+   */
+  @CheckForNull
+  private URI removeById(@CheckForNull UUID id) {
+    var indexedTaint = id != null ? taintVulnerabilitiesById.get(id) : null;
+    if (indexedTaint == null) {
+      return null;
+    }
+    var fileUri = indexedTaint.fileUri();
+    taintVulnerabilitiesPerFile.computeIfPresent(fileUri, (uri, taints) -> taints.stream()
+      .filter(taintIssue -> taintIssue != indexedTaint.taintIssue())
+      .toList());
+    unindex(indexedTaint.taintIssue());
+    return fileUri;
+  }
+
+  private void index(URI fileUri, TaintIssue taintIssue) {
+    var id = taintIssue.getId();
+    if (id == null) {
+      return;
+    }
+    taintVulnerabilitiesById.put(id, new IndexedTaint(fileUri, taintIssue));
+    var serverKey = taintIssue.getSonarServerKey();
+    if (serverKey != null) {
+      taintVulnerabilityIdPerServerKey.put(serverKey, id);
+    }
+  }
+
+  private void unindex(TaintIssue taintIssue) {
+    var id = taintIssue.getId();
+    if (id == null) {
+      return;
+    }
+    var indexedTaint = taintVulnerabilitiesById.get(id);
+    // The same taint vulnerability might have been indexed again meanwhile, from another file
+    if (indexedTaint != null && indexedTaint.taintIssue() == taintIssue) {
+      taintVulnerabilitiesById.remove(id);
+      var serverKey = taintIssue.getSonarServerKey();
+      if (serverKey != null) {
+        taintVulnerabilityIdPerServerKey.remove(serverKey, id);
+      }
+    }
+  }
+
+  @CheckForNull
+  private static UUID parseId(String key) {
+    try {
+      return UUID.fromString(key);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
   }
 }
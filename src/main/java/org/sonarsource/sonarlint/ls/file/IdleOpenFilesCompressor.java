@@ -0,0 +1,138 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.file;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
+import org.sonarsource.sonarlint.ls.util.CatchingRunnable;
+import org.sonarsource.sonarlint.ls.util.Utils;
+
+import static java.lang.String.format;
+
+/**
+ * Compress in memory the content of open files that were not accessed for some time.
+ * <p>
+ * Users may keep hundreds of files open, including huge generated files, whose content is only needed again when they are edited
+ * or analyzed. The content of files that were idle for the configured delay is deflated, and rebuilt on next access.
+ * The delay can be configured with the {@value #IDLE_DELAY_PROPERTY_KEY} system property, <code>0</code> disables compression.
+ */
+public class IdleOpenFilesCompressor {
+
+  public static final String IDLE_DELAY_PROPERTY_KEY = "sonarlint.internal.openFiles.idleCompressionDelayMs";
+  static final long DEFAULT_IDLE_DELAY_MS = TimeUnit.MINUTES.toMillis(5);
+
+  private final OpenFilesCache openFilesCache;
+  private final ScheduledExecutorService scheduler;
+  private final LanguageClientLogger lsLogOutput;
+  private final long idleDelayMs;
+
+  private final AtomicLong compressedCount = new AtomicLong();
+  private final AtomicLong rehydratedCount = new AtomicLong();
+  private final AtomicLong rehydrationNanos = new AtomicLong();
+
+  public IdleOpenFilesCompressor(OpenFilesCache openFilesCache, LanguageClientLogger lsLogOutput) {
+    this(openFilesCache, Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("SonarLint Language Server idle files compressor", true)),
+      lsLogOutput, getIdleDelayMs(lsLogOutput));
+  }
+
+  IdleOpenFilesCompressor(OpenFilesCache openFilesCache, ScheduledExecutorService scheduler, LanguageClientLogger lsLogOutput, long idleDelayMs) {
+    this.openFilesCache = openFilesCache;
+    this.scheduler = scheduler;
+    this.lsLogOutput = lsLogOutput;
+    this.idleDelayMs = idleDelayMs;
+    if (idleDelayMs > 0) {
+      // Files are compressed after being idle between one and two delays
+      scheduler.scheduleWithFixedDelay(new CatchingRunnable(this::compressIdleFiles, t -> lsLogOutput.errorWithStackTrace("Failed to compress idle files", t)),
+        idleDelayMs, idleDelayMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  static long getIdleDelayMs(LanguageClientLogger lsLogOutput) {
+    var property = System.getProperty(IDLE_DELAY_PROPERTY_KEY);
+    if (property == null) {
+      return DEFAULT_IDLE_DELAY_MS;
+    }
+    try {
+      return Math.max(0, Long.parseLong(property));
+    } catch (NumberFormatException e) {
+      lsLogOutput.warn(format("Invalid value \"%s\" for property %s, using default idle delay", property, IDLE_DELAY_PROPERTY_KEY));
+      return DEFAULT_IDLE_DELAY_MS;
+    }
+  }
+
+  void compressIdleFiles() {
+    var idleDelayNanos = TimeUnit.MILLISECONDS.toNanos(idleDelayMs);
+    var compressedNow = 0;
+    for (var file : openFilesCache.getAll()) {
+      var uri = file.getUri();
+      var saved = file.compressContentIfIdle(idleDelayNanos, nanos -> {
+        rehydratedCount.incrementAndGet();
+        rehydrationNanos.addAndGet(nanos);
+        lsLogOutput.debug(format("Decompressed content of idle file \"%s\" in %d ms", uri, TimeUnit.NANOSECONDS.toMillis(nanos)));
+      });
+      if (saved > 0) {
+        compressedNow++;
+      }
+    }
+    if (compressedNow > 0) {
+      compressedCount.addAndGet(compressedNow);
+      lsLogOutput.debug(format("Compressed content of %d idle files, %d KB saved for all open files", compressedNow, getSavedBytes() / 1024));
+    }
+  }
+
+  /**
+   * @return an upper bound of the number of bytes currently saved by the compression of open files, buffers shared with other
+   * versions of a file are counted as saved
+   */
+  public long getSavedBytes() {
+    return openFilesCache.getAll().stream().mapToLong(VersionedOpenFile::getCompressedContentSavedBytes).sum();
+  }
+
+  /**
+   * @return number of times the content of an idle file was compressed
+   */
+  public long getCompressedCount() {
+    return compressedCount.get();
+  }
+
+  /**
+   * @return number of times the compressed content of a file was accessed again
+   */
+  public long getRehydratedCount() {
+    return rehydratedCount.get();
+  }
+
+  /**
+   * @return total time spent to decompress the content of files accessed again, in nanoseconds
+   */
+  public long getRehydrationNanos() {
+    return rehydrationNanos.get();
+  }
+
+  public void shutdown() {
+    var rehydrated = getRehydratedCount();
+    lsLogOutput.debug(format("Idle open files: %d compressed, %d decompressed in %d ms on average, %d KB currently saved", getCompressedCount(), rehydrated,
+      rehydrated == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(getRehydrationNanos() / rehydrated), getSavedBytes() / 1024));
+    Utils.shutdownAndAwait(scheduler, true);
+  }
+}
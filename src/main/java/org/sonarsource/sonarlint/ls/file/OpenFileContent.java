@@ -0,0 +1,192 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.file;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongConsumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.CheckForNull;
+
+/**
+ * Content of an open file, that can be compressed in memory while the file is idle.
+ * <p>
+ * The content is logically immutable: once compressed, the {@link PieceTable} is rebuilt from the compressed bytes on next access.
+ * Access does not lock as long as the content is not compressed.
+ */
+final class OpenFileContent {
+
+  /**
+   * Smaller contents are not worth compressing.
+   */
+  static final int MIN_COMPRESSED_LENGTH = 8 * 1024;
+
+  private volatile PieceTable buffer;
+  private volatile long lastAccessNanos;
+  // Fields below are guarded by this
+  private byte[] compressed;
+  private int encodedLength;
+  private long savedBytes;
+  private LongConsumer rehydrationListener;
+
+  OpenFileContent(PieceTable buffer) {
+    this.buffer = buffer;
+    this.lastAccessNanos = System.nanoTime();
+  }
+
+  PieceTable getBuffer() {
+    lastAccessNanos = System.nanoTime();
+    var current = buffer;
+    return current != null ? current : rehydrate();
+  }
+
+  private synchronized PieceTable rehydrate() {
+    var current = buffer;
+    if (current == null) {
+      var start = System.nanoTime();
+      current = PieceTable.of(new String(inflate(compressed, encodedLength), StandardCharsets.UTF_8));
+      buffer = current;
+      compressed = null;
+      savedBytes = 0;
+      rehydrationListener.accept(System.nanoTime() - start);
+      rehydrationListener = null;
+    }
+    return current;
+  }
+
+  /**
+   * Compress the content if it was not accessed for the given delay.
+   *
+   * @param rehydrationListener notified with the time spent, in nanoseconds, when the compressed content is accessed again
+   * @return the estimated number of bytes saved, 0 if the content was not compressed. This is an upper bound: the piece table may share
+   * its buffers with other versions of the file, that still retain them.
+   */
+  synchronized long compressIfIdle(long idleDelayNanos, LongConsumer rehydrationListener) {
+    var current = buffer;
+    if (current == null || current.length() < MIN_COMPRESSED_LENGTH || System.nanoTime() - lastAccessNanos < idleDelayNanos) {
+      return 0;
+    }
+    var text = current.getText();
+    var encoded = encode(text);
+    if (encoded == null) {
+      return 0;
+    }
+    var deflated = deflate(encoded);
+    var saved = footprint(text) - deflated.length;
+    if (saved <= 0) {
+      return 0;
+    }
+    this.compressed = deflated;
+    this.encodedLength = encoded.length;
+    this.savedBytes = saved;
+    this.rehydrationListener = rehydrationListener;
+    this.buffer = null;
+    return saved;
+  }
+
+  boolean isCompressed() {
+    return buffer == null;
+  }
+
+  /**
+   * @return an upper bound of the number of bytes currently saved by compression
+   */
+  synchronized long getSavedBytes() {
+    return savedBytes;
+  }
+
+  /**
+   * @return the UTF-8 bytes of the text, or null if it contains unpaired surrogates that would not survive the round trip
+   */
+  @CheckForNull
+  private static byte[] encode(String text) {
+    try {
+      var bytes = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT)
+        .encode(CharBuffer.wrap(text));
+      var result = new byte[bytes.remaining()];
+      bytes.get(result);
+      return result;
+    } catch (CharacterCodingException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Strings only made of LATIN1 characters are stored with one byte per character, others with two.
+   */
+  private static long footprint(String text) {
+    for (var i = 0; i < text.length(); i++) {
+      if (text.charAt(i) > 0xFF) {
+        return 2L * text.length();
+      }
+    }
+    return text.length();
+  }
+
+  private static byte[] deflate(byte[] input) {
+    var deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(input);
+      deflater.finish();
+      var output = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+      var chunk = new byte[8192];
+      while (!deflater.finished()) {
+        output.write(chunk, 0, deflater.deflate(chunk));
+      }
+      return output.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] input, int length) {
+    var inflater = new Inflater();
+    try {
+      inflater.setInput(input);
+      var output = new byte[length];
+      var offset = 0;
+      while (offset < length && !inflater.finished()) {
+        var inflated = inflater.inflate(output, offset, length - offset);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new DataFormatException("Truncated content");
+        }
+        offset += inflated;
+      }
+      return output;
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Unable to decompress content of idle file", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  @Override
+  public String toString() {
+    var current = buffer;
+    return current != null ? current.toString() : "<compressed>";
+  }
+}
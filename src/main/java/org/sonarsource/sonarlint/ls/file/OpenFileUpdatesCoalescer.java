@@ -0,0 +1,201 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.file;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
+import org.sonarsource.sonarlint.ls.util.Utils;
+
+import static java.lang.String.format;
+
+/**
+ * Coalesce content updates of open files before they are forwarded to the backend.
+ * <p>
+ * During fast typing, each <code>didChange</code> produces a new version of the file that is stale before analysis even starts.
+ * Updates are kept per URI until no new version was received for the quiet period, and only the latest version is forwarded.
+ * To avoid starving the backend during continuous typing, a pending update is forwarded at the latest after
+ * {@link #MAX_DELAY_FACTOR} quiet periods. The quiet period can be configured with the {@value #QUIET_PERIOD_PROPERTY_KEY}
+ * system property, <code>0</code> disables coalescing.
+ * <p>
+ * The content of a pending update can be provided lazily, so that it is only materialized for the version that is actually forwarded.
+ */
+public class OpenFileUpdatesCoalescer {
+
+  public static final String QUIET_PERIOD_PROPERTY_KEY = "sonarlint.internal.didChange.quietPeriodMs";
+  static final long DEFAULT_QUIET_PERIOD_MS = 100;
+  static final int MAX_DELAY_FACTOR = 5;
+
+  private final Consumer<VersionedOpenFile> forwarder;
+  private final ScheduledExecutorService scheduler;
+  private final Executor forwardExecutor;
+  private final LanguageClientLogger lsLogOutput;
+  private final long quietPeriodMs;
+  private final Map<URI, PendingUpdate> pendingUpdatesPerFileURI = new ConcurrentHashMap<>();
+
+  private final AtomicLong forwardedCount = new AtomicLong();
+  private final AtomicLong coalescedCount = new AtomicLong();
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  public OpenFileUpdatesCoalescer(Consumer<VersionedOpenFile> forwarder, LanguageClientLogger lsLogOutput) {
+    this(forwarder, Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("SonarLint Language Server didChange coalescer", true)),
+      ForkJoinPool.commonPool(), lsLogOutput, getQuietPeriodMs(lsLogOutput));
+  }
+
+  OpenFileUpdatesCoalescer(Consumer<VersionedOpenFile> forwarder, ScheduledExecutorService scheduler, Executor forwardExecutor, LanguageClientLogger lsLogOutput,
+    long quietPeriodMs) {
+    this.forwarder = forwarder;
+    this.scheduler = scheduler;
+    this.forwardExecutor = forwardExecutor;
+    this.lsLogOutput = lsLogOutput;
+    this.quietPeriodMs = quietPeriodMs;
+  }
+
+  static long getQuietPeriodMs(LanguageClientLogger lsLogOutput) {
+    var property = System.getProperty(QUIET_PERIOD_PROPERTY_KEY);
+    if (property == null) {
+      return DEFAULT_QUIET_PERIOD_MS;
+    }
+    try {
+      return Math.max(0, Long.parseLong(property));
+    } catch (NumberFormatException e) {
+      lsLogOutput.warn(format("Invalid value \"%s\" for property %s, using default quiet period", property, QUIET_PERIOD_PROPERTY_KEY));
+      return DEFAULT_QUIET_PERIOD_MS;
+    }
+  }
+
+  public void didChange(VersionedOpenFile file) {
+    didChange(file.getUri(), () -> file);
+  }
+
+  /**
+   * @param fileSupplier called once, when the update is forwarded, to get the latest version of the file
+   */
+  public void didChange(URI fileUri, Supplier<VersionedOpenFile> fileSupplier) {
+    if (quietPeriodMs == 0) {
+      forward(fileUri, fileSupplier);
+      return;
+    }
+    var now = System.nanoTime();
+    var replaced = new AtomicReference<PendingUpdate>();
+    var pending = pendingUpdatesPerFileURI.compute(fileUri, (uri, previous) -> {
+      replaced.set(previous);
+      return new PendingUpdate(uri, fileSupplier, previous != null ? previous.firstChangeNanos : now, previous != null);
+    });
+    var previous = replaced.get();
+    if (previous != null) {
+      previous.cancel();
+      droppedCount.incrementAndGet();
+    }
+    var elapsedMs = TimeUnit.NANOSECONDS.toMillis(now - pending.firstChangeNanos);
+    var delayMs = Math.max(0, Math.min(quietPeriodMs, MAX_DELAY_FACTOR * quietPeriodMs - elapsedMs));
+    pending.scheduledFlush = scheduler.schedule(() -> flush(pending), delayMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Pending updates of a closed file are not relevant anymore.
+   */
+  public void didClose(URI fileUri) {
+    var pending = pendingUpdatesPerFileURI.remove(fileUri);
+    if (pending != null) {
+      pending.cancel();
+      droppedCount.incrementAndGet();
+    }
+  }
+
+  private void flush(PendingUpdate pending) {
+    if (pendingUpdatesPerFileURI.remove(pending.fileUri, pending)) {
+      if (pending.coalesced) {
+        coalescedCount.incrementAndGet();
+      }
+      forward(pending.fileUri, pending.fileSupplier);
+    }
+  }
+
+  private void forward(URI fileUri, Supplier<VersionedOpenFile> fileSupplier) {
+    forwardedCount.incrementAndGet();
+    forwardExecutor.execute(() -> {
+      try {
+        forwarder.accept(fileSupplier.get());
+      } catch (Exception e) {
+        lsLogOutput.errorWithStackTrace(format("Unable to forward update of file \"%s\"", fileUri), e);
+      }
+    });
+  }
+
+  /**
+   * @return number of updates forwarded to the backend
+   */
+  public long getForwardedCount() {
+    return forwardedCount.get();
+  }
+
+  /**
+   * @return number of forwarded updates that replaced at least one intermediate version
+   */
+  public long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+
+  /**
+   * @return number of intermediate versions that were never forwarded to the backend
+   */
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  public void shutdown() {
+    lsLogOutput.debug(format("Open file updates: %d forwarded, %d coalesced, %d dropped", getForwardedCount(), getCoalescedCount(), getDroppedCount()));
+    Utils.shutdownAndAwait(scheduler, true);
+  }
+
+  private static final class PendingUpdate {
+    private final URI fileUri;
+    private final Supplier<VersionedOpenFile> fileSupplier;
+    private final long firstChangeNanos;
+    private final boolean coalesced;
+    private volatile ScheduledFuture<?> scheduledFlush;
+
+    private PendingUpdate(URI fileUri, Supplier<VersionedOpenFile> fileSupplier, long firstChangeNanos, boolean coalesced) {
+      this.fileUri = fileUri;
+      this.fileSupplier = fileSupplier;
+      this.firstChangeNanos = firstChangeNanos;
+      this.coalesced = coalesced;
+    }
+
+    private void cancel() {
+      var future = scheduledFlush;
+      if (future != null) {
+        future.cancel(false);
+      }
+    }
+  }
+}
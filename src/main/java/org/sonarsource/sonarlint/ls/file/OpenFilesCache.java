@@ -21,9 +21,12 @@ package org.sonarsource.sonarlint.ls.file;
 
 import java.net.URI;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
 
 import static java.lang.String.format;
@@ -46,11 +49,29 @@ public class OpenFilesCache {
     return file;
   }
 
-  public void didChange(URI fileUri, String fileContent, int version) {
+  /**
+   * Apply the given changes in order, as received in <code>textDocument/didChange</code>. Changes with a range are applied
+   * incrementally on the previous content, changes without a range replace the whole content.
+   */
+  public void didChange(URI fileUri, List<TextDocumentContentChangeEvent> changes, int version) {
     if (!openFilesPerFileURI.containsKey(fileUri)) {
       lsLogOutput.warn(format("Illegal state. File \"%s\" is reported changed but we missed the open notification", fileUri));
     }
-    openFilesPerFileURI.computeIfPresent(fileUri, (uri, previous) -> new VersionedOpenFile(uri, previous.getLanguageId(), version, fileContent));
+    openFilesPerFileURI.computeIfPresent(fileUri, (uri, previous) -> {
+      var content = previous.getContentBuffer();
+      for (var change : changes) {
+        content = applyChange(content, change);
+      }
+      return new VersionedOpenFile(uri, previous.getLanguageId(), content, version);
+    });
+  }
+
+  private static PieceTable applyChange(@Nullable PieceTable content, TextDocumentContentChangeEvent change) {
+    var range = change.getRange();
+    if (range == null || content == null) {
+      return PieceTable.of(change.getText());
+    }
+    return content.replace(range.getStart().getLine(), range.getStart().getCharacter(), range.getEnd().getLine(), range.getEnd().getCharacter(), change.getText());
   }
 
   public void didClose(URI fileUri) {
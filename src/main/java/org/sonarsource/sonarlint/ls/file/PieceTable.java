@@ -0,0 +1,320 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.file;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Persistent piece table used to store the content of open files.
+ * <p>
+ * The content is described as a sequence of pieces, each of them pointing to a slice of an immutable {@link Chunk}:
+ * the text received in <code>didOpen</code>, or the text of an incremental change. Applying an edit only creates
+ * new pieces around the edited range, the full {@link String} is materialized lazily by {@link #getText()}.
+ * <p>
+ * Positions follow LSP semantics: lines are separated by <code>\n</code>, <code>\r\n</code> or <code>\r</code>, and characters are UTF-16 code units.
+ * A <code>\r\n</code> pair is always kept in a single piece: an edit that would split it across pieces flattens the table.
+ */
+@Immutable
+public final class PieceTable {
+
+  /**
+   * Above this number of pieces, the next edit flattens the table into a single chunk, to keep position lookups cheap.
+   */
+  static final int MAX_PIECES = 512;
+
+  private final Piece[] pieces;
+  private final int length;
+  private final int lineCount;
+  // Benign race, same as String#hash
+  private String text;
+
+  private PieceTable(Piece[] pieces, int length) {
+    this.pieces = pieces;
+    this.length = length;
+    var lineBreaks = 0;
+    for (var piece : pieces) {
+      lineBreaks += piece.lineBreakCount();
+    }
+    this.lineCount = lineBreaks + 1;
+  }
+
+  public static PieceTable of(String text) {
+    if (text.isEmpty()) {
+      return new PieceTable(new Piece[0], 0);
+    }
+    var table = new PieceTable(new Piece[] {new Piece(new Chunk(text), 0, text.length())}, text.length());
+    table.text = text;
+    return table;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  /**
+   * @return the number of lines of the content, an empty content or a trailing line break counting as one line
+   */
+  public int lineCount() {
+    return lineCount;
+  }
+
+  int pieceCount() {
+    return pieces.length;
+  }
+
+  /**
+   * Replace the text between the two given positions (inclusive start, exclusive end) and return the resulting table.
+   * Positions beyond the end of a line or of the document are clamped.
+   */
+  public PieceTable replace(int startLine, int startCharacter, int endLine, int endCharacter, String newText) {
+    var startOffset = offsetAt(startLine, startCharacter);
+    var endOffset = Math.max(startOffset, offsetAt(endLine, endCharacter));
+    return replace(startOffset, endOffset, newText);
+  }
+
+  PieceTable replace(int startOffset, int endOffset, String newText) {
+    if (startOffset == endOffset && newText.isEmpty()) {
+      return this;
+    }
+    var newPieces = new ArrayList<Piece>(pieces.length + 2);
+    var pieceStart = 0;
+    var inserted = false;
+    for (var piece : pieces) {
+      var pieceEnd = pieceStart + piece.length();
+      if (pieceEnd <= startOffset || (inserted && pieceStart >= endOffset)) {
+        newPieces.add(piece);
+      } else {
+        if (pieceStart < startOffset) {
+          newPieces.add(piece.slice(0, startOffset - pieceStart));
+        }
+        if (!inserted) {
+          addInsertedText(newPieces, newText);
+          inserted = true;
+        }
+        if (pieceEnd > endOffset) {
+          newPieces.add(piece.slice(Math.max(0, endOffset - pieceStart), piece.length()));
+        }
+      }
+      pieceStart = pieceEnd;
+    }
+    if (!inserted) {
+      addInsertedText(newPieces, newText);
+    }
+    var newLength = length - (endOffset - startOffset) + newText.length();
+    var result = new PieceTable(newPieces.toArray(new Piece[0]), newLength);
+    return result.pieces.length > MAX_PIECES || splitsCarriageReturnLineFeed(newPieces) ? PieceTable.of(result.getText()) : result;
+  }
+
+  /**
+   * Line breaks are indexed per chunk, so a <code>\r</code> whose <code>\n</code> is not in the same piece would be counted wrongly.
+   * This only happens when an edit is made in the middle of a <code>\r\n</code> pair.
+   */
+  private static boolean splitsCarriageReturnLineFeed(List<Piece> pieces) {
+    for (var i = 0; i < pieces.size(); i++) {
+      var piece = pieces.get(i);
+      if (piece.endsWithCarriageReturn() && (piece.isFollowedByLineFeedInChunk() || (i + 1 < pieces.size() && pieces.get(i + 1).startsWithLineFeed()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void addInsertedText(List<Piece> newPieces, String newText) {
+    if (!newText.isEmpty()) {
+      newPieces.add(new Piece(new Chunk(newText), 0, newText.length()));
+    }
+  }
+
+  /**
+   * @return the offset in the document of the given position, clamped to the end of the line and of the document
+   */
+  int offsetAt(int line, int character) {
+    var lineStart = lineStartOffset(line);
+    if (lineStart < 0) {
+      return length;
+    }
+    var lineEnd = lineEndOffset(lineStart);
+    return Math.min(lineStart + Math.max(0, character), lineEnd);
+  }
+
+  private int lineStartOffset(int line) {
+    if (line <= 0) {
+      return 0;
+    }
+    var remainingLineBreaks = line;
+    var pieceStart = 0;
+    for (var piece : pieces) {
+      var lineBreaks = piece.lineBreakCount();
+      if (lineBreaks >= remainingLineBreaks) {
+        return pieceStart + piece.nthLineBreak(remainingLineBreaks - 1) + 1;
+      }
+      remainingLineBreaks -= lineBreaks;
+      pieceStart += piece.length();
+    }
+    return -1;
+  }
+
+  private int lineEndOffset(int lineStart) {
+    var pieceStart = 0;
+    for (var piece : pieces) {
+      var pieceEnd = pieceStart + piece.length();
+      if (pieceEnd > lineStart) {
+        var lineBreak = piece.firstLineBreakFrom(Math.max(0, lineStart - pieceStart));
+        if (lineBreak >= 0) {
+          return pieceStart + piece.lineTerminatorStart(lineBreak);
+        }
+      }
+      pieceStart = pieceEnd;
+    }
+    return length;
+  }
+
+  /**
+   * Materialize the content of the document. The result is cached, so subsequent calls on the same table are free.
+   */
+  public String getText() {
+    var result = text;
+    if (result == null) {
+      var builder = new StringBuilder(length);
+      for (var piece : pieces) {
+        builder.append(piece.chunk.text, piece.start, piece.end);
+      }
+      result = builder.toString();
+      text = result;
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return getText();
+  }
+
+  /**
+   * Immutable text buffer with the position of its line breaks, computed once.
+   * The position of a line break is the one of the last character of its terminator, so the <code>\n</code> of a <code>\r\n</code> pair.
+   */
+  private static final class Chunk {
+    private final String text;
+    private final int[] lineBreaks;
+
+    private Chunk(String text) {
+      this.text = text;
+      var count = 0;
+      for (var i = 0; i < text.length(); i++) {
+        if (isLineBreak(text, i)) {
+          count++;
+        }
+      }
+      this.lineBreaks = new int[count];
+      var index = 0;
+      for (var i = 0; i < text.length() && index < count; i++) {
+        if (isLineBreak(text, i)) {
+          lineBreaks[index++] = i;
+        }
+      }
+    }
+
+    private static boolean isLineBreak(String text, int index) {
+      var c = text.charAt(index);
+      return c == '\n' || (c == '\r' && (index + 1 == text.length() || text.charAt(index + 1) != '\n'));
+    }
+
+    /**
+     * @return the index in {@link #lineBreaks} of the first line break at or after the given offset
+     */
+    private int lineBreakIndexFrom(int offset) {
+      var index = Arrays.binarySearch(lineBreaks, offset);
+      return index >= 0 ? index : (-index - 1);
+    }
+  }
+
+  private static final class Piece {
+    private final Chunk chunk;
+    private final int start;
+    private final int end;
+    private final int firstLineBreakIndex;
+    private final int lineBreakCount;
+
+    private Piece(Chunk chunk, int start, int end) {
+      this.chunk = chunk;
+      this.start = start;
+      this.end = end;
+      this.firstLineBreakIndex = chunk.lineBreakIndexFrom(start);
+      this.lineBreakCount = chunk.lineBreakIndexFrom(end) - firstLineBreakIndex;
+    }
+
+    private int length() {
+      return end - start;
+    }
+
+    private int lineBreakCount() {
+      return lineBreakCount;
+    }
+
+    private Piece slice(int from, int to) {
+      return new Piece(chunk, start + from, start + to);
+    }
+
+    private boolean startsWithLineFeed() {
+      return chunk.text.charAt(start) == '\n';
+    }
+
+    private boolean endsWithCarriageReturn() {
+      return chunk.text.charAt(end - 1) == '\r';
+    }
+
+    private boolean isFollowedByLineFeedInChunk() {
+      return end < chunk.text.length() && chunk.text.charAt(end) == '\n';
+    }
+
+    /**
+     * @return offset in this piece of the first character of the terminator of the line break at the given offset in this piece
+     */
+    private int lineTerminatorStart(int lineBreakOffsetInPiece) {
+      var index = start + lineBreakOffsetInPiece;
+      if (lineBreakOffsetInPiece > 0 && chunk.text.charAt(index) == '\n' && chunk.text.charAt(index - 1) == '\r') {
+        return lineBreakOffsetInPiece - 1;
+      }
+      return lineBreakOffsetInPiece;
+    }
+
+    /**
+     * @return offset in this piece of the n-th (0 based) line break of this piece
+     */
+    private int nthLineBreak(int n) {
+      return chunk.lineBreaks[firstLineBreakIndex + n] - start;
+    }
+
+    /**
+     * @return offset in this piece of the first line break at or after the given offset in this piece, or -1
+     */
+    private int firstLineBreakFrom(int offsetInPiece) {
+      var index = chunk.lineBreakIndexFrom(start + offsetInPiece);
+      if (index < firstLineBreakIndex + lineBreakCount) {
+        return chunk.lineBreaks[index] - start;
+      }
+      return -1;
+    }
+  }
+}
@@ -20,25 +20,34 @@
 package org.sonarsource.sonarlint.ls.file;
 
 import java.net.URI;
+import java.util.function.LongConsumer;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
 /**
  * Represent a versioned open file and its immutable metadata in the editor.
+ * <p>
+ * The content is logically immutable, but not its representation: the content of an idle file can be compressed in memory, it is
+ * transparently decompressed on next access.
  */
-@Immutable
+@ThreadSafe
 public class VersionedOpenFile {
   private final URI uri;
   private final String languageId;
   private final int version;
-  private final String content;
+  private final OpenFileContent content;
 
   public VersionedOpenFile(URI uri, @Nullable String languageId, int version, @Nullable String content) {
+    this(uri, languageId, content != null ? PieceTable.of(content) : null, version);
+  }
+
+  VersionedOpenFile(URI uri, @Nullable String languageId, @Nullable PieceTable content, int version) {
     this.uri = uri;
     this.languageId = languageId;
     this.version = version;
-    this.content = content;
+    this.content = content != null ? new OpenFileContent(content) : null;
   }
 
   public URI getUri() {
@@ -54,9 +63,33 @@ public class VersionedOpenFile {
     return version;
   }
 
+  /**
+   * Content is only materialized as a {@link String} on first call, after incremental changes.
+   */
   @Nullable
   public String getContent() {
-    return content;
+    return content != null ? content.getBuffer().getText() : null;
+  }
+
+  @CheckForNull
+  PieceTable getContentBuffer() {
+    return content != null ? content.getBuffer() : null;
+  }
+
+  /**
+   * @return the estimated number of bytes saved, 0 if the content was not compressed
+   * @see OpenFileContent#compressIfIdle(long, LongConsumer)
+   */
+  long compressContentIfIdle(long idleDelayNanos, LongConsumer rehydrationListener) {
+    return content != null ? content.compressIfIdle(idleDelayNanos, rehydrationListener) : 0;
+  }
+
+  boolean isContentCompressed() {
+    return content != null && content.isCompressed();
+  }
+
+  long getCompressedContentSavedBytes() {
+    return content != null ? content.getSavedBytes() : 0;
   }
 
   public boolean isJava() {
@@ -0,0 +1,254 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.folders;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.Immutable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.SystemUtils;
+
+/**
+ * Immutable trie of folder URIs, indexed by path segment, to find the deepest folder enclosing a file.
+ * <p>
+ * Lookups are in O(path depth) and do not allocate: segments are matched in place against the file path.
+ * Folders are grouped by scheme, host and port, and empty path segments are ignored. Segments of <code>file</code>
+ * URIs are compared ignoring case on Windows, like {@link java.nio.file.Path}.
+ */
+@Immutable
+final class FolderPathTrie<V> {
+
+  private static final FolderPathTrie<Object> EMPTY = new FolderPathTrie<>(List.of());
+
+  private final List<Root<V>> roots;
+
+  private FolderPathTrie(List<Root<V>> roots) {
+    this.roots = roots;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <V> FolderPathTrie<V> empty() {
+    return (FolderPathTrie<V>) EMPTY;
+  }
+
+  static <V> FolderPathTrie<V> of(Map<URI, V> valuesPerFolderUri) {
+    var roots = new ArrayList<Root<V>>();
+    valuesPerFolderUri.forEach((folderUri, value) -> {
+      checkHierarchical(folderUri);
+      var root = roots.stream().filter(r -> r.matches(folderUri)).findFirst().orElseGet(() -> {
+        var newRoot = new Root<V>(folderUri);
+        roots.add(newRoot);
+        return newRoot;
+      });
+      root.insert(folderUri.getPath(), value);
+    });
+    roots.forEach(root -> root.node.markNested(false));
+    return new FolderPathTrie<>(List.copyOf(roots));
+  }
+
+  /**
+   * @return the entry of the deepest folder that is an ancestor of (or equal to) the given URI, or null
+   */
+  @CheckForNull
+  Entry<V> findDeepest(URI uri) {
+    if (roots.isEmpty()) {
+      return null;
+    }
+    checkHierarchical(uri);
+    for (var root : roots) {
+      if (root.matches(uri)) {
+        return root.findDeepest(uri.getPath());
+      }
+    }
+    return null;
+  }
+
+  private static void checkHierarchical(URI uri) {
+    if (uri.isOpaque()) {
+      throw new IllegalArgumentException("Only hierarchical URIs are supported");
+    }
+  }
+
+  /**
+   * @param nested true when another folder of the trie encloses this one
+   */
+  record Entry<V>(V value, boolean nested) {
+  }
+
+  private static final class Root<V> {
+    private final String scheme;
+    private final String host;
+    private final int port;
+    private final boolean ignoreCase;
+    private final Node<V> node = new Node<>();
+
+    private Root(URI uri) {
+      this.scheme = uri.getScheme();
+      this.host = uri.getHost();
+      this.port = uri.getPort();
+      this.ignoreCase = SystemUtils.IS_OS_WINDOWS && "file".equalsIgnoreCase(scheme);
+    }
+
+    private boolean matches(URI uri) {
+      return StringUtils.equalsIgnoreCase(scheme, uri.getScheme()) && Objects.equals(host, uri.getHost()) && port == uri.getPort();
+    }
+
+    private void insert(String path, V value) {
+      var current = node;
+      var length = path.length();
+      var from = 0;
+      while ((from = nextSegmentStart(path, from)) < length) {
+        var to = segmentEnd(path, from);
+        current = current.getOrCreateChild(path.substring(from, to), ignoreCase);
+        from = to;
+      }
+      current.value = value;
+    }
+
+    @CheckForNull
+    private Entry<V> findDeepest(String path) {
+      var current = node;
+      var deepest = current.entry;
+      var length = path.length();
+      var from = 0;
+      while ((from = nextSegmentStart(path, from)) < length) {
+        var to = segmentEnd(path, from);
+        current = current.child(path, from, to, ignoreCase);
+        if (current == null) {
+          break;
+        }
+        if (current.entry != null) {
+          deepest = current.entry;
+        }
+        from = to;
+      }
+      return deepest;
+    }
+
+    private static int nextSegmentStart(String path, int from) {
+      var index = from;
+      while (index < path.length() && path.charAt(index) == '/') {
+        index++;
+      }
+      return index;
+    }
+
+    private static int segmentEnd(String path, int from) {
+      var index = path.indexOf('/', from);
+      return index < 0 ? path.length() : index;
+    }
+  }
+
+  /**
+   * Children are stored in an open addressing table, so that they can be looked up with a region of the file path.
+   */
+  private static final class Node<V> {
+    private String[] segments;
+    private Node<V>[] children;
+    private int childCount;
+    private V value;
+    private Entry<V> entry;
+
+    private Node<V> getOrCreateChild(String segment, boolean ignoreCase) {
+      var existing = child(segment, 0, segment.length(), ignoreCase);
+      if (existing != null) {
+        return existing;
+      }
+      if (segments == null || (childCount + 1) * 2 > segments.length) {
+        resize(segments == null ? 4 : (segments.length * 2), ignoreCase);
+      }
+      var created = new Node<V>();
+      put(segment, created, ignoreCase);
+      childCount++;
+      return created;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity, boolean ignoreCase) {
+      var oldSegments = segments;
+      var oldChildren = children;
+      segments = new String[capacity];
+      children = new Node[capacity];
+      if (oldSegments != null) {
+        for (var i = 0; i < oldSegments.length; i++) {
+          if (oldSegments[i] != null) {
+            put(oldSegments[i], oldChildren[i], ignoreCase);
+          }
+        }
+      }
+    }
+
+    private void put(String segment, Node<V> child, boolean ignoreCase) {
+      var mask = segments.length - 1;
+      var index = hash(segment, 0, segment.length(), ignoreCase) & mask;
+      while (segments[index] != null) {
+        index = (index + 1) & mask;
+      }
+      segments[index] = segment;
+      children[index] = child;
+    }
+
+    @CheckForNull
+    private Node<V> child(String path, int from, int to, boolean ignoreCase) {
+      if (segments == null) {
+        return null;
+      }
+      var mask = segments.length - 1;
+      var length = to - from;
+      // The table is never more than half full, so there is always an empty slot ending the probe
+      for (var index = hash(path, from, to, ignoreCase) & mask; segments[index] != null; index = (index + 1) & mask) {
+        var segment = segments[index];
+        if (segment.length() == length && segment.regionMatches(ignoreCase, 0, path, from, length)) {
+          return children[index];
+        }
+      }
+      return null;
+    }
+
+    private void markNested(boolean hasEnclosingFolder) {
+      if (value != null) {
+        entry = new Entry<>(value, hasEnclosingFolder);
+      }
+      if (children != null) {
+        for (var child : children) {
+          if (child != null) {
+            child.markNested(hasEnclosingFolder || value != null);
+          }
+        }
+      }
+    }
+
+    private static int hash(String path, int from, int to, boolean ignoreCase) {
+      var hash = 0;
+      for (var i = from; i < to; i++) {
+        var c = path.charAt(i);
+        if (ignoreCase) {
+          c = Character.toLowerCase(Character.toUpperCase(c));
+        }
+        hash = 31 * hash + c;
+      }
+      return hash ^ (hash >>> 16);
+    }
+  }
+}
@@ -23,10 +23,13 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
+import java.util.Map;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -38,69 +41,190 @@ import org.sonarsource.sonarlint.core.rpc.protocol.common.Language;
 import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
 import org.sonarsource.sonarlint.ls.domain.LSLanguage;
 import org.sonarsource.sonarlint.ls.file.FileTypeClassifier;
+import org.sonarsource.sonarlint.ls.file.OpenFilesCache;
 import org.sonarsource.sonarlint.ls.file.VersionedOpenFile;
 import org.sonarsource.sonarlint.ls.java.JavaConfigCache;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
 import org.sonarsource.sonarlint.ls.settings.SettingsManager;
 import org.sonarsource.sonarlint.ls.settings.WorkspaceFolderSettings;
+import org.sonarsource.sonarlint.ls.util.CatchingRunnable;
 import org.sonarsource.sonarlint.ls.util.Utils;
 
+import static java.lang.String.format;
 import static org.sonarsource.sonarlint.ls.backend.BackendService.ROOT_CONFIGURATION_SCOPE;
 
+/**
+ * Forward file system events to the backend.
+ * <p>
+ * Watched file events are not sent right away: they are merged during a short window (configured with the
+ * {@value #BATCH_WINDOW_PROPERTY_KEY} system property), reduced to their net effect per file, and sent in chunks of at most
+ * {@value #DEFAULT_BATCH_SIZE} files (configured with the {@value #BATCH_SIZE_PROPERTY_KEY} system property). The conversion
+ * of events, that may need to fetch the Java configuration of files, happens on a dedicated thread. Creations and changes of open
+ * files are not sent, the backend already knows their content from the editor, more recent than the one on disk.
+ */
 public class ModuleEventsProcessor {
 
+  static final String BATCH_WINDOW_PROPERTY_KEY = "sonarlint.internal.watchedFiles.batchWindowMs";
+  static final long DEFAULT_BATCH_WINDOW_MS = 200;
+  static final String BATCH_SIZE_PROPERTY_KEY = "sonarlint.internal.watchedFiles.batchSize";
+  static final int DEFAULT_BATCH_SIZE = 1000;
+
   private final FileTypeClassifier fileTypeClassifier;
   private final JavaConfigCache javaConfigCache;
+  private final OpenFilesCache openFilesCache;
   private final BackendServiceFacade backendServiceFacade;
 
   private final WorkspaceFoldersManager workspaceFoldersManager;
-  private final ExecutorService asyncExecutor;
+  private final ScheduledExecutorService asyncExecutor;
 
   private final SettingsManager settingsManager;
+  private final LanguageClientLogger lsLogOutput;
+  private final long batchWindowMs;
+  private final int batchSize;
+
+  // Net effect of the events received since the last flush, in reception order. Guarded by itself.
+  private final Map<URI, FileChangeType> pendingEvents = new LinkedHashMap<>();
+  private boolean flushScheduled;
+  // Held while notifying the backend, so that a batch of watched events converted on the dedicated thread can't be sent after the
+  // content of one of its files was sent by the editor
+  private final Object backendNotificationLock = new Object();
 
   public ModuleEventsProcessor(WorkspaceFoldersManager workspaceFoldersManager,
-    FileTypeClassifier fileTypeClassifier, JavaConfigCache javaConfigCache, BackendServiceFacade backendServiceFacade, SettingsManager settingsManager) {
+    FileTypeClassifier fileTypeClassifier, JavaConfigCache javaConfigCache, OpenFilesCache openFilesCache, BackendServiceFacade backendServiceFacade,
+    SettingsManager settingsManager, LanguageClientLogger lsLogOutput) {
+    this(workspaceFoldersManager, fileTypeClassifier, javaConfigCache, openFilesCache, backendServiceFacade, settingsManager, lsLogOutput,
+      Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("SonarLint Language Server Module Events Processor", false)),
+      getLongFromSystemProperty(BATCH_WINDOW_PROPERTY_KEY, DEFAULT_BATCH_WINDOW_MS, 0, lsLogOutput),
+      (int) getLongFromSystemProperty(BATCH_SIZE_PROPERTY_KEY, DEFAULT_BATCH_SIZE, 1, lsLogOutput));
+  }
+
+  ModuleEventsProcessor(WorkspaceFoldersManager workspaceFoldersManager, FileTypeClassifier fileTypeClassifier, JavaConfigCache javaConfigCache,
+    OpenFilesCache openFilesCache, BackendServiceFacade backendServiceFacade, SettingsManager settingsManager, LanguageClientLogger lsLogOutput,
+    ScheduledExecutorService asyncExecutor, long batchWindowMs, int batchSize) {
     this.workspaceFoldersManager = workspaceFoldersManager;
     this.fileTypeClassifier = fileTypeClassifier;
     this.javaConfigCache = javaConfigCache;
+    this.openFilesCache = openFilesCache;
     this.backendServiceFacade = backendServiceFacade;
     this.settingsManager = settingsManager;
-    this.asyncExecutor = Executors.newSingleThreadExecutor(Utils.threadFactory("SonarLint Language Server Module Events Processor", false));
+    this.lsLogOutput = lsLogOutput;
+    this.asyncExecutor = asyncExecutor;
+    this.batchWindowMs = batchWindowMs;
+    this.batchSize = batchSize;
+  }
+
+  private static long getLongFromSystemProperty(String propertyKey, long defaultValue, long minValue, LanguageClientLogger lsLogOutput) {
+    var property = System.getProperty(propertyKey);
+    if (property == null) {
+      return defaultValue;
+    }
+    try {
+      return Math.min(Integer.MAX_VALUE, Math.max(minValue, Long.parseLong(property.trim())));
+    } catch (NumberFormatException e) {
+      lsLogOutput.warn(format("Invalid value \"%s\" for property %s, using default value %d", property, propertyKey, defaultValue));
+      return defaultValue;
+    }
   }
 
   public void didChangeWatchedFiles(List<FileEvent> changes) {
-    notifyBackend(changes);
+    synchronized (pendingEvents) {
+      changes.forEach(event -> mergeEvent(URI.create(event.getUri()), event.getType()));
+      if (!flushScheduled && !pendingEvents.isEmpty()) {
+        flushScheduled = true;
+        asyncExecutor.schedule(new CatchingRunnable(this::flushPendingEvents, t -> lsLogOutput.errorWithStackTrace("Failed to notify file system changes", t)),
+          batchWindowMs, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  /**
+   * Only keep the net effect of the previous and new event of a file, as seen by the backend after the previous flush.
+   */
+  private void mergeEvent(URI fileUri, FileChangeType type) {
+    var previous = pendingEvents.remove(fileUri);
+    if (previous == null) {
+      pendingEvents.put(fileUri, type);
+      return;
+    }
+    switch (type) {
+      case Deleted -> {
+        // A file created and deleted in the same window was never known by the backend
+        if (previous != FileChangeType.Created) {
+          pendingEvents.put(fileUri, FileChangeType.Deleted);
+        }
+      }
+      case Created, Changed -> pendingEvents.put(fileUri, previous == FileChangeType.Created ? FileChangeType.Created : FileChangeType.Changed);
+    }
+  }
+
+  private void flushPendingEvents() {
+    List<Map.Entry<URI, FileChangeType>> events;
+    synchronized (pendingEvents) {
+      events = new ArrayList<>(pendingEvents.entrySet());
+      pendingEvents.clear();
+      flushScheduled = false;
+    }
+    for (var start = 0; start < events.size(); start += batchSize) {
+      notifyBackend(events.subList(start, Math.min(events.size(), start + batchSize)));
+    }
   }
 
-  private void notifyBackend(List<FileEvent> changes) {
+  private void notifyBackend(List<Map.Entry<URI, FileChangeType>> changes) {
     List<URI> deletedFileUris = new ArrayList<>();
     List<ClientFileDto> addedFiles = new ArrayList<>();
     List<ClientFileDto> changedFiles = new ArrayList<>();
     changes.forEach(event -> {
-      var fileUri = URI.create(event.getUri());
-      if (event.getType() == FileChangeType.Deleted) {
+      var fileUri = event.getKey();
+      if (event.getValue() == FileChangeType.Deleted) {
         deletedFileUris.add(fileUri);
-      } else {
+      } else if (!isOpen(fileUri)) {
         var clientFileDto = getClientFileDto(new VersionedOpenFile(fileUri, null, 0, null));
-        if (event.getType() == FileChangeType.Created) {
+        if (event.getValue() == FileChangeType.Created) {
           addedFiles.add(clientFileDto);
         } else {
           changedFiles.add(clientFileDto);
         }
       }
     });
-    backendServiceFacade.getBackendService().updateFileSystem(addedFiles, changedFiles, deletedFileUris);
+    synchronized (backendNotificationLock) {
+      // Files may have been opened while converting the events
+      addedFiles.removeIf(file -> isOpen(file.getUri()));
+      changedFiles.removeIf(file -> isOpen(file.getUri()));
+      if (!addedFiles.isEmpty() || !changedFiles.isEmpty() || !deletedFileUris.isEmpty()) {
+        backendServiceFacade.getBackendService().updateFileSystem(addedFiles, changedFiles, deletedFileUris);
+      }
+    }
+  }
+
+  private boolean isOpen(URI fileUri) {
+    return openFilesCache.getFile(fileUri).isPresent();
+  }
+
+  /**
+   * Notifications about open files carry the most recent state of the file, so they supersede the pending watched event of the file.
+   */
+  private void discardPendingEvent(URI fileUri) {
+    synchronized (pendingEvents) {
+      pendingEvents.remove(fileUri);
+    }
   }
 
   public void notifyBackendWithFileLanguageAndContent(VersionedOpenFile file) {
+    discardPendingEvent(file.getUri());
     var openedFileDto = getClientFileDto(file);
     // We are simply enriching already added files with language and content information; The files were not actually modified
     // i.e. didOpen
-    backendServiceFacade.getBackendService().updateFileSystem(List.of(openedFileDto), List.of(), List.of());
+    synchronized (backendNotificationLock) {
+      backendServiceFacade.getBackendService().updateFileSystem(List.of(openedFileDto), List.of(), List.of());
+    }
   }
 
   public void notifyBackendWithUpdatedContent(VersionedOpenFile file) {
+    discardPendingEvent(file.getUri());
     var changedFileDto = getClientFileDto(file);
-    backendServiceFacade.getBackendService().updateFileSystem(List.of(), List.of(changedFileDto), List.of());
+    synchronized (backendNotificationLock) {
+      backendServiceFacade.getBackendService().updateFileSystem(List.of(), List.of(changedFileDto), List.of());
+    }
   }
 
   @NotNull
@@ -20,14 +20,10 @@
 package org.sonarsource.sonarlint.ls.folders;
 
 import java.net.URI;
-import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -49,6 +45,8 @@ import static java.net.URI.create;
 
 public class WorkspaceFoldersManager {
   private final Map<URI, WorkspaceFolderWrapper> folders = new ConcurrentHashMap<>();
+  // Rebuilt on each folder change, read without locking on every file lookup
+  private volatile FolderPathTrie<WorkspaceFolderWrapper> foldersTrie = FolderPathTrie.empty();
   private final Map<String, Boolean> analysisReadiness = new ConcurrentHashMap<>();
   private final List<WorkspaceFolderLifecycleListener> listeners = new ArrayList<>();
   private ProjectBindingManager bindingManager;
@@ -104,6 +102,7 @@ public class WorkspaceFoldersManager {
 
   private void removeFolder(URI uri) {
     var removed = folders.remove(uri);
+    rebuildFoldersTrie();
     var workspaceFolder = this.workspaceFolders.stream().filter(wf -> wf.getUri().equalsIgnoreCase(uri.toString())).findFirst().orElse(null);
     if (workspaceFolder != null) {
       this.workspaceFolders.remove(workspaceFolder);
@@ -116,7 +115,9 @@ public class WorkspaceFoldersManager {
 
   private WorkspaceFolderWrapper addFolder(WorkspaceFolder added, URI uri) {
     var addedWrapper = new WorkspaceFolderWrapper(uri, added, logOutput);
-    if (folders.put(uri, addedWrapper) != null) {
+    var previous = folders.put(uri, addedWrapper);
+    rebuildFoldersTrie();
+    if (previous != null) {
       logOutput.warn(format("Registered workspace folder %s was already added", addedWrapper));
     } else {
       logOutput.debug(format("Folder %s added", addedWrapper));
@@ -125,6 +126,10 @@ public class WorkspaceFoldersManager {
     return addedWrapper;
   }
 
+  private synchronized void rebuildFoldersTrie() {
+    foldersTrie = FolderPathTrie.of(folders);
+  }
+
   private Function<WorkspaceFolder, Optional<ProjectBinding>> getBindingProvider() {
     return folder -> bindingManager.getBinding(create(folder.getUri()));
   }
@@ -134,47 +139,21 @@ public class WorkspaceFoldersManager {
   }
 
   public Optional<WorkspaceFolderWrapper> findFolderForFile(URI uri) {
-    var folderUriCandidates = folders.keySet().stream()
-      .filter(wfRoot -> isAncestor(wfRoot, uri))
-      // Sort by path descending length to prefer the deepest one in case of multiple nested workspace folders
-      .sorted(Comparator.<URI>comparingInt(wfRoot -> wfRoot.getPath().length()).reversed())
-      .toList();
-    if (folderUriCandidates.isEmpty()) {
+    // Prefer the deepest one in case of multiple nested workspace folders
+    var deepest = foldersTrie.findDeepest(uri);
+    if (deepest == null) {
       return Optional.empty();
     }
-    if (folderUriCandidates.size() > 1) {
+    if (deepest.nested()) {
       logOutput.debug(format("Multiple candidates workspace folders to contains %s. Default to the deepest one.", uri));
     }
-    return Optional.of(folders.get(folderUriCandidates.get(0)));
+    return Optional.of(deepest.value());
   }
 
   public Optional<WorkspaceFolderWrapper> getFolder(URI folderUri) {
     return Optional.ofNullable(folders.get(folderUri));
   }
 
-  // Visible for testing
-  static boolean isAncestor(URI folderUri, URI fileUri) {
-    if (folderUri.isOpaque() || fileUri.isOpaque()) {
-      throw new IllegalArgumentException("Only hierarchical URIs are supported");
-    }
-    if (!folderUri.getScheme().equalsIgnoreCase(fileUri.getScheme())) {
-      return false;
-    }
-    if (!Objects.equals(folderUri.getHost(), fileUri.getHost())) {
-      return false;
-    }
-    if (folderUri.getPort() != fileUri.getPort()) {
-      return false;
-    }
-    if (Utils.uriHasFileScheme(folderUri)) {
-      return Paths.get(fileUri).startsWith(Paths.get(folderUri));
-    }
-    // Assume "/" is the separator of "folders"
-    var fileSegments = fileUri.getPath().split("/");
-    var folderSegments = folderUri.getPath().split("/");
-    return folderSegments.length <= fileSegments.length && Arrays.equals(folderSegments, Arrays.copyOfRange(fileSegments, 0, folderSegments.length));
-  }
-
   public Collection<WorkspaceFolderWrapper> getAll() {
     return new ArrayList<>(folders.values());
   }
@@ -21,17 +21,26 @@ package org.sonarsource.sonarlint.ls.java;
 
 import java.io.File;
 import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
 import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient;
 import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient.GetJavaConfigResponse;
 import org.sonarsource.sonarlint.ls.file.OpenFilesCache;
@@ -46,22 +55,34 @@ import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.joining;
 
 public class JavaConfigCache {
+  private static final long FETCH_TIMEOUT_MINUTES = 1;
+
   private final SonarLintExtendedLanguageClient client;
   private final OpenFilesCache openFilesCache;
   private final LanguageClientLogger logOutput;
   private final Map<URI, Optional<SonarLintExtendedLanguageClient.GetJavaConfigResponse>> javaConfigPerFileURI = new ConcurrentHashMap<>();
   private final Map<Path, List<Path>> jvmClasspathPerJavaHome = new ConcurrentHashMap<>();
+  // Files of the same project share the same configuration instance, that also caches the resulting classpath
+  private final Map<ProjectConfigKey, InternedConfig> internedConfigPerProject = new ConcurrentHashMap<>();
+  // Files of the same directory likely belong to the same project, so they wait for the same request to the client
+  private final Map<URI, CompletableFuture<Optional<GetJavaConfigResponse>>> inFlightFetchPerDirectory = new ConcurrentHashMap<>();
+  private final JavaConfigStore persistentStore;
 
   public JavaConfigCache(SonarLintExtendedLanguageClient client, OpenFilesCache openFilesCache, LanguageClientLogger logOutput) {
+    this(client, openFilesCache, logOutput, new JavaConfigStore(JavaConfigStore::getDefaultStoreDirectory, logOutput));
+  }
+
+  JavaConfigCache(SonarLintExtendedLanguageClient client, OpenFilesCache openFilesCache, LanguageClientLogger logOutput, JavaConfigStore persistentStore) {
     this.client = client;
     this.openFilesCache = openFilesCache;
     this.logOutput = logOutput;
+    this.persistentStore = persistentStore;
   }
 
   public Optional<SonarLintExtendedLanguageClient.GetJavaConfigResponse> getOrFetch(URI fileUri) {
     Optional<SonarLintExtendedLanguageClient.GetJavaConfigResponse> javaConfigOpt;
     try {
-      javaConfigOpt = getOrFetchAsync(fileUri).get(1, TimeUnit.MINUTES);
+      javaConfigOpt = getOrFetchAsync(fileUri).get(FETCH_TIMEOUT_MINUTES, TimeUnit.MINUTES);
     } catch (InterruptedException e) {
       Utils.interrupted(e, logOutput);
       javaConfigOpt = empty();
@@ -72,8 +93,39 @@ public class JavaConfigCache {
     return javaConfigOpt;
   }
 
+  /**
+   * Get the configuration of several files, waiting for all the pending requests at once, with a single deadline.
+   * Files for which the configuration is not available in time are mapped to an empty result.
+   */
+  public Map<URI, Optional<GetJavaConfigResponse>> getOrFetch(Collection<URI> fileUris) {
+    var futures = new LinkedHashMap<URI, CompletableFuture<Optional<GetJavaConfigResponse>>>();
+    fileUris.forEach(fileUri -> futures.put(fileUri, getOrFetchAsync(fileUri)));
+    try {
+      CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).get(FETCH_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Utils.interrupted(e, logOutput);
+    } catch (TimeoutException e) {
+      logOutput.warn(format("Timed out waiting for the Java configuration of %d files", futures.values().stream().filter(f -> !f.isDone()).count()));
+    } catch (ExecutionException e) {
+      logOutput.errorWithStackTrace("Unable to get Java config.", e);
+    }
+    var javaConfigs = new LinkedHashMap<URI, Optional<GetJavaConfigResponse>>();
+    futures.forEach((fileUri, future) -> javaConfigs.put(fileUri, future.isDone() && !future.isCompletedExceptionally() ? future.join() : empty()));
+    return javaConfigs;
+  }
+
+  /**
+   * Start fetching the configuration of a file without waiting for it, so that it is likely available when the file is analyzed.
+   */
+  public void prefetch(URI fileUri) {
+    getOrFetchAsync(fileUri);
+  }
+
   /**
    * Try to fetch Java config. In case of any error, cache an empty result to avoid repeated calls.
+   * <p>
+   * When the configuration of the project was persisted by a previous session, it is used right away, and the file configuration is
+   * fetched again in background to refresh it.
    */
   private CompletableFuture<Optional<SonarLintExtendedLanguageClient.GetJavaConfigResponse>> getOrFetchAsync(URI fileUri) {
     Optional<VersionedOpenFile> openFile = openFilesCache.getFile(fileUri);
@@ -83,6 +135,70 @@ public class JavaConfigCache {
     if (javaConfigPerFileURI.containsKey(fileUri)) {
       return CompletableFuture.completedFuture(javaConfigPerFileURI.get(fileUri));
     }
+    var persistedConfig = persistentStore.find(fileUri).map(this::intern);
+    if (persistedConfig.isPresent()) {
+      javaConfigPerFileURI.put(fileUri, persistedConfig);
+      logOutput.debug(format("Using persisted Java config for file \"%s\", refreshing it in background", fileUri));
+      fetch(fileUri, isOpenJavaFile(openFile), true);
+      return CompletableFuture.completedFuture(persistedConfig);
+    }
+    return fetchOrJoinInFlight(fileUri, isOpenJavaFile(openFile));
+  }
+
+  private CompletableFuture<Optional<GetJavaConfigResponse>> fetchOrJoinInFlight(URI fileUri, boolean isOpenJavaFile) {
+    var directory = fileUri.isOpaque() ? fileUri : fileUri.resolve(".");
+    var existingFetch = inFlightFetchPerDirectory.get(directory);
+    if (existingFetch != null) {
+      return join(existingFetch, fileUri, isOpenJavaFile);
+    }
+    var inFlightFetch = new CompletableFuture<Optional<GetJavaConfigResponse>>();
+    existingFetch = inFlightFetchPerDirectory.putIfAbsent(directory, inFlightFetch);
+    if (existingFetch != null) {
+      return join(existingFetch, fileUri, isOpenJavaFile);
+    }
+    fetch(fileUri, isOpenJavaFile, false).whenComplete((configOpt, t) -> {
+      // Stop sharing before completion, later lookups will find the result in the cache
+      inFlightFetchPerDirectory.remove(directory, inFlightFetch);
+      if (t != null) {
+        inFlightFetch.completeExceptionally(t);
+      } else {
+        inFlightFetch.complete(configOpt);
+      }
+    });
+    return inFlightFetch;
+  }
+
+  /**
+   * Sharing the configuration of a file of the same directory is a heuristic, the file fetches its own configuration when it is not
+   * under the project root of the shared one.
+   */
+  private CompletableFuture<Optional<GetJavaConfigResponse>> join(CompletableFuture<Optional<GetJavaConfigResponse>> inFlightFetch, URI fileUri,
+    boolean isOpenJavaFile) {
+    return inFlightFetch.thenCompose(configOpt -> {
+      if (configOpt.isPresent() && isUnderProjectRoot(fileUri, configOpt.get())) {
+        javaConfigPerFileURI.putIfAbsent(fileUri, configOpt);
+        return CompletableFuture.completedFuture(configOpt);
+      }
+      return fetch(fileUri, isOpenJavaFile, false);
+    });
+  }
+
+  private static boolean isUnderProjectRoot(URI fileUri, GetJavaConfigResponse javaConfig) {
+    if (javaConfig.getProjectRoot() == null) {
+      return false;
+    }
+    try {
+      return Paths.get(fileUri).startsWith(Paths.get(URI.create(javaConfig.getProjectRoot())));
+    } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+      return false;
+    }
+  }
+
+  private static boolean isOpenJavaFile(Optional<VersionedOpenFile> openFile) {
+    return openFile.map(VersionedOpenFile::isJava).orElse(false);
+  }
+
+  private CompletableFuture<Optional<SonarLintExtendedLanguageClient.GetJavaConfigResponse>> fetch(URI fileUri, boolean isOpenJavaFile, boolean isRefresh) {
     return client.getJavaConfig(fileUri.toString())
       .handle((r, t) -> {
         if (t != null) {
@@ -91,11 +207,18 @@ public class JavaConfigCache {
         return r;
       })
       .thenApply(javaConfig -> {
-        var configOpt = ofNullable(javaConfig);
+        var configOpt = ofNullable(javaConfig).map(this::intern);
+        if (javaConfig == null && isRefresh) {
+          // Keep the persisted configuration rather than caching a failure
+          return javaConfigPerFileURI.getOrDefault(fileUri, configOpt);
+        }
         javaConfigPerFileURI.put(fileUri, configOpt);
-        openFile.map(VersionedOpenFile::isJava)
-          .filter(Boolean::booleanValue)
-          .ifPresent(isJava -> logOutput.debug(format("Cached Java config for file \"%s\"", fileUri)));
+        if (javaConfig != null) {
+          persistentStore.save(fileUri, javaConfig);
+        }
+        if (isOpenJavaFile) {
+          logOutput.debug(format("Cached Java config for file \"%s\"", fileUri));
+        }
         return configOpt;
       });
   }
@@ -129,20 +252,44 @@ public class JavaConfigCache {
     // Assume all main files have the same classpath
     if (!mainFiles.isEmpty()) {
       var mainConfig = javaConfigs.get(mainFiles.get(0));
-      var classpath = computeClasspathSkipNonExisting(jdkClassesRoots, mainConfig);
+      var classpath = getClasspathSkipNonExisting(jdkClassesRoots, mainConfig);
       props.put("sonar.java.libraries", classpath);
     }
 
     // Assume all test files have the same classpath
     if (!testFiles.isEmpty()) {
       var testConfig = javaConfigs.get(testFiles.get(0));
-      var classpath = computeClasspathSkipNonExisting(jdkClassesRoots, testConfig);
+      var classpath = getClasspathSkipNonExisting(jdkClassesRoots, testConfig);
       props.put("sonar.java.test.libraries", classpath);
     }
 
     return props;
   }
 
+  /**
+   * Return the same instance for equal configurations of a project, so that the classpath of each project is only stored once.
+   */
+  private GetJavaConfigResponse intern(GetJavaConfigResponse javaConfig) {
+    var key = ProjectConfigKey.of(javaConfig);
+    if (key == null) {
+      return javaConfig;
+    }
+    return internedConfigPerProject.compute(key, (k, interned) -> interned != null && interned.isSameAs(javaConfig) ? interned : new InternedConfig(javaConfig))
+      .javaConfig;
+  }
+
+  /**
+   * Existence of classpath entries is only checked once per configuration, until the next classpath update of the project.
+   */
+  private String getClasspathSkipNonExisting(List<Path> jdkClassesRoots, GetJavaConfigResponse javaConfig) {
+    var key = ProjectConfigKey.of(javaConfig);
+    var interned = key != null ? internedConfigPerProject.get(key) : null;
+    if (interned == null || interned.javaConfig != javaConfig) {
+      return computeClasspathSkipNonExisting(jdkClassesRoots, javaConfig);
+    }
+    return interned.getClasspath(jdkClassesRoots, () -> computeClasspathSkipNonExisting(jdkClassesRoots, javaConfig));
+  }
+
   private String computeClasspathSkipNonExisting(List<Path> jdkClassesRoots, GetJavaConfigResponse testConfig) {
     return Stream.concat(
         jdkClassesRoots.stream().map(Path::toAbsolutePath).map(Path::toString),
@@ -162,6 +309,8 @@ public class JavaConfigCache {
   }
 
   public void didClasspathUpdate(URI projectUri) {
+    persistentStore.evict(projectUri);
+    internedConfigPerProject.keySet().removeIf(key -> key.projectRoot().equals(Paths.get(projectUri)));
     // Clear cached value to force refetch during next analysis
     for (var it = javaConfigPerFileURI.entrySet().iterator(); it.hasNext(); ) {
       var entry = it.next();
@@ -183,10 +332,52 @@ public class JavaConfigCache {
   public void didServerModeChange() {
     logOutput.debug("Clearing Java config cache on server mode change");
     javaConfigPerFileURI.clear();
+    inFlightFetchPerDirectory.clear();
+    internedConfigPerProject.clear();
+    persistentStore.clear();
   }
 
   public void didClose(URI fileUri) {
     javaConfigPerFileURI.remove(fileUri);
   }
 
+  private record ProjectConfigKey(Path projectRoot, boolean isTest) {
+
+    @CheckForNull
+    private static ProjectConfigKey of(GetJavaConfigResponse javaConfig) {
+      if (javaConfig.getProjectRoot() == null) {
+        return null;
+      }
+      try {
+        return new ProjectConfigKey(Paths.get(URI.create(javaConfig.getProjectRoot())), javaConfig.isTest());
+      } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+        return null;
+      }
+    }
+  }
+
+  private static final class InternedConfig {
+    private final GetJavaConfigResponse javaConfig;
+    private List<Path> classpathJdkClassesRoots;
+    private String classpath;
+
+    private InternedConfig(GetJavaConfigResponse javaConfig) {
+      this.javaConfig = javaConfig;
+    }
+
+    private boolean isSameAs(GetJavaConfigResponse other) {
+      return Objects.equals(javaConfig.getSourceLevel(), other.getSourceLevel())
+        && Objects.equals(javaConfig.getVmLocation(), other.getVmLocation())
+        && Arrays.equals(javaConfig.getClasspath(), other.getClasspath());
+    }
+
+    private synchronized String getClasspath(List<Path> jdkClassesRoots, Supplier<String> classpathSupplier) {
+      if (classpath == null || !jdkClassesRoots.equals(classpathJdkClassesRoots)) {
+        classpath = classpathSupplier.get();
+        classpathJdkClassesRoots = jdkClassesRoots;
+      }
+      return classpath;
+    }
+  }
+
 }
@@ -0,0 +1,285 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.java;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient.GetJavaConfigResponse;
+import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
+
+import static java.lang.String.format;
+
+/**
+ * Persist the Java configuration of projects under the SonarLint user home, so that it is available right after a restart.
+ * <p>
+ * There is one small JSON file per project root, holding the main and test configurations of the project, and the directories
+ * (relative to the project root) in which main or test files were seen. The configuration of a file is found by looking for the
+ * store of each of its ancestor directories, then for the nearest known directory of the file.
+ */
+class JavaConfigStore {
+
+  static final String STORE_DIRECTORY_NAME = "java-config";
+  private static final int FORMAT_VERSION = 1;
+  private static final Gson GSON = new Gson();
+
+  private final Supplier<Path> storeDirectorySupplier;
+  private final LanguageClientLogger logOutput;
+  // Projects read from disk in this session, or written. Directories without a store are not cached, there is one per ancestor of each file.
+  private final Map<Path, ProjectEntry> projectsPerRoot = new ConcurrentHashMap<>();
+
+  JavaConfigStore(Supplier<Path> storeDirectorySupplier, LanguageClientLogger logOutput) {
+    this.storeDirectorySupplier = storeDirectorySupplier;
+    this.logOutput = logOutput;
+  }
+
+  static Path getDefaultStoreDirectory() {
+    return BackendServiceFacade.getSonarLintUserHome().resolve(STORE_DIRECTORY_NAME);
+  }
+
+  Optional<GetJavaConfigResponse> find(URI fileUri) {
+    var filePath = toPath(fileUri);
+    if (filePath == null || filePath.getParent() == null) {
+      return Optional.empty();
+    }
+    var fileDirectory = filePath.getParent();
+    for (var projectRoot = fileDirectory; projectRoot != null; projectRoot = projectRoot.getParent()) {
+      var project = getOrRead(projectRoot);
+      if (project != null) {
+        synchronized (this) {
+          return project.findConfig(projectRoot.relativize(fileDirectory));
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  void save(URI fileUri, GetJavaConfigResponse javaConfig) {
+    var filePath = toPath(fileUri);
+    var projectRoot = javaConfig.getProjectRoot() != null ? toPath(URI.create(javaConfig.getProjectRoot())) : null;
+    if (filePath == null || filePath.getParent() == null || projectRoot == null) {
+      return;
+    }
+    synchronized (this) {
+      var project = getOrRead(projectRoot);
+      if (project == null) {
+        project = new ProjectEntry(javaConfig.getProjectRoot());
+        projectsPerRoot.put(projectRoot, project);
+      }
+      var changed = filePath.startsWith(projectRoot) && project.recordDirectory(projectRoot.relativize(filePath.getParent()), javaConfig.isTest());
+      changed |= project.recordConfig(javaConfig);
+      if (changed) {
+        write(projectRoot, project);
+      }
+    }
+  }
+
+  void evict(URI projectUri) {
+    var projectRoot = toPath(projectUri);
+    if (projectRoot != null) {
+      evict(projectRoot);
+    }
+  }
+
+  /**
+   * Forget all the projects that were used in this session.
+   */
+  void clear() {
+    projectsPerRoot.keySet().forEach(this::evict);
+  }
+
+  private synchronized void evict(Path projectRoot) {
+    var removed = projectsPerRoot.remove(projectRoot);
+    if (removed != null) {
+      try {
+        Files.deleteIfExists(storeFile(projectRoot));
+        logOutput.debug(format("Evicted persisted Java config for project \"%s\"", projectRoot));
+      } catch (IOException e) {
+        logOutput.debugWithStackTrace(format("Unable to delete persisted Java config for project \"%s\"", projectRoot), e);
+      }
+    }
+  }
+
+  @CheckForNull
+  private ProjectEntry getOrRead(Path projectRoot) {
+    var project = projectsPerRoot.get(projectRoot);
+    if (project == null) {
+      project = read(projectRoot);
+      if (project != null) {
+        var previous = projectsPerRoot.putIfAbsent(projectRoot, project);
+        project = previous != null ? previous : project;
+      }
+    }
+    return project;
+  }
+
+  @CheckForNull
+  private ProjectEntry read(Path projectRoot) {
+    var storeFile = storeFile(projectRoot);
+    if (!Files.isRegularFile(storeFile)) {
+      return null;
+    }
+    try {
+      var project = GSON.fromJson(Files.readString(storeFile, StandardCharsets.UTF_8), ProjectEntry.class);
+      return project != null && project.formatVersion == FORMAT_VERSION ? project : null;
+    } catch (IOException | JsonParseException e) {
+      logOutput.debugWithStackTrace(format("Unable to read persisted Java config for project \"%s\"", projectRoot), e);
+      return null;
+    }
+  }
+
+  private void write(Path projectRoot, ProjectEntry project) {
+    var storeFile = storeFile(projectRoot);
+    try {
+      Files.createDirectories(storeFile.getParent());
+      // Other language server instances may read the same store, so never expose a partially written file
+      var tempFile = Files.createTempFile(storeFile.getParent(), storeFile.getFileName().toString(), ".tmp");
+      Files.writeString(tempFile, GSON.toJson(project), StandardCharsets.UTF_8);
+      try {
+        Files.move(tempFile, storeFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, storeFile, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      logOutput.debugWithStackTrace(format("Unable to persist Java config for project \"%s\"", projectRoot), e);
+    }
+  }
+
+  private Path storeFile(Path projectRoot) {
+    return storeDirectorySupplier.get().resolve(DigestUtils.sha256Hex(projectRoot.toString()) + ".json");
+  }
+
+  @CheckForNull
+  private static Path toPath(URI uri) {
+    if (!"file".equalsIgnoreCase(uri.getScheme())) {
+      return null;
+    }
+    try {
+      return Paths.get(uri).toAbsolutePath().normalize();
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static class ProjectEntry {
+    private int formatVersion = FORMAT_VERSION;
+    private String projectRoot;
+    private Config main;
+    private Config test;
+    // Relative path of directories containing Java files, to whether they contain test files
+    private Map<String, Boolean> directories = new HashMap<>();
+
+    private ProjectEntry() {
+      // For Gson
+    }
+
+    private ProjectEntry(String projectRoot) {
+      this.projectRoot = projectRoot;
+    }
+
+    private Optional<GetJavaConfigResponse> findConfig(Path relativeDirectory) {
+      var isTest = findNearestDirectory(relativeDirectory);
+      if (isTest == null) {
+        return Optional.empty();
+      }
+      var config = isTest ? test : main;
+      return config == null ? Optional.empty() : Optional.of(config.toResponse(projectRoot, isTest));
+    }
+
+    @CheckForNull
+    private Boolean findNearestDirectory(Path relativeDirectory) {
+      for (var directory = relativeDirectory; directory != null; directory = directory.getParent()) {
+        var isTest = directories.get(directory.toString());
+        if (isTest != null) {
+          return isTest;
+        }
+      }
+      // Files directly in the project root
+      return directories.get("");
+    }
+
+    private boolean recordDirectory(Path relativeDirectory, boolean isTest) {
+      return !Boolean.valueOf(isTest).equals(directories.put(relativeDirectory.toString(), isTest));
+    }
+
+    private boolean recordConfig(GetJavaConfigResponse javaConfig) {
+      var config = new Config(javaConfig);
+      var previous = javaConfig.isTest() ? test : main;
+      if (config.sameAs(previous)) {
+        return false;
+      }
+      if (javaConfig.isTest()) {
+        test = config;
+      } else {
+        main = config;
+      }
+      return true;
+    }
+  }
+
+  private static class Config {
+    private String sourceLevel;
+    private String[] classpath;
+    private String vmLocation;
+
+    private Config() {
+      // For Gson
+    }
+
+    private Config(GetJavaConfigResponse javaConfig) {
+      this.sourceLevel = javaConfig.getSourceLevel();
+      this.classpath = javaConfig.getClasspath();
+      this.vmLocation = javaConfig.getVmLocation();
+    }
+
+    private boolean sameAs(@Nullable Config other) {
+      return other != null && Objects.equals(sourceLevel, other.sourceLevel) && Arrays.equals(classpath, other.classpath)
+        && Objects.equals(vmLocation, other.vmLocation);
+    }
+
+    private GetJavaConfigResponse toResponse(String projectRoot, boolean isTest) {
+      var response = new GetJavaConfigResponse();
+      response.setProjectRoot(projectRoot);
+      response.setTest(isTest);
+      response.setSourceLevel(sourceLevel);
+      response.setClasspath(classpath);
+      response.setVmLocation(vmLocation);
+      return response;
+    }
+  }
+}
@@ -31,13 +31,11 @@ import org.sonarsource.sonarlint.core.rpc.protocol.common.TextRangeDto;
 import org.sonarsource.sonarlint.ls.connected.DelegatingFinding;
 
 public class DelegatingCellIssue extends DelegatingFinding {
-  private final RaisedFindingDto issue;
   private final TextRangeDto cellTextRange;
   private final List<QuickFixDto> cellQuickFixes;
 
   DelegatingCellIssue(RaisedFindingDto issue, URI fileUri, @Nullable TextRangeDto textRange, List<QuickFixDto> quickFixes) {
     super(issue, fileUri);
-    this.issue = issue;
     this.cellTextRange = textRange;
     this.cellQuickFixes = quickFixes;
   }
@@ -72,9 +70,9 @@ public class DelegatingCellIssue extends DelegatingFinding {
   }
 
   public RaisedIssueDto getIssue() {
-    return new RaisedIssueDto(issue.getId(), issue.getServerKey(), issue.getRuleKey(), issue.getPrimaryMessage(),
-      issue.getSeverityMode(), issue.getIntroductionDate(),
-      issue.isOnNewCode(), issue.isResolved(), cellTextRange, issue.getFlows(), cellQuickFixes, issue.getRuleDescriptionContextKey(), false, ResolutionStatus.ACCEPT);
+    return new RaisedIssueDto(finding.getId(), finding.getServerKey(), finding.getRuleKey(), finding.getPrimaryMessage(),
+      finding.getSeverityMode(), finding.getIntroductionDate(),
+      finding.isOnNewCode(), finding.isResolved(), cellTextRange, finding.getFlows(), cellQuickFixes, finding.getRuleDescriptionContextKey(), false, ResolutionStatus.ACCEPT);
   }
 
   @Override
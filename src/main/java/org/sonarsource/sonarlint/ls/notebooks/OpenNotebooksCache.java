@@ -25,7 +25,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
 import org.eclipse.lsp4j.NotebookDocumentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.TextDocumentItem;
 import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
 
@@ -39,35 +41,29 @@ public class OpenNotebooksCache {
   private final NotebookDiagnosticPublisher notebookDiagnosticPublisher;
 
   private final Map<URI, VersionedOpenNotebook> openNotebooksPerFileURI = new ConcurrentHashMap<>();
+  private final Map<String, URI> notebookUrisPerCellUri = new ConcurrentHashMap<>();
 
   public OpenNotebooksCache(LanguageClientLogger lsLogOutput, NotebookDiagnosticPublisher notebookDiagnosticPublisher) {
     this.lsLogOutput = lsLogOutput;
     this.notebookDiagnosticPublisher = notebookDiagnosticPublisher;
   }
 
+  @CheckForNull
   public URI getNotebookUriFromCellUri(URI cellUri) {
-    var notebookContainingCellUri =
-      this.openNotebooksPerFileURI
-        .values()
-        .stream()
-        .filter(notebook -> notebook.getCellUris().contains(cellUri.toString()))
-        .findFirst();
-    return notebookContainingCellUri.map(VersionedOpenNotebook::getUri).orElse(null);
+    return notebookUrisPerCellUri.get(cellUri.toString());
   }
 
   public boolean isKnownCellUri(URI cellUri) {
-    var notebookContainingCellUri =
-      this.openNotebooksPerFileURI
-        .values()
-        .stream()
-        .filter(notebook -> notebook.getCellUris().contains(cellUri.toString()))
-        .findFirst();
-    return notebookContainingCellUri.isPresent();
+    return notebookUrisPerCellUri.containsKey(cellUri.toString());
   }
 
   public VersionedOpenNotebook didOpen(URI fileUri, int version, List<TextDocumentItem> cells) {
     var file = VersionedOpenNotebook.create(fileUri, version, cells, notebookDiagnosticPublisher);
-    openNotebooksPerFileURI.put(fileUri, file);
+    var previous = openNotebooksPerFileURI.put(fileUri, file);
+    if (previous != null) {
+      forgetCells(fileUri, previous.getCellUris());
+    }
+    cells.forEach(cell -> notebookUrisPerCellUri.put(cell.getUri(), fileUri));
     return file;
   }
 
@@ -77,11 +73,34 @@ public class OpenNotebooksCache {
     } else {
       var openNotebook = openNotebooksPerFileURI.get(fileUri);
       openNotebook.didChange(version, changeEvent);
+      updateCellUris(fileUri, changeEvent);
+    }
+  }
+
+  private void updateCellUris(URI fileUri, NotebookDocumentChangeEvent changeEvent) {
+    var cellsChange = changeEvent.getCells();
+    if (cellsChange == null || cellsChange.getStructure() == null) {
+      return;
+    }
+    var structure = cellsChange.getStructure();
+    if (structure.getDidClose() != null) {
+      forgetCells(fileUri, structure.getDidClose().stream().map(TextDocumentIdentifier::getUri).toList());
+    }
+    if (structure.getDidOpen() != null) {
+      structure.getDidOpen().forEach(cell -> notebookUrisPerCellUri.put(cell.getUri(), fileUri));
     }
   }
 
   public void didClose(URI fileUri) {
-    openNotebooksPerFileURI.remove(fileUri);
+    var closedNotebook = openNotebooksPerFileURI.remove(fileUri);
+    if (closedNotebook != null) {
+      forgetCells(fileUri, closedNotebook.getCellUris());
+    }
+  }
+
+  private void forgetCells(URI fileUri, Collection<String> cellUris) {
+    // Only remove the mappings still pointing to this notebook, in case a cell was moved to another one
+    cellUris.forEach(cellUri -> notebookUrisPerCellUri.remove(cellUri, fileUri));
   }
 
   public Optional<VersionedOpenNotebook> getFile(URI fileUri) {
@@ -21,15 +21,13 @@ package org.sonarsource.sonarlint.ls.notebooks;
 
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 import org.eclipse.lsp4j.NotebookDocumentChangeEvent;
 import org.eclipse.lsp4j.NotebookDocumentChangeEventCellTextContent;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
@@ -40,52 +38,37 @@ import org.sonarsource.sonarlint.core.rpc.protocol.client.issue.TextEditDto;
 import org.sonarsource.sonarlint.core.rpc.protocol.common.TextRangeDto;
 import org.sonarsource.sonarlint.ls.connected.DelegatingFinding;
 import org.sonarsource.sonarlint.ls.domain.LSLanguage;
+import org.sonarsource.sonarlint.ls.file.PieceTable;
 import org.sonarsource.sonarlint.ls.file.VersionedOpenFile;
 
-import static org.sonarsource.sonarlint.ls.notebooks.NotebookUtils.applyChangeToCellContent;
-import static org.sonarsource.sonarlint.ls.notebooks.NotebookUtils.fileTextRangeToCellTextRange;
+import static org.sonarsource.sonarlint.ls.notebooks.NotebookUtils.applyChangesToCellContent;
 
 public class VersionedOpenNotebook {
 
   static final String SONAR_PYTHON_NOTEBOOK_CELL_DELIMITER = "#SONAR_PYTHON_NOTEBOOK_CELL_DELIMITER\n";
+  private static final String CELL_SEPARATOR = "\n" + SONAR_PYTHON_NOTEBOOK_CELL_DELIMITER;
 
   private final URI uri;
-  private Integer notebookVersion;
-  private final LinkedHashMap<String, TextDocumentItem> cells = new LinkedHashMap<>();
-  private final List<TextDocumentItem> orderedCells = new ArrayList<>();
-  private final Map<Integer, TextDocumentItem> fileLineToCell = new HashMap<>();
-  private final Map<Integer, Integer> virtualFileLineToCellLine = new HashMap<>();
+  private volatile int notebookVersion;
+  private final LinkedHashMap<String, Cell> cells = new LinkedHashMap<>();
+  private final List<Cell> orderedCells = new ArrayList<>();
+  private volatile CellLineIndex lineIndex;
+  // Joined content of the cells, only built once per notebook version
+  private VersionedOpenFile versionedOpenFile;
   private final NotebookDiagnosticPublisher notebookDiagnosticPublisher;
 
   private VersionedOpenNotebook(URI uri, int version, List<TextDocumentItem> cells, NotebookDiagnosticPublisher notebookDiagnosticPublisher) {
     this.uri = uri;
     this.notebookVersion = version;
-    cells.forEach(cell -> {
-      this.cells.put(cell.getUri(), cell);
+    cells.forEach(cellItem -> {
+      var cell = Cell.of(cellItem);
+      this.cells.put(cell.uri, cell);
       this.orderedCells.add(cell);
     });
+    this.lineIndex = CellLineIndex.of(orderedCells);
     this.notebookDiagnosticPublisher = notebookDiagnosticPublisher;
   }
 
-  private void indexCellsByLineNumber() {
-    var lineCount = 1;
-    var cellCount = 1;
-    for (var cell : orderedCells) {
-      var cellLines = cell.getText().split("\n", -1);
-      for (var cellLineCount = 1; cellLineCount <= cellLines.length; cellLineCount++) {
-        fileLineToCell.put(lineCount, cell);
-        virtualFileLineToCellLine.put(lineCount, cellLineCount);
-        lineCount++;
-        if (cellLineCount == cellLines.length && cellCount < orderedCells.size()) {
-          fileLineToCell.put(lineCount, cell);
-          virtualFileLineToCellLine.put(lineCount, cellLineCount);
-          lineCount++;
-        }
-      }
-      cellCount++;
-    }
-  }
-
   public static VersionedOpenNotebook create(URI baseUri, int version, List<TextDocumentItem> cells, NotebookDiagnosticPublisher notebookDiagnosticPublisher) {
     return new VersionedOpenNotebook(baseUri, version, cells, notebookDiagnosticPublisher);
   }
@@ -94,47 +77,66 @@ public class VersionedOpenNotebook {
     return uri;
   }
 
-  public VersionedOpenFile asVersionedOpenFile() {
-    return new VersionedOpenFile(uri, LSLanguage.IPYTHON.getKey(), this.notebookVersion, getContent());
+  public synchronized VersionedOpenFile asVersionedOpenFile() {
+    if (versionedOpenFile == null) {
+      versionedOpenFile = new VersionedOpenFile(uri, LSLanguage.IPYTHON.getKey(), this.notebookVersion, joinCells());
+    }
+    return versionedOpenFile;
   }
 
   String getContent() {
-    return orderedCells.stream().map(TextDocumentItem::getText)
-      .collect(Collectors.joining("\n" + SONAR_PYTHON_NOTEBOOK_CELL_DELIMITER));
+    return asVersionedOpenFile().getContent();
+  }
+
+  private String joinCells() {
+    var length = Math.max(0, orderedCells.size() - 1) * CELL_SEPARATOR.length();
+    for (var cell : orderedCells) {
+      length += cell.content.length();
+    }
+    var content = new StringBuilder(length);
+    for (var i = 0; i < orderedCells.size(); i++) {
+      if (i > 0) {
+        content.append(CELL_SEPARATOR);
+      }
+      content.append(orderedCells.get(i).content.getText());
+    }
+    return content.toString();
   }
 
   public int getNotebookVersion() {
     return this.notebookVersion;
   }
 
+  synchronized Optional<Integer> getCellVersion(String cellUri) {
+    return Optional.ofNullable(cells.get(cellUri)).map(cell -> cell.version);
+  }
+
   public Set<String> getCellUris() {
     return cells.keySet();
   }
 
   public Optional<URI> getCellUri(int lineNumber) {
-    return Optional.ofNullable(fileLineToCell.get(lineNumber))
-      .map(TextDocumentItem::getUri)
-      .map(URI::create);
+    var index = lineIndex;
+    var cellIndex = index.cellIndexAt(lineNumber);
+    return cellIndex < 0 ? Optional.empty() : Optional.of(URI.create(index.cells[cellIndex].uri));
   }
 
   public DelegatingCellIssue toCellIssue(DelegatingFinding issue) {
-    indexCellsByLineNumber();
+    var index = lineIndex;
     var issueTextRange = issue.getTextRange();
     var originalQuickFixes = issue.quickFixes();
     var convertedQuickFixes = new ArrayList<QuickFixDto>();
     TextRangeDto cellTextRange = null;
     if (issueTextRange != null) {
-      cellTextRange = fileTextRangeToCellTextRange(issueTextRange.getStartLine(), issueTextRange.getStartLineOffset(),
-        issueTextRange.getEndLine(), issueTextRange.getEndLineOffset(), virtualFileLineToCellLine);
+      cellTextRange = index.toCellTextRange(issueTextRange);
     }
     if (originalQuickFixes != null && !originalQuickFixes.isEmpty()) {
       AtomicReference<URI> textEditCellUri = new AtomicReference<>();
       for (QuickFixDto quickFix : originalQuickFixes) {
         var newFileEdits = quickFix.fileEdits().stream().map(fileEdit -> {
           var newTextEdits = fileEdit.textEdits().stream().map(textEdit -> {
-            textEditCellUri.set(URI.create(fileLineToCell.get(textEdit.range().getStartLine()).getUri()));
-            var newTextRange = fileTextRangeToCellTextRange(textEdit.range().getStartLine(), textEdit.range().getStartLineOffset(),
-              textEdit.range().getEndLine(), textEdit.range().getEndLineOffset(), virtualFileLineToCellLine);
+            textEditCellUri.set(URI.create(index.cellAt(textEdit.range().getStartLine()).uri));
+            var newTextRange = index.toCellTextRange(textEdit.range());
             return new TextEditDto(newTextRange, textEdit.newText());
           }).toList();
           return new FileEditDto(textEditCellUri.get(), newTextEdits);
@@ -146,8 +148,7 @@ public class VersionedOpenNotebook {
     return new DelegatingCellIssue(issue.getFinding(), this.getUri(), cellTextRange, convertedQuickFixes);
   }
 
-  public void didChange(int version, NotebookDocumentChangeEvent changeEvent) {
-    this.notebookVersion = version;
+  public synchronized void didChange(int version, NotebookDocumentChangeEvent changeEvent) {
     if (changeEvent.getCells() != null && changeEvent.getCells().getStructure() != null && !changeEvent.getCells().getStructure().getDidClose().isEmpty()) {
       handleCellDeletion(changeEvent.getCells().getStructure().getDidClose());
     }
@@ -157,6 +158,9 @@ public class VersionedOpenNotebook {
     if (changeEvent.getCells() != null && changeEvent.getCells().getTextContent() != null && !changeEvent.getCells().getTextContent().isEmpty()) {
       handleContentChange(changeEvent.getCells().getTextContent());
     }
+    this.lineIndex = CellLineIndex.of(orderedCells);
+    this.versionedOpenFile = null;
+    this.notebookVersion = version;
   }
 
   private void handleCellDeletion(List<TextDocumentIdentifier> removedCellIdentifiers) {
@@ -164,15 +168,16 @@ public class VersionedOpenNotebook {
       var removedItem = cells.remove(removedCell.getUri());
       if (removedItem != null) {
         orderedCells.remove(removedItem);
-        notebookDiagnosticPublisher.removeCellDiagnostics(URI.create(removedItem.getUri()));
+        notebookDiagnosticPublisher.removeCellDiagnostics(URI.create(removedItem.uri));
       }
     });
   }
 
   private void handleCellCreation(NotebookDocumentChangeEvent changeEvent) {
     var insertionStart = new AtomicInteger(changeEvent.getCells().getStructure().getArray().getStart());
-    changeEvent.getCells().getStructure().getDidOpen().forEach(newCell -> {
-      cells.put(newCell.getUri(), newCell);
+    changeEvent.getCells().getStructure().getDidOpen().forEach(newCellItem -> {
+      var newCell = Cell.of(newCellItem);
+      cells.put(newCell.uri, newCell);
       orderedCells.add(insertionStart.getAndIncrement(), newCell);
     });
   }
@@ -181,9 +186,95 @@ public class VersionedOpenNotebook {
     textContents.forEach(textContent -> {
       var changedCellUri = textContent.getDocument().getUri();
       var cell = cells.get(changedCellUri);
-      cell.setVersion(textContent.getDocument().getVersion());
-
-      cell.setText(applyChangeToCellContent(cell, textContent.getChanges()));
+      cell.version = textContent.getDocument().getVersion();
+      // Only the segment of the edited cell is patched, other cells are left untouched
+      cell.content = applyChangesToCellContent(cell.content, textContent.getChanges());
     });
   }
+
+  /**
+   * Segment of the notebook content for a single cell.
+   */
+  private static final class Cell {
+    private final String uri;
+    private int version;
+    private PieceTable content;
+
+    private Cell(String uri, int version, PieceTable content) {
+      this.uri = uri;
+      this.version = version;
+      this.content = content;
+    }
+
+    private static Cell of(TextDocumentItem cellItem) {
+      return new Cell(cellItem.getUri(), cellItem.getVersion(), PieceTable.of(cellItem.getText() != null ? cellItem.getText() : ""));
+    }
+  }
+
+  /**
+   * Immutable snapshot of the position of each cell in the virtual Python file sent for analysis.
+   * <p>
+   * Each cell occupies as many lines as it has in the editor, followed (except for the last cell) by one delimiter line,
+   * that is reported on the last line of the cell. The start line of each cell is a prefix sum of the line counts,
+   * so that finding the cell of a line is a binary search.
+   */
+  private static final class CellLineIndex {
+    private final Cell[] cells;
+    // 1-based line of the virtual file where each cell starts
+    private final int[] startLines;
+    private final int lineCount;
+
+    private CellLineIndex(Cell[] cells, int[] startLines, int lineCount) {
+      this.cells = cells;
+      this.startLines = startLines;
+      this.lineCount = lineCount;
+    }
+
+    private static CellLineIndex of(List<Cell> orderedCells) {
+      var cells = orderedCells.toArray(new Cell[0]);
+      var startLines = new int[cells.length];
+      var nextStartLine = 1;
+      for (var i = 0; i < cells.length; i++) {
+        startLines[i] = nextStartLine;
+        nextStartLine += cells[i].content.lineCount() + 1;
+      }
+      var lineCount = cells.length == 0 ? 0 : (nextStartLine - 2);
+      return new CellLineIndex(cells, startLines, lineCount);
+    }
+
+    /**
+     * @return the index of the cell containing the given line of the virtual file, or -1 if out of the file
+     */
+    private int cellIndexAt(int fileLine) {
+      if (fileLine < 1 || fileLine > lineCount) {
+        return -1;
+      }
+      var index = Arrays.binarySearch(startLines, fileLine);
+      return index >= 0 ? index : (-index - 2);
+    }
+
+    private Cell cellAt(int fileLine) {
+      return cells[checkedCellIndexAt(fileLine)];
+    }
+
+    private int cellLineAt(int fileLine) {
+      var cellIndex = checkedCellIndexAt(fileLine);
+      var nextStartLine = cellIndex + 1 < startLines.length ? startLines[cellIndex + 1] : (lineCount + 2);
+      // The delimiter line that follows a cell is mapped to the last line of this cell
+      return Math.min(fileLine - startLines[cellIndex] + 1, nextStartLine - startLines[cellIndex] - 1);
+    }
+
+    private int checkedCellIndexAt(int fileLine) {
+      var cellIndex = cellIndexAt(fileLine);
+      if (cellIndex < 0) {
+        throw new IllegalArgumentException("Line " + fileLine + " is outside of the notebook");
+      }
+      return cellIndex;
+    }
+
+    private TextRangeDto toCellTextRange(TextRangeDto fileTextRange) {
+      return new TextRangeDto(cellLineAt(fileTextRange.getStartLine()), fileTextRange.getStartLineOffset(),
+        cellLineAt(fileTextRange.getEndLine()), fileTextRange.getEndLineOffset());
+    }
+  }
 }
@@ -32,10 +32,12 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -115,6 +117,10 @@ public class SettingsManager implements WorkspaceFolderLifecycleListener {
   private final List<WorkspaceFolderSettingsChangeListener> folderListeners = new ArrayList<>();
   private final BackendServiceFacade backendServiceFacade;
   private final LanguageClientLogger logOutput;
+  // Tokens are read from the secret storage of the client only once per server URL or organization, until updated. Missing tokens are
+  // not kept, e.g. the token of a connection being created may not be stored yet when the settings change.
+  private final Map<String, CompletableFuture<String>> tokenRequestPerServer = new ConcurrentHashMap<>();
+  private volatile Map<String, TokenRequest> tokenRequestPerConnectionId = Map.of();
 
   public SettingsManager(SonarLintExtendedLanguageClient client, WorkspaceFoldersManager foldersManager,
     BackendServiceFacade backendServiceFacade, LanguageClientLogger logOutput) {
@@ -197,7 +203,11 @@ public class SettingsManager implements WorkspaceFolderLifecycleListener {
   public void didChangeConfiguration() {
     executor.execute(() -> {
       try {
-        var workspaceSettingsMap = requestSonarLintAndOmnisharpConfigurationAsync(null).get(1, TimeUnit.MINUTES);
+        var workspaceSettingsRequest = requestSonarLintAndOmnisharpConfigurationAsync(null);
+        // Configuration of all folders is requested at once, so that applying it only waits for the slowest response
+        var folderSettingsRequests = new LinkedHashMap<WorkspaceFolderWrapper, CompletableFuture<Map<String, Object>>>();
+        foldersManager.getAll().forEach(f -> folderSettingsRequests.put(f, requestSonarLintAndOmnisharpConfigurationAsync(f.getUri())));
+        var workspaceSettingsMap = workspaceSettingsRequest.get(1, TimeUnit.MINUTES);
         var newWorkspaceSettings = parseSettings(workspaceSettingsMap);
         var oldWorkspaceSettings = currentSettings;
         this.currentSettings = newWorkspaceSettings;
@@ -214,7 +224,7 @@ public class SettingsManager implements WorkspaceFolderLifecycleListener {
         backendServiceFacade.getBackendService().didChangeConnections(this.currentSettings.getServerConnections());
         backendServiceFacade.getBackendService().updateStandaloneRulesConfiguration(getStandaloneRuleConfigByKey());
 
-        foldersManager.getAll().forEach(f -> updateWorkspaceFolderSettings(f, true));
+        folderSettingsRequests.forEach((f, folderSettingsRequest) -> updateWorkspaceFolderSettings(f, folderSettingsRequest, true));
         foldersManager.initialized();
         notifyListeners(newWorkspaceSettings, oldWorkspaceSettings, newDefaultFolderSettings, oldDefaultFolderSettings);
       } catch (InterruptedException e) {
@@ -399,8 +409,12 @@ public class SettingsManager implements WorkspaceFolderLifecycleListener {
   }
 
   private void updateWorkspaceFolderSettings(WorkspaceFolderWrapper f, boolean notifyOnChange) {
+    updateWorkspaceFolderSettings(f, requestSonarLintAndOmnisharpConfigurationAsync(f.getUri()), notifyOnChange);
+  }
+
+  private void updateWorkspaceFolderSettings(WorkspaceFolderWrapper f, CompletableFuture<Map<String, Object>> folderSettingsRequest, boolean notifyOnChange) {
     try {
-      var folderSettingsMap = requestSonarLintAndOmnisharpConfigurationAsync(f.getUri()).get();
+      var folderSettingsMap = folderSettingsRequest.get();
       var newSettings = parseFolderSettings(folderSettingsMap, f.getUri());
       var old = f.getRawSettings();
       if (!Objects.equals(old, newSettings)) {
@@ -446,8 +460,15 @@ public class SettingsManager implements WorkspaceFolderLifecycleListener {
     parseDeprecatedServerEntries(connectedModeMap, serverConnections);
     @SuppressWarnings("unchecked")
     var connectionsMap = (Map<String, Object>) connectedModeMap.getOrDefault("connections", Collections.emptyMap());
-    parseSonarQubeConnections(connectionsMap, serverConnections);
-    parseSonarCloudConnections(connectionsMap, serverConnections);
+    // Tokens of all connections are requested first, then awaited together
+    var newTokenRequestPerConnectionId = new HashMap<String, TokenRequest>();
+    parseSonarQubeConnections(connectionsMap, serverConnections, newTokenRequestPerConnectionId);
+    parseSonarCloudConnections(connectionsMap, serverConnections, newTokenRequestPerConnectionId);
+    this.tokenRequestPerConnectionId = newTokenRequestPerConnectionId;
+    var requestedServers = newTokenRequestPerConnectionId.values().stream().map(TokenRequest::serverUrlOrOrganization).collect(Collectors.toSet());
+    // Forget the tokens of removed connections
+    tokenRequestPerServer.keySet().retainAll(requestedServers);
+    newTokenRequestPerConnectionId.forEach((connectionId, tokenRequest) -> serverConnections.get(connectionId).setToken(getTokenFromClient(tokenRequest)));
     return serverConnections;
   }
 
@@ -467,17 +488,19 @@ public class SettingsManager implements WorkspaceFolderLifecycleListener {
     });
   }
 
-  private void parseSonarQubeConnections(Map<String, Object> connectionsMap, Map<String, ServerConnectionSettings> serverConnections) {
+  private void parseSonarQubeConnections(Map<String, Object> connectionsMap, Map<String, ServerConnectionSettings> serverConnections,
+    Map<String, TokenRequest> tokenRequestPerConnectionId) {
     @SuppressWarnings("unchecked")
     var sonarqubeEntries = (List<Map<String, Object>>) connectionsMap.getOrDefault("sonarqube", Collections.emptyList());
     sonarqubeEntries.forEach(m -> {
       if (checkRequiredAttribute(m, "SonarQube server", SERVER_URL)) {
         var connectionId = defaultIfBlank((String) m.get(CONNECTION_ID), DEFAULT_CONNECTION_ID);
         var url = (String) m.get(SERVER_URL);
-        var token = getTokenFromClient(url);
         var disableNotifications = (Boolean) m.getOrDefault(DISABLE_NOTIFICATIONS, false);
-        var connectionSettings = new ServerConnectionSettings(connectionId, url, token, null, disableNotifications, null);
-        addIfUniqueConnectionId(serverConnections, connectionId, connectionSettings);
+        var connectionSettings = new ServerConnectionSettings(connectionId, url, null, null, disableNotifications, null);
+        if (addIfUniqueConnectionId(serverConnections, connectionId, connectionSettings)) {
+          tokenRequestPerConnectionId.put(connectionId, requestTokenFromClient(url));
+        }
       }
     });
   }
@@ -498,7 +521,8 @@ public class SettingsManager implements WorkspaceFolderLifecycleListener {
     return serverConnections;
   }
 
-  private void parseSonarCloudConnections(Map<String, Object> connectionsMap, Map<String, ServerConnectionSettings> serverConnections) {
+  private void parseSonarCloudConnections(Map<String, Object> connectionsMap, Map<String, ServerConnectionSettings> serverConnections,
+    Map<String, TokenRequest> tokenRequestPerConnectionId) {
     @SuppressWarnings("unchecked")
     var sonarcloudEntries = (List<Map<String, Object>>) connectionsMap.getOrDefault("sonarcloud", Collections.emptyList());
     sonarcloudEntries.forEach(m -> {
@@ -508,12 +532,13 @@ public class SettingsManager implements WorkspaceFolderLifecycleListener {
         var organizationKey = (String) m.get(ORGANIZATION_KEY);
         var disableNotifs = (Boolean) m.getOrDefault(DISABLE_NOTIFICATIONS, false);
         var region = (String) m.getOrDefault(REGION_KEY, SonarCloudRegion.EU.name());
-        var token = getTokenFromClient(region + "_" + organizationKey);
         var parsedRegion = parseRegion(region);
-        addIfUniqueConnectionId(serverConnections, connectionId,
-          new ServerConnectionSettings(connectionId,
-            parsedRegion == SonarCloudRegion.US ? ServerConnectionSettings.getSonarCloudUSUrl() : ServerConnectionSettings.getSonarCloudUrl(),
-            token, organizationKey, disableNotifs, parsedRegion));
+        var connectionSettings = new ServerConnectionSettings(connectionId,
+          parsedRegion == SonarCloudRegion.US ? ServerConnectionSettings.getSonarCloudUSUrl() : ServerConnectionSettings.getSonarCloudUrl(),
+          null, organizationKey, disableNotifs, parsedRegion);
+        if (addIfUniqueConnectionId(serverConnections, connectionId, connectionSettings)) {
+          tokenRequestPerConnectionId.put(connectionId, requestTokenFromClient(region + "_" + organizationKey));
+        }
       }
     });
   }
@@ -547,19 +572,52 @@ public class SettingsManager implements WorkspaceFolderLifecycleListener {
     }
   }
 
-  private String getTokenFromClient(String serverUrlOrOrganization) {
+  private TokenRequest requestTokenFromClient(String serverUrlOrOrganization) {
+    return new TokenRequest(serverUrlOrOrganization, tokenRequestPerServer.computeIfAbsent(serverUrlOrOrganization, client::getTokenForServer));
+  }
+
+  private String getTokenFromClient(TokenRequest tokenRequest) {
+    var serverUrlOrOrganization = tokenRequest.serverUrlOrOrganization();
     try {
-      return client.getTokenForServer(serverUrlOrOrganization).get();
+      var token = tokenRequest.token().get();
+      if (isBlank(token)) {
+        // Not stored yet, request it again on next configuration change
+        tokenRequestPerServer.remove(serverUrlOrOrganization, tokenRequest.token());
+      }
+      return token;
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       logOutput.errorWithStackTrace("Can't get token for server " + serverUrlOrOrganization, e);
       return null;
     } catch (ExecutionException e) {
+      // Don't keep the failure, so that the token is requested again on next configuration change
+      tokenRequestPerServer.remove(serverUrlOrOrganization, tokenRequest.token());
       logOutput.errorWithStackTrace("Can't get token for server " + serverUrlOrOrganization, e);
       return null;
     }
   }
 
+  private record TokenRequest(String serverUrlOrOrganization, CompletableFuture<String> token) {
+  }
+
+  /**
+   * Update the token of a connection after it changed in the client, without looking up the tokens of other connections again.
+   */
+  public void didUpdateToken(String connectionId, String token) {
+    var tokenRequest = tokenRequestPerConnectionId.get(connectionId);
+    if (tokenRequest != null) {
+      if (isBlank(token)) {
+        tokenRequestPerServer.remove(tokenRequest.serverUrlOrOrganization());
+      } else {
+        tokenRequestPerServer.put(tokenRequest.serverUrlOrOrganization(), CompletableFuture.completedFuture(token));
+      }
+    }
+    var connection = getCurrentSettings().getServerConnections().get(connectionId);
+    if (connection != null) {
+      connection.setToken(token);
+    }
+  }
+
   public boolean checkRequiredAttribute(Map<String, Object> map, String label, String... requiredAttributes) {
     var missing = stream(requiredAttributes).filter(att -> isBlank((String) map.get(att))).toList();
     if (!missing.isEmpty()) {
@@ -569,16 +627,17 @@ public class SettingsManager implements WorkspaceFolderLifecycleListener {
     return true;
   }
 
-  private void addIfUniqueConnectionId(Map<String, ServerConnectionSettings> serverConnections, String connectionId, ServerConnectionSettings connectionSettings) {
+  private boolean addIfUniqueConnectionId(Map<String, ServerConnectionSettings> serverConnections, String connectionId, ServerConnectionSettings connectionSettings) {
     if (serverConnections.containsKey(connectionId)) {
       if (DEFAULT_CONNECTION_ID.equals(connectionId)) {
         logOutput.error("Please specify a unique 'connectionId' in your settings for each of the SonarQube (Server, Cloud) connections.");
       } else {
         logOutput.error(format("Multiple server connections with the same identifier '%s'. Fix your settings.", connectionId));
       }
-    } else {
-      serverConnections.put(connectionId, connectionSettings);
+      return false;
     }
+    serverConnections.put(connectionId, connectionSettings);
+    return true;
   }
 
   // Visible for testing
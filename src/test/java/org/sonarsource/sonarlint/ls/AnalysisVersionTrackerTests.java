@@ -0,0 +1,158 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisVersionTrackerTests {
+  private static final URI FILE_URI = URI.create("file:///some/File.java");
+
+  private final AnalysisVersionTracker underTest = new AnalysisVersionTracker();
+
+  @Test
+  void should_drop_findings_of_analysis_older_than_latest_completed() {
+    var slowAnalysisId = UUID.randomUUID();
+    var fastAnalysisId = UUID.randomUUID();
+    underTest.didSendContent(FILE_URI, 1);
+    underTest.analysisStarted(List.of(FILE_URI));
+    assertThat(underTest.accept(FILE_URI, slowAnalysisId, true)).isTrue();
+
+    underTest.didSendContent(FILE_URI, 2);
+    underTest.analysisStarted(List.of(FILE_URI));
+    assertThat(underTest.accept(FILE_URI, fastAnalysisId, false)).isTrue();
+
+    assertThat(underTest.accept(FILE_URI, slowAnalysisId, true)).isFalse();
+    assertThat(underTest.accept(FILE_URI, slowAnalysisId, false)).isFalse();
+    assertThat(underTest.getDroppedStalePublicationsCount()).isEqualTo(2);
+  }
+
+  @Test
+  void should_accept_findings_of_newer_analysis_after_older_one_completed() {
+    var firstAnalysisId = UUID.randomUUID();
+    var secondAnalysisId = UUID.randomUUID();
+    underTest.didSendContent(FILE_URI, 1);
+    underTest.analysisStarted(List.of(FILE_URI));
+    assertThat(underTest.accept(FILE_URI, firstAnalysisId, false)).isTrue();
+
+    underTest.didSendContent(FILE_URI, 2);
+    underTest.analysisStarted(List.of(FILE_URI));
+
+    assertThat(underTest.accept(FILE_URI, secondAnalysisId, true)).isTrue();
+    assertThat(underTest.accept(FILE_URI, secondAnalysisId, false)).isTrue();
+    // Late re-publication of the completed analysis
+    assertThat(underTest.accept(FILE_URI, secondAnalysisId, false)).isTrue();
+    assertThat(underTest.getDroppedStalePublicationsCount()).isZero();
+  }
+
+  @Test
+  void should_accept_untracked_findings() {
+    assertThat(underTest.accept(FILE_URI, UUID.randomUUID(), false)).isTrue();
+
+    underTest.didSendContent(FILE_URI, 3);
+    assertThat(underTest.accept(FILE_URI, null, false)).isTrue();
+    // No analysis started since the content was sent
+    assertThat(underTest.accept(FILE_URI, UUID.randomUUID(), false)).isTrue();
+    assertThat(underTest.getDroppedStalePublicationsCount()).isZero();
+  }
+
+  @Test
+  void should_drop_findings_of_older_analysis_publishing_after_newer_one_completed() {
+    var olderAnalysisId = UUID.randomUUID();
+    var newerAnalysisId = UUID.randomUUID();
+    underTest.didSendContent(FILE_URI, 5);
+    underTest.analysisStarted(olderAnalysisId, underTest.getSentVersions(List.of(FILE_URI)));
+    underTest.didSendContent(FILE_URI, 6);
+    underTest.analysisStarted(newerAnalysisId, underTest.getSentVersions(List.of(FILE_URI)));
+
+    assertThat(underTest.accept(FILE_URI, newerAnalysisId, true)).isTrue();
+    assertThat(underTest.accept(FILE_URI, newerAnalysisId, false)).isTrue();
+
+    assertThat(underTest.accept(FILE_URI, olderAnalysisId, true)).isFalse();
+    assertThat(underTest.accept(FILE_URI, olderAnalysisId, false)).isFalse();
+    assertThat(underTest.getDroppedStalePublicationsCount()).isEqualTo(2);
+  }
+
+  @Test
+  void should_not_bind_recorded_analysis_start_to_another_analysis() {
+    var recordedAnalysisId = UUID.randomUUID();
+    underTest.didSendContent(FILE_URI, 1);
+    var sentVersions = underTest.getSentVersions(List.of(FILE_URI));
+    underTest.analysisStarted(List.of(FILE_URI));
+    underTest.analysisStarted(recordedAnalysisId, sentVersions);
+    underTest.didSendContent(FILE_URI, 2);
+    underTest.analysisStarted(List.of(FILE_URI));
+
+    assertThat(underTest.accept(FILE_URI, UUID.randomUUID(), false)).isTrue();
+
+    assertThat(underTest.accept(FILE_URI, recordedAnalysisId, false)).isFalse();
+  }
+
+  @Test
+  void should_keep_findings_of_analysis_whose_version_is_unknown() {
+    var recordedAnalysisId = UUID.randomUUID();
+    underTest.didSendContent(FILE_URI, 1);
+    underTest.analysisStarted(recordedAnalysisId, underTest.getSentVersions(List.of(FILE_URI)));
+    assertThat(underTest.accept(FILE_URI, recordedAnalysisId, false)).isTrue();
+
+    assertThat(underTest.accept(FILE_URI, UUID.randomUUID(), false)).isTrue();
+    assertThat(underTest.accept(FILE_URI, recordedAnalysisId, false)).isTrue();
+    assertThat(underTest.getDroppedStalePublicationsCount()).isZero();
+  }
+
+  @Test
+  void should_not_bind_cancelled_analysis_start_after_forced_analysis_completed() {
+    var forcedAnalysisId = UUID.randomUUID();
+    var automaticAnalysisId = UUID.randomUUID();
+    underTest.didSendContent(FILE_URI, 1);
+    // Cancelled, never raises findings
+    underTest.analysisStarted(List.of(FILE_URI));
+    underTest.didSendContent(FILE_URI, 2);
+    underTest.analysisStarted(List.of(FILE_URI));
+    var sentVersions = underTest.getSentVersions(List.of(FILE_URI));
+    underTest.analysisStarted(List.of(FILE_URI));
+    underTest.analysisStarted(forcedAnalysisId, sentVersions);
+
+    assertThat(underTest.accept(FILE_URI, forcedAnalysisId, false)).isTrue();
+
+    assertThat(underTest.accept(FILE_URI, automaticAnalysisId, true)).isTrue();
+    assertThat(underTest.accept(FILE_URI, automaticAnalysisId, false)).isTrue();
+    assertThat(underTest.getDroppedStalePublicationsCount()).isZero();
+  }
+
+  @Test
+  void should_forget_closed_files() {
+    var oldAnalysisId = UUID.randomUUID();
+    underTest.didSendContent(FILE_URI, 1);
+    underTest.analysisStarted(List.of(FILE_URI));
+    underTest.accept(FILE_URI, oldAnalysisId, true);
+    underTest.didSendContent(FILE_URI, 2);
+    underTest.analysisStarted(List.of(FILE_URI));
+    underTest.accept(FILE_URI, UUID.randomUUID(), false);
+
+    underTest.forget(FILE_URI);
+
+    assertThat(underTest.accept(FILE_URI, oldAnalysisId, false)).isTrue();
+  }
+}
@@ -86,6 +86,7 @@ import org.sonarsource.sonarlint.ls.commands.ShowAllLocationsCommand;
 import org.sonarsource.sonarlint.ls.connected.DelegatingFinding;
 import org.sonarsource.sonarlint.ls.connected.DelegatingHotspot;
 import org.sonarsource.sonarlint.ls.connected.DelegatingIssue;
+import org.sonarsource.sonarlint.ls.connected.IssueStatusChangePermissionsCache;
 import org.sonarsource.sonarlint.ls.connected.ProjectBinding;
 import org.sonarsource.sonarlint.ls.connected.ProjectBindingManager;
 import org.sonarsource.sonarlint.ls.connected.TaintVulnerabilitiesCache;
@@ -164,7 +165,8 @@ class CommandManagerTests {
     backendService = mock(BackendService.class);
     when(backendServiceFacade.getBackendService()).thenReturn(backendService);
     underTest = new CommandManager(mockClient, mockSettingsManager, bindingManager, mockTelemetry,
-      mockTaintVulnerabilitiesCache, issuesCache, securityHotspotsCache, backendServiceFacade, workspaceFoldersManager, openNotebooksCache, logTester.getLogger());
+      mockTaintVulnerabilitiesCache, issuesCache, securityHotspotsCache, backendServiceFacade, workspaceFoldersManager, openNotebooksCache,
+      new IssueStatusChangePermissionsCache(backendServiceFacade, bindingManager, logTester.getLogger()), logTester.getLogger());
   }
 
   @Test
@@ -931,6 +933,33 @@ class CommandManagerTests {
     verify(mockClient).showRuleDescription(any(ShowRuleDescriptionParams.class));
   }
 
+  @Test
+  void hasResolveIssueActionWhilePermissionIsBeingChecked() {
+    var folderWrapper = mock(WorkspaceFolderWrapper.class);
+    when(folderWrapper.getUri()).thenReturn(URI.create("file:///"));
+    when(workspaceFoldersManager.findFolderForFile(URI.create(FILE_URI))).thenReturn(Optional.of(folderWrapper));
+    when(backendService.checkChangeIssueStatusPermitted(any())).thenReturn(new CompletableFuture<>());
+    when(mockBinding.connectionId()).thenReturn("connectionId");
+    when(bindingManager.getBinding(URI.create(FILE_URI))).thenReturn(Optional.of(mockBinding));
+
+    var d = new Diagnostic(FAKE_RANGE, "Foo", DiagnosticSeverity.Error, SONARLINT_SOURCE, "XYZ");
+
+    var issue = mock(DelegatingFinding.class);
+    var raisedFinding = mock(RaisedIssueDto.class);
+    when(issue.getFinding()).thenReturn(raisedFinding);
+    when(raisedFinding.isAiCodeFixable()).thenReturn(false);
+    when(issuesCache.getIssueForDiagnostic(any(URI.class), eq(d))).thenReturn(Optional.of(issue));
+    when(issue.getIssueId()).thenReturn(UUID.randomUUID());
+
+    var codeActions = underTest.computeCodeActions(new CodeActionParams(FAKE_TEXT_DOCUMENT, FAKE_RANGE,
+      new CodeActionContext(List.of(d))), NOP_CANCEL_TOKEN);
+
+    assertThat(codeActions).extracting(c -> c.getRight().getTitle())
+      .containsExactly(
+        "SonarQube: Resolve issue violating rule 'XYZ' as...",
+        "SonarQube: Show issue details for 'XYZ'");
+  }
+
   @Test
   void doesNotHaveResolveIssueActionWhenIssueStatusChangeNotPermitted() {
     var folderWrapper = mock(WorkspaceFolderWrapper.class);
@@ -59,6 +59,8 @@ import org.sonarsource.sonarlint.ls.notebooks.OpenNotebooksCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -240,6 +242,61 @@ class DiagnosticPublisherTests {
     assertThat(diagnostics.getValue().getDiagnostics()).hasSize(1);
   }
 
+  @Test
+  void shouldSkipPublicationWhenDiagnosticsDidNotChange() {
+    var uri = initWithOneSecretIssue();
+
+    underTest.publishDiagnostics(uri, true);
+    underTest.publishDiagnostics(uri, true);
+
+    verify(languageClient, times(1)).publishDiagnostics(any());
+  }
+
+  @Test
+  void shouldPublishAgainWhenDiagnosticsChanged() {
+    var uri = initWithOneSecretIssue();
+
+    underTest.publishDiagnostics(uri, true);
+    underTest.setFocusOnNewCode(true);
+    underTest.publishDiagnostics(uri, true);
+    issuesCache.clear(uri);
+    underTest.publishDiagnostics(uri, true);
+
+    var diagnostics = ArgumentCaptor.forClass(PublishDiagnosticsParams.class);
+    verify(languageClient, times(3)).publishDiagnostics(diagnostics.capture());
+    assertThat(diagnostics.getAllValues()).extracting(p -> p.getDiagnostics().size()).containsExactly(1, 1, 0);
+    assertThat(diagnostics.getAllValues().get(1).getDiagnostics().get(0).getSeverity()).isEqualTo(DiagnosticSeverity.Hint);
+  }
+
+  @Test
+  void shouldPublishAgainAfterConcurrentPublicationForTheSameFile() {
+    var uri = initWithOneSecretIssue();
+    doAnswer(invocation -> {
+      issuesCache.clear(uri);
+      underTest.publishDiagnostics(uri, true);
+      return null;
+    }).doNothing().when(languageClient).publishDiagnostics(any());
+
+    underTest.publishDiagnostics(uri, true);
+    underTest.publishDiagnostics(uri, true);
+
+    var diagnostics = ArgumentCaptor.forClass(PublishDiagnosticsParams.class);
+    verify(languageClient, times(3)).publishDiagnostics(diagnostics.capture());
+    assertThat(diagnostics.getAllValues()).extracting(p -> p.getDiagnostics().size()).containsExactly(1, 0, 0);
+  }
+
+  @Test
+  void shouldPublishAgainAfterForget() {
+    var uri = initWithOneSecretIssue();
+
+    underTest.publishDiagnostics(uri, false);
+    underTest.forget(uri);
+    underTest.publishDiagnostics(uri, false);
+
+    verify(languageClient, times(2)).publishDiagnostics(any());
+    verify(languageClient, times(2)).publishSecurityHotspots(any());
+  }
+
   @Test
   void setSeverityTest() {
     var diagnostic = new Diagnostic();
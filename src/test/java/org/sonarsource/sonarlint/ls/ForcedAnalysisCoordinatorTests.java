@@ -23,10 +23,12 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import org.eclipse.lsp4j.WorkspaceFolder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.analysis.ForceAnalyzeResponse;
 import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageServer.ServerMode;
 import org.sonarsource.sonarlint.ls.backend.BackendService;
 import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
@@ -40,7 +42,9 @@ import org.sonarsource.sonarlint.ls.notebooks.OpenNotebooksCache;
 import org.sonarsource.sonarlint.ls.settings.SettingsManager;
 import org.sonarsource.sonarlint.ls.settings.WorkspaceSettings;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -55,6 +59,7 @@ class ForcedAnalysisCoordinatorTests {
   private final BackendService backendService = mock(BackendService.class);
   private final WorkspaceFoldersManager workspaceFoldersManager = mock(WorkspaceFoldersManager.class);
   private final SettingsManager settingsManager = mock(SettingsManager.class);
+  private final AnalysisVersionTracker analysisVersionTracker = new AnalysisVersionTracker();
   URI workspaceFolderUri = URI.create("file:///my/workspace/folder");
 
   @BeforeEach
@@ -67,8 +72,9 @@ class ForcedAnalysisCoordinatorTests {
     openFilesCache = new OpenFilesCache(lsLogOutput);
     OpenNotebooksCache openNotebooksCache = new OpenNotebooksCache(lsLogOutput, mock(NotebookDiagnosticPublisher.class));
     underTest = new ForcedAnalysisCoordinator(workspaceFoldersManager, mock(ProjectBindingManager.class), openFilesCache,
-      openNotebooksCache, client, backendServiceFacade, settingsManager);
+      openNotebooksCache, client, backendServiceFacade, settingsManager, analysisVersionTracker, lsLogOutput);
     when(backendServiceFacade.getBackendService()).thenReturn(backendService);
+    when(backendService.analyzeFilesList(any(), any())).thenReturn(new CompletableFuture<>());
     when(workspaceFoldersManager.findFolderForFile(any())).thenReturn(Optional.of(new WorkspaceFolderWrapper(workspaceFolderUri,
       new WorkspaceFolder("file:///my/workspace/folder", "folder"), lsLogOutput)));
 
@@ -91,6 +97,27 @@ class ForcedAnalysisCoordinatorTests {
     verify(backendService).analyzeFilesList(workspaceFolderUri.toString(), List.of(file1Uri, file2Uri));
   }
 
+  @Test
+  void shouldRecordVersionsOfForcedAnalysis() {
+    when(settingsManager.getCurrentSettings())
+      .thenReturn(new WorkspaceSettings(true, Collections.emptyMap(), Collections.emptyList(), Collections.emptyList(), Collections.emptyMap(),
+        false, "", true, true, "", false));
+    var analysisId = UUID.randomUUID();
+    var response = mock(ForceAnalyzeResponse.class);
+    when(response.getAnalysisId()).thenReturn(analysisId);
+    when(backendService.analyzeFilesList(any(), any())).thenReturn(CompletableFuture.completedFuture(response));
+    URI file1Uri = URI.create("file://Foo1.java");
+    openFilesCache.didOpen(file1Uri, "java", "class Foo1 {}", 1);
+    analysisVersionTracker.didSendContent(file1Uri, 1);
+
+    underTest.didClasspathUpdate();
+    analysisVersionTracker.didSendContent(file1Uri, 2);
+
+    assertThat(analysisVersionTracker.accept(file1Uri, analysisId, false)).isTrue();
+    // An analysis that was never recorded is older than the forced one
+    assertThat(analysisVersionTracker.accept(file1Uri, UUID.randomUUID(), false)).isFalse();
+  }
+
   @Test
   void shouldScheduleAnalysisOfAllOpenJavaFilesWithoutIssueRefreshOnJavaServerModeChangeToStandard() {
     when(settingsManager.getCurrentSettings())
@@ -108,6 +135,24 @@ class ForcedAnalysisCoordinatorTests {
     verify(backendService).analyzeFilesList(workspaceFolderUri.toString(), List.of(file1Uri, file2Uri));
   }
 
+  @Test
+  void shouldScheduleAnalysisOfVisibleDocumentsFirst() {
+    when(settingsManager.getCurrentSettings())
+      .thenReturn(new WorkspaceSettings(true, Collections.emptyMap(), Collections.emptyList(), Collections.emptyList(), Collections.emptyMap(),
+        false, "", true, true, "", false));
+    URI file1Uri = URI.create("file://Foo1.java");
+    openFilesCache.didOpen(file1Uri, "java", "class Foo1 {}", 1);
+    URI file2Uri = URI.create("file://Foo2.java");
+    openFilesCache.didOpen(file2Uri, "java", "class Foo2 {}", 1);
+
+    underTest.didChangeVisibleDocuments(List.of(file2Uri), null);
+    underTest.didClasspathUpdate();
+
+    var inOrder = inOrder(backendService);
+    inOrder.verify(backendService).analyzeFilesList(workspaceFolderUri.toString(), List.of(file2Uri));
+    inOrder.verify(backendService).analyzeFilesList(workspaceFolderUri.toString(), List.of(file1Uri));
+  }
+
   @Test
   void shouldNotScheduleAnalysisOnJavaServerModeChangeOutToStandard() {
     openFilesCache.didOpen(URI.create("file://Foo1.java"), "java", "class Foo1 {}", 1);
@@ -0,0 +1,106 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.hotspot.HotspotStatus;
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.rules.VulnerabilityProbability;
+import org.sonarsource.sonarlint.core.rpc.protocol.client.hotspot.RaisedHotspotDto;
+import org.sonarsource.sonarlint.core.rpc.protocol.common.Either;
+import org.sonarsource.sonarlint.core.rpc.protocol.common.IssueSeverity;
+import org.sonarsource.sonarlint.core.rpc.protocol.common.RuleType;
+import org.sonarsource.sonarlint.core.rpc.protocol.common.StandardModeDetails;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotspotsCacheTest {
+  private static final URI FILE_URI = URI.create("file:///test.java");
+
+  private final HotspotsCache underTest = new HotspotsCache();
+
+  @Test
+  void shouldFindHotspotByServerKey() {
+    var hotspot = mockHotspot(UUID.randomUUID(), "serverKey");
+    underTest.reportHotspots(Map.of(FILE_URI, List.of(hotspot, mockHotspot(UUID.randomUUID(), null))));
+
+    var found = underTest.findHotspotPerId(FILE_URI.toString(), "serverKey");
+
+    assertThat(found).isPresent();
+    assertThat(found.get().getKey()).isEqualTo(hotspot.getId().toString());
+    assertThat(found.get().getValue()).isSameAs(hotspot);
+    assertThat(underTest.findHotspotPerId(FILE_URI.toString(), "unknown")).isEmpty();
+    assertThat(underTest.findHotspotPerId("file:///other.java", "serverKey")).isEmpty();
+  }
+
+  @Test
+  void shouldUpdateHotspotStatus() {
+    var hotspot = mockHotspot(UUID.randomUUID(), "serverKey");
+    underTest.reportHotspots(Map.of(FILE_URI, List.of(hotspot)));
+
+    underTest.updateHotspotStatus(FILE_URI.toString(), "serverKey", HotspotStatus.ACKNOWLEDGED);
+
+    var updated = underTest.get(FILE_URI).get(hotspot.getId().toString());
+    assertThat(updated.getReviewStatus()).isEqualTo(HotspotStatus.ACKNOWLEDGED);
+    assertThat(updated.getVulnerabilityProbability()).isEqualTo(VulnerabilityProbability.HIGH);
+    assertThat(underTest.findHotspotPerId(FILE_URI.toString(), "serverKey")).isPresent();
+  }
+
+  @Test
+  void shouldRemoveHotspotByServerKeyOrLocalId() {
+    var knownHotspot = mockHotspot(UUID.randomUUID(), "serverKey");
+    var localHotspot = mockHotspot(UUID.randomUUID(), null);
+    underTest.reportHotspots(Map.of(FILE_URI, List.of(knownHotspot, localHotspot)));
+
+    underTest.removeFindingWithServerKey(FILE_URI.toString(), "serverKey");
+    assertThat(underTest.get(FILE_URI)).containsOnlyKeys(localHotspot.getId().toString());
+    assertThat(underTest.findHotspotPerId(FILE_URI.toString(), "serverKey")).isEmpty();
+
+    underTest.removeFindingWithServerKey(FILE_URI.toString(), localHotspot.getId().toString());
+    assertThat(underTest.get(FILE_URI)).isEmpty();
+  }
+
+  @Test
+  void shouldForgetIndexOnClear() {
+    underTest.reportHotspots(Map.of(FILE_URI, List.of(mockHotspot(UUID.randomUUID(), "serverKey"))));
+
+    underTest.clear(FILE_URI);
+
+    assertThat(underTest.get(FILE_URI)).isEmpty();
+    assertThat(underTest.findHotspotPerId(FILE_URI.toString(), "serverKey")).isEmpty();
+  }
+
+  private static RaisedHotspotDto mockHotspot(UUID id, @Nullable String serverKey) {
+    var hotspot = mock(RaisedHotspotDto.class);
+    when(hotspot.getId()).thenReturn(id);
+    when(hotspot.getServerKey()).thenReturn(serverKey);
+    when(hotspot.getStatus()).thenReturn(HotspotStatus.TO_REVIEW);
+    when(hotspot.getVulnerabilityProbability()).thenReturn(VulnerabilityProbability.HIGH);
+    when(hotspot.getSeverityMode()).thenReturn(Either.forLeft(new StandardModeDetails(IssueSeverity.BLOCKER, RuleType.SECURITY_HOTSPOT)));
+    return hotspot;
+  }
+
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import javax.annotation.Nullable;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.sonarsource.sonarlint.core.rpc.protocol.client.issue.RaisedFindingDto;
@@ -32,7 +33,9 @@ import org.sonarsource.sonarlint.core.rpc.protocol.common.IssueSeverity;
 import org.sonarsource.sonarlint.core.rpc.protocol.common.RuleType;
 import org.sonarsource.sonarlint.core.rpc.protocol.common.StandardModeDetails;
 import org.sonarsource.sonarlint.ls.connected.DelegatingFinding;
+import org.sonarsource.sonarlint.ls.connected.DelegatingIssue;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -55,4 +58,72 @@ class IssuesCacheTest {
     Assertions.assertEquals(issue.getId(), foundIssue.get().getIssueId());
   }
 
-}
\ No newline at end of file
+  @Test
+  void shouldRemoveIssueByServerKeyOrLocalId() {
+    var issuesCache = new IssuesCache();
+    var fileUri = URI.create("file:///test.java");
+    var knownIssue = mockIssue(UUID.randomUUID(), "serverKey");
+    var localIssue = mockIssue(UUID.randomUUID(), null);
+    issuesCache.reportIssues(Map.of(fileUri, List.of(knownIssue, localIssue)));
+
+    issuesCache.removeFindingWithServerKey(fileUri.toString(), "serverKey");
+    assertThat(issuesCache.get(fileUri)).containsOnlyKeys(localIssue.getId().toString());
+
+    issuesCache.removeFindingWithServerKey(fileUri.toString(), localIssue.getId().toString());
+    assertThat(issuesCache.get(fileUri)).isEmpty();
+  }
+
+  @Test
+  void shouldNotRemoveIssueWithServerKeyOfPreviousReport() {
+    var issuesCache = new IssuesCache();
+    var fileUri = URI.create("file:///test.java");
+    issuesCache.reportIssues(Map.of(fileUri, List.of(mockIssue(UUID.randomUUID(), "serverKey"))));
+    var newIssue = mockIssue(UUID.randomUUID(), "otherServerKey");
+    issuesCache.reportIssues(Map.of(fileUri, List.of(newIssue)));
+
+    issuesCache.removeFindingWithServerKey(fileUri.toString(), "serverKey");
+
+    assertThat(issuesCache.get(fileUri)).containsOnlyKeys(newIssue.getId().toString());
+  }
+
+  @Test
+  void shouldMergeIntermediateIssuesUntilFinalReport() {
+    var issuesCache = new IssuesCache();
+    var fileUri = URI.create("file:///test.java");
+    var previousIssue = mockIssue(UUID.randomUUID(), null);
+    issuesCache.reportIssues(Map.of(fileUri, List.of(previousIssue)));
+    var firstIssue = mockIssue(UUID.randomUUID(), null);
+    var secondIssue = mockIssue(UUID.randomUUID(), null);
+
+    issuesCache.mergeIssues(Map.of(fileUri, List.of(firstIssue)));
+    issuesCache.mergeIssues(Map.of(fileUri, List.of(secondIssue)));
+    assertThat(issuesCache.get(fileUri)).containsOnlyKeys(previousIssue.getId().toString(), firstIssue.getId().toString(), secondIssue.getId().toString());
+
+    issuesCache.reportIssues(Map.of(fileUri, List.of(firstIssue, secondIssue)));
+    assertThat(issuesCache.get(fileUri)).containsOnlyKeys(firstIssue.getId().toString(), secondIssue.getId().toString());
+  }
+
+  @Test
+  void shouldExposeIssuesKeyedByLocalIdWithoutCopyingThem() {
+    var issuesCache = new IssuesCache();
+    var fileUri = URI.create("file:///test.java");
+    var issue = mockIssue(UUID.randomUUID(), "serverKey");
+    issuesCache.reportIssues(Map.of(fileUri, List.of(issue)));
+
+    var issues = issuesCache.get(fileUri);
+
+    assertThat(issues).hasSize(1).containsKey(issue.getId().toString()).doesNotContainKey("serverKey").doesNotContainKey("notAnId");
+    assertThat(((DelegatingIssue) issues.get(issue.getId().toString())).getIssue()).isSameAs(issue);
+    assertThat(issues.entrySet()).singleElement().satisfies(entry -> assertThat(entry.getKey()).isEqualTo(issue.getId().toString()));
+    assertThat(issuesCache.getIssueById(fileUri, "notAnId")).isEmpty();
+  }
+
+  private static RaisedFindingDto mockIssue(UUID id, @Nullable String serverKey) {
+    var issue = mock(RaisedFindingDto.class);
+    when(issue.getId()).thenReturn(id);
+    when(issue.getServerKey()).thenReturn(serverKey);
+    when(issue.getSeverityMode()).thenReturn(Either.forLeft(new StandardModeDetails(IssueSeverity.BLOCKER, RuleType.CODE_SMELL)));
+    return issue;
+  }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import testutils.SonarLintLogTester;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+import uk.org.webcompere.systemstubs.properties.SystemProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(SystemStubsExtension.class)
+class PrioritizedAnalysisSchedulerTests {
+  private static final URI FOLDER_URI = URI.create("file:///folder");
+  private static final URI OTHER_FOLDER_URI = URI.create("file:///other");
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  @SystemStub
+  private SystemProperties systemProperties;
+
+  private final List<Submission> submissions = new ArrayList<>();
+  private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+  private final PrioritizedAnalysisScheduler underTest = new PrioritizedAnalysisScheduler((folderUri, fileUris) -> submissions.add(new Submission(folderUri, fileUris)),
+    scheduler, logTester.getLogger(), 2, 1, 500);
+
+  @Test
+  void should_submit_visible_files_first() {
+    underTest.didChangeVisibleFiles(List.of(file(OTHER_FOLDER_URI, 1), file(FOLDER_URI, 2)), file(FOLDER_URI, 3));
+
+    underTest.schedule(filesPerFolder(
+      FOLDER_URI, List.of(file(FOLDER_URI, 1), file(FOLDER_URI, 2), file(FOLDER_URI, 3)),
+      OTHER_FOLDER_URI, List.of(file(OTHER_FOLDER_URI, 1), file(OTHER_FOLDER_URI, 2))));
+
+    assertThat(submissions).containsExactly(
+      new Submission(FOLDER_URI, List.of(file(FOLDER_URI, 3), file(FOLDER_URI, 2))),
+      new Submission(OTHER_FOLDER_URI, List.of(file(OTHER_FOLDER_URI, 1))),
+      new Submission(FOLDER_URI, List.of(file(FOLDER_URI, 1))));
+    assertThat(underTest.getPriorityFilesCount()).isEqualTo(3);
+    assertThat(underTest.getPendingBackgroundFilesCount()).isEqualTo(1);
+  }
+
+  @Test
+  void should_submit_background_files_in_bounded_batches() {
+    underTest.schedule(filesPerFolder(FOLDER_URI, List.of(file(FOLDER_URI, 1), file(FOLDER_URI, 2), file(FOLDER_URI, 3), file(FOLDER_URI, 4), file(FOLDER_URI, 5))));
+
+    assertThat(submissions).containsExactly(new Submission(FOLDER_URI, List.of(file(FOLDER_URI, 1), file(FOLDER_URI, 2))));
+    var drain = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler).schedule(drain.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+
+    drain.getValue().run();
+    drain.getValue().run();
+
+    assertThat(submissions).containsExactly(
+      new Submission(FOLDER_URI, List.of(file(FOLDER_URI, 1), file(FOLDER_URI, 2))),
+      new Submission(FOLDER_URI, List.of(file(FOLDER_URI, 3), file(FOLDER_URI, 4))),
+      new Submission(FOLDER_URI, List.of(file(FOLDER_URI, 5))));
+    assertThat(underTest.getBackgroundBatchesCount()).isEqualTo(3);
+    assertThat(underTest.getBackgroundFilesCount()).isEqualTo(5);
+    assertThat(underTest.getPendingBackgroundFilesCount()).isZero();
+    verify(scheduler, times(2)).schedule(any(Runnable.class), eq(500L), eq(TimeUnit.MILLISECONDS));
+    assertThat(logTester.logs()).anyMatch(log -> log.contains("Submitting 1 background analysis batch(es) of at most 2 files, 3 files pending"));
+  }
+
+  @Test
+  void should_promote_pending_files_that_become_visible() {
+    underTest.schedule(filesPerFolder(FOLDER_URI, List.of(file(FOLDER_URI, 1), file(FOLDER_URI, 2), file(FOLDER_URI, 3), file(FOLDER_URI, 4))));
+    submissions.clear();
+
+    underTest.didChangeVisibleFiles(List.of(file(FOLDER_URI, 4)), null);
+
+    assertThat(submissions).containsExactly(new Submission(FOLDER_URI, List.of(file(FOLDER_URI, 4))));
+    assertThat(underTest.getPendingBackgroundFilesCount()).isEqualTo(1);
+  }
+
+  @Test
+  void should_not_queue_pending_files_twice() {
+    underTest.schedule(filesPerFolder(FOLDER_URI, List.of(file(FOLDER_URI, 1), file(FOLDER_URI, 2), file(FOLDER_URI, 3), file(FOLDER_URI, 4))));
+
+    underTest.schedule(filesPerFolder(FOLDER_URI, List.of(file(FOLDER_URI, 3), file(FOLDER_URI, 4))));
+
+    assertThat(underTest.getPendingBackgroundFilesCount()).isEqualTo(2);
+  }
+
+  @Test
+  void should_read_batch_size_and_batches_per_interval_from_system_properties() {
+    systemProperties.set(PrioritizedAnalysisScheduler.BATCH_SIZE_PROPERTY_KEY, "25");
+    systemProperties.set(PrioritizedAnalysisScheduler.BATCHES_PER_INTERVAL_PROPERTY_KEY, "many");
+
+    var scheduler = new PrioritizedAnalysisScheduler((folderUri, fileUris) -> {
+    }, logTester.getLogger());
+
+    assertThat(scheduler.getBatchSize()).isEqualTo(25);
+    assertThat(scheduler.getBatchesPerInterval()).isEqualTo(PrioritizedAnalysisScheduler.DEFAULT_BATCHES_PER_INTERVAL);
+    assertThat(logTester.logs())
+      .anyMatch(log -> log.contains("Invalid value \"many\" for property " + PrioritizedAnalysisScheduler.BATCHES_PER_INTERVAL_PROPERTY_KEY + ", using default value 2"));
+    scheduler.shutdown();
+  }
+
+  private static URI file(URI folderUri, int index) {
+    return URI.create(folderUri + "/File" + index + ".java");
+  }
+
+  private static Map<URI, List<URI>> filesPerFolder(URI folderUri, List<URI> fileUris) {
+    return Map.of(folderUri, fileUris);
+  }
+
+  private static Map<URI, List<URI>> filesPerFolder(URI folderUri, List<URI> fileUris, URI otherFolderUri, List<URI> otherFileUris) {
+    var result = new LinkedHashMap<URI, List<URI>>();
+    result.put(folderUri, fileUris);
+    result.put(otherFolderUri, otherFileUris);
+    return result;
+  }
+
+  private record Submission(URI folderUri, List<URI> fileUris) {
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import testutils.SonarLintLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class PublicationThrottlerTests {
+  private static final URI FILE_URI = URI.create("file:///some/File.cpp");
+  private static final URI OTHER_FILE_URI = URI.create("file:///some/Other.cpp");
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final List<String> publications = new CopyOnWriteArrayList<>();
+
+  @AfterEach
+  void stop() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void should_publish_first_intermediate_results_immediately_and_last_one_at_end_of_frame() {
+    var underTest = new PublicationThrottler(scheduler, logTester.getLogger(), 300);
+
+    underTest.publishIntermediate(FILE_URI, () -> publications.add("1"));
+    underTest.publishIntermediate(FILE_URI, () -> publications.add("2"));
+    underTest.publishIntermediate(FILE_URI, () -> publications.add("3"));
+    assertThat(publications).containsExactly("1");
+
+    await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(publications).containsExactly("1", "3"));
+    assertThat(underTest.getPublishedCount()).isEqualTo(2);
+    assertThat(underTest.getSkippedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void should_publish_final_results_immediately_and_cancel_pending_frame() throws InterruptedException {
+    var underTest = new PublicationThrottler(scheduler, logTester.getLogger(), 200);
+
+    underTest.publishIntermediate(FILE_URI, () -> publications.add("1"));
+    underTest.publishIntermediate(FILE_URI, () -> publications.add("2"));
+    underTest.publishFinal(FILE_URI, () -> publications.add("final"));
+    Thread.sleep(400);
+
+    assertThat(publications).containsExactly("1", "final");
+  }
+
+  @Test
+  void should_cancel_pending_publication_and_reset_frame_of_closed_file() throws InterruptedException {
+    var underTest = new PublicationThrottler(scheduler, logTester.getLogger(), 200);
+
+    underTest.publishIntermediate(FILE_URI, () -> publications.add("1"));
+    underTest.publishIntermediate(FILE_URI, () -> publications.add("2"));
+    underTest.forget(FILE_URI);
+    Thread.sleep(400);
+
+    assertThat(publications).containsExactly("1");
+    assertThat(underTest.getSkippedCount()).isEqualTo(1);
+
+    underTest.publishIntermediate(FILE_URI, () -> publications.add("reopened"));
+    assertThat(publications).containsExactly("1", "reopened");
+  }
+
+  @Test
+  void should_rate_limit_each_file_independently() {
+    var underTest = new PublicationThrottler(scheduler, logTester.getLogger(), 10_000);
+
+    underTest.publishIntermediate(FILE_URI, () -> publications.add("file"));
+    underTest.publishIntermediate(OTHER_FILE_URI, () -> publications.add("other"));
+
+    assertThat(publications).containsExactly("file", "other");
+  }
+
+  @Test
+  void should_not_rate_limit_when_frame_interval_is_zero() {
+    var underTest = new PublicationThrottler(scheduler, logTester.getLogger(), 0);
+
+    underTest.publishIntermediate(FILE_URI, () -> publications.add("1"));
+    underTest.publishIntermediate(FILE_URI, () -> publications.add("2"));
+
+    assertThat(publications).containsExactly("1", "2");
+  }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.sonar.api.rule.RuleKey;
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.rules.ListAllStandaloneRulesDefinitionsResponse;
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.rules.RuleDefinitionDto;
+import org.sonarsource.sonarlint.core.rpc.protocol.common.Language;
+import org.sonarsource.sonarlint.ls.backend.BackendService;
+import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
+import org.sonarsource.sonarlint.ls.settings.WorkspaceSettings;
+import testutils.SonarLintLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StandaloneRulesCacheTests {
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  private final BackendService backendService = mock(BackendService.class);
+  private CompletableFuture<ListAllStandaloneRulesDefinitionsResponse> rulesDefinitions;
+  private StandaloneRulesCache underTest;
+
+  @BeforeEach
+  void prepare() {
+    var backendServiceFacade = mock(BackendServiceFacade.class);
+    when(backendServiceFacade.getBackendService()).thenReturn(backendService);
+    var response = mock(ListAllStandaloneRulesDefinitionsResponse.class);
+    when(response.getRulesByKey()).thenReturn(Map.of(
+      "java:S1", ruleDefinition("java:S1", Language.JAVA),
+      "java:S2", ruleDefinition("java:S2", Language.JAVA),
+      "Web:S3", ruleDefinition("Web:S3", Language.HTML)));
+    rulesDefinitions = CompletableFuture.completedFuture(response);
+    when(backendService.listAllStandaloneRulesDefinitions()).thenReturn(rulesDefinitions);
+    underTest = new StandaloneRulesCache(backendServiceFacade, logTester.getLogger());
+  }
+
+  @Test
+  void should_group_rules_by_language_only_once() {
+    var rulesByLanguage = underTest.getRulesByLanguage().join();
+
+    assertThat(rulesByLanguage).containsOnlyKeys("Java", "HTML");
+    assertThat(rulesByLanguage.get("Java")).extracting(Rule::getKey).containsExactlyInAnyOrder("java:S1", "java:S2");
+    assertThat(underTest.getRulesByLanguage().join()).isSameAs(rulesByLanguage);
+    verify(backendService, times(1)).listAllStandaloneRulesDefinitions();
+  }
+
+  @Test
+  void should_not_share_cancellation_between_requests() {
+    underTest.getRulesByLanguage().cancel(true);
+
+    assertThat(underTest.getRulesByLanguage().join()).containsOnlyKeys("Java", "HTML");
+  }
+
+  @Test
+  void should_list_rules_again_after_invalidation() {
+    underTest.getRulesByLanguage().join();
+
+    underTest.invalidate();
+    underTest.getRulesByLanguage().join();
+
+    verify(backendService, times(2)).listAllStandaloneRulesDefinitions();
+  }
+
+  @Test
+  void should_list_rules_again_after_failure() {
+    when(backendService.listAllStandaloneRulesDefinitions())
+      .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Backend not ready")))
+      .thenReturn(rulesDefinitions);
+
+    assertThat(underTest.getRulesByLanguage()).isCompletedExceptionally();
+    assertThat(logTester.logs()).anyMatch(log -> log.contains("Failed to list all standalone rules"));
+    assertThat(underTest.getRulesByLanguage().join()).containsOnlyKeys("Java", "HTML");
+  }
+
+  @Test
+  void should_only_invalidate_on_rules_configuration_change() {
+    underTest.onChange(null, settings(List.of()));
+    underTest.getRulesByLanguage().join();
+
+    underTest.onChange(settings(List.of()), settings(List.of()));
+    underTest.getRulesByLanguage().join();
+    verify(backendService, times(1)).listAllStandaloneRulesDefinitions();
+
+    underTest.onChange(settings(List.of()), settings(List.of(RuleKey.parse("java:S1"))));
+    underTest.getRulesByLanguage().join();
+    verify(backendService, times(2)).listAllStandaloneRulesDefinitions();
+  }
+
+  private static WorkspaceSettings settings(Collection<RuleKey> excludedRules) {
+    return new WorkspaceSettings(false, Map.of(), excludedRules, List.of(), Map.of(), false, "", false, true, "", false);
+  }
+
+  private static RuleDefinitionDto ruleDefinition(String key, Language language) {
+    var ruleDefinition = mock(RuleDefinitionDto.class);
+    when(ruleDefinition.getKey()).thenReturn(key);
+    when(ruleDefinition.getName()).thenReturn("Rule " + key);
+    when(ruleDefinition.getLanguage()).thenReturn(language);
+    return ruleDefinition;
+  }
+}
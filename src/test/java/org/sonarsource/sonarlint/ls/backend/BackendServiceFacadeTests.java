@@ -35,6 +35,7 @@ import uk.org.webcompere.systemstubs.properties.SystemProperties;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.sonarsource.sonarlint.ls.backend.BackendServiceFacade.MONITORING_ENABLED_PROPERTY_KEY;
 
@@ -228,4 +229,28 @@ class BackendServiceFacadeTests {
     assertThat(ideName).isEqualTo("Visual Studio Code");
   }
 
+  @Test
+  void shouldUsePipedTransportByDefault() {
+    var logger = mock(LanguageClientLogger.class);
+
+    assertThat(BackendTransport.fromSystemProperty(logger)).isEqualTo(BackendTransport.PIPED);
+  }
+
+  @Test
+  void shouldSelectInProcessTransportWithSystemProperty() {
+    systemProperties.set(BackendTransport.PROPERTY_KEY, "in_process");
+    var logger = mock(LanguageClientLogger.class);
+
+    assertThat(BackendTransport.fromSystemProperty(logger)).isEqualTo(BackendTransport.IN_PROCESS);
+  }
+
+  @Test
+  void shouldFallBackToPipedTransportWhenUnknown() {
+    systemProperties.set(BackendTransport.PROPERTY_KEY, "carrier_pigeon");
+    var logger = mock(LanguageClientLogger.class);
+
+    assertThat(BackendTransport.fromSystemProperty(logger)).isEqualTo(BackendTransport.PIPED);
+    verify(logger).warn("Unknown backend transport \"carrier_pigeon\", falling back to PIPED");
+  }
+
 }
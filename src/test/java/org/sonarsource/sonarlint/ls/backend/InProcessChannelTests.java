@@ -0,0 +1,79 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.backend;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InProcessChannelTests {
+
+  @Test
+  void should_hand_off_flushed_messages_to_reader() throws Exception {
+    var underTest = new InProcessChannel();
+
+    var writer = CompletableFuture.runAsync(() -> {
+      try {
+        for (var i = 0; i < 100; i++) {
+          underTest.output().write(("Content-Length: 5\r\n\r\n" + String.format("%05d", i)).getBytes(StandardCharsets.UTF_8));
+          underTest.output().flush();
+        }
+        underTest.output().close();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    var content = new String(underTest.input().readAllBytes(), StandardCharsets.UTF_8);
+    writer.get();
+
+    assertThat(content).startsWith("Content-Length: 5\r\n\r\n00000").endsWith("Content-Length: 5\r\n\r\n00099");
+    assertThat(content).hasSize(100 * 26);
+  }
+
+  @Test
+  void should_not_expose_data_before_flush() throws IOException {
+    var underTest = new InProcessChannel();
+
+    underTest.output().write(new byte[] {1, 2, 3});
+    assertThat(underTest.input().available()).isZero();
+
+    underTest.output().flush();
+    assertThat(underTest.input().read()).isEqualTo(1);
+    assertThat(underTest.input().available()).isEqualTo(2);
+  }
+
+  @Test
+  void should_reach_end_of_stream_when_output_is_closed() throws IOException {
+    var underTest = new InProcessChannel();
+
+    underTest.output().write(42);
+    underTest.output().close();
+
+    assertThat(underTest.input().read()).isEqualTo(42);
+    assertThat(underTest.input().read()).isEqualTo(-1);
+    assertThat(underTest.input().read(new byte[10], 0, 10)).isEqualTo(-1);
+    assertThatThrownBy(() -> underTest.output().write(1)).isInstanceOf(IOException.class);
+  }
+
+}
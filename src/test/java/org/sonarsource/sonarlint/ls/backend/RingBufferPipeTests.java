@@ -0,0 +1,183 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import testutils.SonarLintLogTester;
+import uk.org.webcompere.systemstubs.jupiter.SystemStub;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+import uk.org.webcompere.systemstubs.properties.SystemProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(SystemStubsExtension.class)
+class RingBufferPipeTests {
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  @SystemStub
+  private SystemProperties systemProperties;
+
+  @Test
+  void should_round_capacity_to_power_of_two() {
+    assertThat(new RingBufferPipe(1000).capacity()).isEqualTo(1024);
+    assertThat(new RingBufferPipe(4096).capacity()).isEqualTo(4096);
+    assertThatThrownBy(() -> new RingBufferPipe(0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void should_transfer_messages_larger_than_capacity() throws Exception {
+    var underTest = new RingBufferPipe(64);
+    var message = new byte[10_000];
+    for (var i = 0; i < message.length; i++) {
+      message[i] = (byte) i;
+    }
+
+    var writer = CompletableFuture.runAsync(() -> {
+      try {
+        // Odd sized writes to exercise wrap around
+        for (var offset = 0; offset < message.length; offset += 37) {
+          underTest.output().write(message, offset, Math.min(37, message.length - offset));
+        }
+        underTest.output().close();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    var received = new ByteArrayOutputStream();
+    var buffer = new byte[23];
+    int count;
+    while ((count = underTest.input().read(buffer, 0, buffer.length)) >= 0) {
+      received.write(buffer, 0, count);
+    }
+    writer.get(10, TimeUnit.SECONDS);
+
+    assertThat(Arrays.equals(received.toByteArray(), message)).isTrue();
+  }
+
+  @Test
+  void should_expose_written_bytes_without_flush() throws IOException {
+    var underTest = new RingBufferPipe(16);
+
+    underTest.output().write(new byte[] {1, 2, 3});
+
+    assertThat(underTest.input().available()).isEqualTo(3);
+    assertThat(underTest.input().read()).isEqualTo(1);
+    assertThat(underTest.input().available()).isEqualTo(2);
+  }
+
+  @Test
+  void should_allocate_buffer_on_first_write() throws IOException {
+    var underTest = new RingBufferPipe(16);
+
+    assertThat(underTest.input().available()).isZero();
+    assertThat(underTest.isAllocated()).isFalse();
+
+    underTest.output().write(1);
+
+    assertThat(underTest.isAllocated()).isTrue();
+    assertThat(underTest.input().read()).isEqualTo(1);
+  }
+
+  @Test
+  void should_wrap_around_single_byte_writes() throws IOException {
+    var underTest = new RingBufferPipe(4);
+
+    for (var i = 0; i < 10; i++) {
+      underTest.output().write(i);
+      assertThat(underTest.input().read()).isEqualTo(i);
+    }
+  }
+
+  @Test
+  void should_reach_end_of_stream_when_output_is_closed() throws IOException {
+    var underTest = new RingBufferPipe(16);
+
+    underTest.output().write(42);
+    underTest.output().close();
+
+    assertThat(underTest.input().read()).isEqualTo(42);
+    assertThat(underTest.input().read()).isEqualTo(-1);
+    assertThat(underTest.input().read(new byte[10], 0, 10)).isEqualTo(-1);
+    assertThatThrownBy(() -> underTest.output().write(1)).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void should_unblock_writer_when_input_is_closed() throws Exception {
+    var underTest = new RingBufferPipe(16);
+    var writer = CompletableFuture.runAsync(() -> {
+      try {
+        underTest.output().write(new byte[100]);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    underTest.input().close();
+
+    assertThatThrownBy(() -> writer.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void should_unblock_reader_when_output_is_closed() throws Exception {
+    var underTest = new RingBufferPipe(16);
+    var reader = CompletableFuture.supplyAsync(() -> {
+      try {
+        return underTest.input().read();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    underTest.output().close();
+
+    assertThat(reader.get(10, TimeUnit.SECONDS)).isEqualTo(-1);
+  }
+
+  @Test
+  void should_use_default_capacity() {
+    assertThat(RingBufferPipe.getCapacityFromSystemProperty(logTester.getLogger())).isEqualTo(RingBufferPipe.DEFAULT_CAPACITY_MIB * 1024 * 1024);
+  }
+
+  @Test
+  void should_read_capacity_from_system_property() {
+    systemProperties.set(RingBufferPipe.CAPACITY_PROPERTY_KEY, "16");
+
+    assertThat(RingBufferPipe.getCapacityFromSystemProperty(logTester.getLogger())).isEqualTo(16 * 1024 * 1024);
+  }
+
+  @Test
+  void should_ignore_invalid_capacity() {
+    systemProperties.set(RingBufferPipe.CAPACITY_PROPERTY_KEY, "lots");
+
+    assertThat(RingBufferPipe.getCapacityFromSystemProperty(logTester.getLogger())).isEqualTo(RingBufferPipe.DEFAULT_CAPACITY_MIB * 1024 * 1024);
+    assertThat(logTester.logs()).anyMatch(log -> log.contains("Invalid value \"lots\" for property " + RingBufferPipe.CAPACITY_PROPERTY_KEY));
+  }
+
+}
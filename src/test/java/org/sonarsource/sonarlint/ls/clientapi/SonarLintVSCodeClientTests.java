@@ -33,6 +33,7 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -111,6 +112,7 @@ import org.sonarsource.sonarlint.ls.SkippedPluginsNotifier;
 import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient;
 import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient.AssistCreatingConnectionResponse;
 import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient.CreateConnectionParams;
+import org.sonarsource.sonarlint.ls.StandaloneRulesCache;
 import org.sonarsource.sonarlint.ls.backend.BackendService;
 import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
 import org.sonarsource.sonarlint.ls.commands.ShowAllLocationsCommand;
@@ -174,6 +176,10 @@ class SonarLintVSCodeClientTests {
   SkippedPluginsNotifier skippedPluginsNotifier = mock(SkippedPluginsNotifier.class);
   @Captor
   ArgumentCaptor<ShowAllLocationsCommand.Param> paramCaptor;
+  @Captor
+  ArgumentCaptor<Collection<TaintIssue>> taintIssuesCaptor;
+  @Captor
+  ArgumentCaptor<Collection<DependencyRisk>> dependencyRisksCaptor;
   BackendServiceFacade backendServiceFacade = mock(BackendServiceFacade.class);
   TaintVulnerabilitiesCache taintVulnerabilitiesCache = mock(TaintVulnerabilitiesCache.class);
   DependencyRisksCache dependencyRisksCache = mock(DependencyRisksCache.class);
@@ -182,6 +188,7 @@ class SonarLintVSCodeClientTests {
   EmbeddedServerManager embeddedServerManager = mock(EmbeddedServerManager.class);
 
   AnalysisHelper analysisHelper = mock(AnalysisHelper.class);
+  StandaloneRulesCache standaloneRulesCache = mock(StandaloneRulesCache.class);
   WorkspaceFolderBranchManager branchManager = mock(WorkspaceFolderBranchManager.class);
 
   private static final String PEM = """
@@ -231,6 +238,7 @@ class SonarLintVSCodeClientTests {
     underTest.setBackendServiceFacade(backendServiceFacade);
     underTest.setDiagnosticPublisher(diagnosticPublisher);
     underTest.setAnalysisTaskExecutor(analysisHelper);
+    underTest.setStandaloneRulesCache(standaloneRulesCache);
     underTest.setBranchManager(branchManager);
     workspaceFolderPath = basedir.resolve("myWorkspaceFolder");
     Files.createDirectories(workspaceFolderPath);
@@ -775,15 +783,22 @@ class SonarLintVSCodeClientTests {
     var uuid2 = UUID.randomUUID();
     var uuid3 = UUID.randomUUID();
     var uuid4 = UUID.randomUUID();
-    when(taintVulnerabilitiesCache.getTaintVulnerabilitiesPerFile()).thenReturn(Map.of(filePath.toUri(),
-      List.of(getTaintIssue(uuid1), getTaintIssue(uuid2))));
+    var fileUri = URIUtils.getFullFileUriFromFragments(workspaceFolderPath.toUri().toString(), filePath);
+    when(taintVulnerabilitiesCache.removeTaintIssues(Set.of(uuid1))).thenReturn(Set.of(fileUri));
+    when(taintVulnerabilitiesCache.addAll(eq(fileUri), any())).thenReturn(Set.of(fileUri));
+    when(taintVulnerabilitiesCache.update(eq(fileUri), any())).thenReturn(Set.of(fileUri));
 
     underTest.didChangeTaintVulnerabilities(workspaceFolderPath.toUri().toString(), Set.of(uuid1),
       List.of(getTaintDto(uuid1), getTaintDto(uuid2)), List.of(getTaintDto(uuid3), getTaintDto(uuid4)));
 
-    verify(taintVulnerabilitiesCache, times(2)).reload(eq(workspaceFolderPath.toUri().resolve(filePath.toString())), any());
-    verify(taintVulnerabilitiesCache).removeTaintIssue(URIUtils.getFullFileUriFromFragments(workspaceFolderPath.toUri().toString(), filePath).toString(),
-      getTaintIssue(uuid1).getSonarServerKey());
+    verify(taintVulnerabilitiesCache).removeTaintIssues(Set.of(uuid1));
+    verify(taintVulnerabilitiesCache).addAll(eq(fileUri), taintIssuesCaptor.capture());
+    assertThat(taintIssuesCaptor.getValue()).extracting(TaintIssue::getId).containsExactly(uuid1, uuid2);
+    verify(taintVulnerabilitiesCache).update(eq(fileUri), taintIssuesCaptor.capture());
+    assertThat(taintIssuesCaptor.getValue()).extracting(TaintIssue::getId).containsExactly(uuid3, uuid4);
+    verify(taintVulnerabilitiesCache, never()).getTaintVulnerabilitiesPerFile();
+    // Diagnostics are published once per changed file
+    verify(diagnosticPublisher).publishTaints(fileUri);
   }
 
   @Test
@@ -1022,11 +1037,10 @@ class SonarLintVSCodeClientTests {
 
     underTest.didChangeDependencyRisks(configScopeId, Set.of(), List.of(addedRisk), List.of());
 
-    ArgumentCaptor<DependencyRisk> addedRiskCaptor = ArgumentCaptor.forClass(DependencyRisk.class);
     var configScopeUriCaptor = ArgumentCaptor.forClass(URI.class);
 
-    verify(dependencyRisksCache, times(1)).addDependencyRisk(configScopeUriCaptor.capture(), addedRiskCaptor.capture());
-    assertThat(addedRiskCaptor.getValue().getId()).isEqualTo(addedRiskId);
+    verify(dependencyRisksCache, times(1)).applyChanges(configScopeUriCaptor.capture(), eq(Set.of()), dependencyRisksCaptor.capture());
+    assertThat(dependencyRisksCaptor.getValue()).extracting(DependencyRisk::getId).containsExactly(addedRiskId);
     verify(diagnosticPublisher, times(1)).publishDependencyRisks(configScopeUriCaptor.getValue());
   }
 
@@ -1039,7 +1053,7 @@ class SonarLintVSCodeClientTests {
 
     underTest.didChangeDependencyRisks(configScopeId, Set.of(removedRiskId), List.of(), List.of());
 
-    verify(dependencyRisksCache, times(1)).removeDependencyRisk(configScopeId, removedRiskId.toString());
+    verify(dependencyRisksCache, times(1)).applyChanges(URI.create(configScopeId), Set.of(removedRiskId), List.of());
     verify(diagnosticPublisher, times(1)).publishDependencyRisks(URI.create(configScopeId));
     assertThat(dependencyRisksCache.getDependencyRisksPerConfigScope().get(URI.create(configScopeId))).isNull();
   }
@@ -1072,14 +1086,11 @@ class SonarLintVSCodeClientTests {
 
     underTest.didChangeDependencyRisks(configScopeId, Set.of(), List.of(), List.of(changedRisk1Dto, changedRisk2Dto));
 
-    var changedRiskCaptor = ArgumentCaptor.forClass(DependencyRisk.class);
     var configScopeUriCaptor = ArgumentCaptor.forClass(URI.class);
 
-    // first call from this test, two others from the actual cache update
-    verify(dependencyRisksCache, times(3)).addDependencyRisk(configScopeUriCaptor.capture(), changedRiskCaptor.capture());
-    var addedRisks = changedRiskCaptor.getAllValues();
-    assertThat(addedRisks.get(1).getId()).isEqualTo(changedRiskId1);
-    assertThat(addedRisks.get(2).getId()).isEqualTo(changedRiskId2);
+    // all changes are applied at once
+    verify(dependencyRisksCache, times(1)).applyChanges(configScopeUriCaptor.capture(), eq(Set.of()), dependencyRisksCaptor.capture());
+    assertThat(dependencyRisksCaptor.getValue()).extracting(DependencyRisk::getId).containsExactly(changedRiskId1, changedRiskId2);
     verify(diagnosticPublisher, times(1)).publishDependencyRisks(configScopeUriCaptor.getValue());
   }
 
@@ -1093,7 +1104,7 @@ class SonarLintVSCodeClientTests {
     underTest.raiseIssues(configScopeId, issuesByFileUri, false, analysisId);
     ArgumentCaptor<Map<URI, List<RaisedFindingDto>>> findingsPerFileCaptor = ArgumentCaptor.forClass(Map.class);
 
-    verify(analysisHelper, times(1)).handleIssues(findingsPerFileCaptor.capture());
+    verify(analysisHelper, times(1)).handleIssues(findingsPerFileCaptor.capture(), eq(false), eq(analysisId));
     assertThat(findingsPerFileCaptor.getValue().get(fileUri)).isNotNull();
     assertThat(findingsPerFileCaptor.getValue().get(fileUri)).hasSize(1);
   }
@@ -1218,6 +1229,7 @@ class SonarLintVSCodeClientTests {
     assertThat(argumentCaptor.getValue().getPluginStatuses().get(0).getState()).isEqualTo(PluginStateDto.ACTIVE);
     assertThat(argumentCaptor.getValue().getPluginStatuses().get(0).getSource()).isEqualTo(ArtifactSourceDto.EMBEDDED);
     assertThat(argumentCaptor.getValue().getPluginStatuses().get(0).getServerVersion()).isEqualTo("2025.1");
+    verify(standaloneRulesCache).invalidate();
   }
 
   private TaintVulnerabilityDto getTaintDto(UUID uuid) {
@@ -1228,14 +1240,6 @@ class SonarLintVSCodeClientTests {
       new TextRangeWithHashDto(5, 5, 5, 5, ""), "", true, false);
   }
 
-  private TaintIssue getTaintIssue(UUID uuid) {
-    return new TaintIssue(new TaintVulnerabilityDto(uuid, "serverKey", false, null, "ruleKey", "message",
-      Path.of("filePath"), Instant.EPOCH, org.sonarsource.sonarlint.core.rpc.protocol.common.Either
-      .forLeft(new StandardModeDetails(IssueSeverity.MAJOR, RuleType.BUG)),
-      List.of(),
-      new TextRangeWithHashDto(5, 5, 5, 5, ""), "", true, false), "folderUri", true);
-  }
-
   public class DummyCancelChecker implements CancelChecker {
     @Override
     public void checkCanceled() {
@@ -33,6 +33,7 @@ import org.sonarsource.sonarlint.core.rpc.protocol.common.TextRangeDto;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class DelegatingIssueTests {
@@ -112,4 +113,18 @@ class DelegatingIssueTests {
   void testGetTextRange() {
     assertThat(delegatingFinding.getTextRange()).isNotNull().isEqualTo(issue.getTextRange());
   }
+
+  @Test
+  void should_read_the_finding_instead_of_copying_it() {
+    var finding = mock(RaisedFindingDto.class);
+
+    var delegatingIssue = new DelegatingIssue(finding, URI.create("file:///myFile.py"));
+
+    // Many findings are retained in large workspaces, they should not copy the state of their DTO
+    verifyNoInteractions(finding);
+    when(finding.getPrimaryMessage()).thenReturn("read on demand");
+    assertThat(delegatingIssue.getMessage()).isEqualTo("read on demand");
+    assertThat(delegatingIssue.getIssue()).isSameAs(finding);
+    assertThat(delegatingIssue.getFinding()).isSameAs(finding);
+  }
 }
@@ -22,7 +22,13 @@ package org.sonarsource.sonarlint.ls.connected;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.Test;
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.tracking.DependencyRiskDto;
 import org.sonarsource.sonarlint.ls.DiagnosticPublisher;
@@ -122,7 +128,7 @@ class DependencyRisksCacheTests {
     when(issue.getPackageVersion()).thenReturn("1.0.0");
     when(issue.getSource()).thenReturn(SONARQUBE_SERVER_SOURCE);
 
-    underTest.getDependencyRisksPerConfigScope().put(uri, new ArrayList<>(List.of(issue)));
+    underTest.putAll(uri, new ArrayList<>(List.of(issue)));
     assertThat(underTest.getDependencyRiskById(issueId.toString())).hasValue(issue);
 
     underTest.removeDependencyRisk(uri.toString(), issueId.toString());
@@ -214,6 +220,119 @@ class DependencyRisksCacheTests {
       "SAFE", "CONFIRM", "ACCEPT");
   }
 
+  @Test
+  void should_apply_closed_and_updated_dependency_risks_at_once() {
+    var uri = URI.create("file:///folder");
+    var closedRisk = openRisk(uri);
+    var updatedRisk = openRisk(uri);
+    var untouchedRisk = openRisk(uri);
+    underTest.putAll(uri, List.of(closedRisk, updatedRisk, untouchedRisk));
+    var snapshotBeforeChanges = underTest.getDependencyRisksPerConfigScope().get(uri);
+
+    var newVersionOfUpdatedRisk = openRisk(uri, updatedRisk.getId());
+    var addedRisk = openRisk(uri);
+    underTest.applyChanges(uri, Set.of(closedRisk.getId()), List.of(newVersionOfUpdatedRisk, addedRisk));
+
+    assertThat(underTest.getDependencyRisksPerConfigScope().get(uri)).containsExactly(untouchedRisk, newVersionOfUpdatedRisk, addedRisk);
+    assertThat(snapshotBeforeChanges).containsExactly(closedRisk, updatedRisk, untouchedRisk);
+    assertThat(underTest.getDependencyRiskById(closedRisk.getId().toString())).isEmpty();
+    assertThat(underTest.getDependencyRiskById(updatedRisk.getId().toString())).containsSame(newVersionOfUpdatedRisk);
+    assertThat(underTest.getDependencyRiskById(addedRisk.getId().toString())).containsSame(addedRisk);
+  }
+
+  @Test
+  void should_not_create_snapshot_when_only_closing_risks_of_unknown_scope() {
+    var uri = URI.create("file:///folder");
+
+    underTest.applyChanges(uri, Set.of(UUID.randomUUID()), List.of());
+
+    assertThat(underTest.getDependencyRisksPerConfigScope()).isEmpty();
+  }
+
+  @Test
+  void should_unindex_dependency_risks_of_cleared_scope() {
+    var uri = URI.create("file:///folder");
+    var risk = openRisk(uri);
+    underTest.putAll(uri, List.of(risk));
+
+    underTest.clear(uri);
+
+    assertThat(underTest.getDependencyRiskById(risk.getId().toString())).isEmpty();
+  }
+
+  @Test
+  void should_keep_snapshots_and_index_consistent_under_concurrent_changes() throws Exception {
+    var folders = List.of(URI.create("file:///folder1"), URI.create("file:///folder2"));
+    var writerCount = 4;
+    var changesPerWriter = 200;
+    var risksPerWriter = new ArrayList<List<DependencyRisk>>();
+    for (var writer = 0; writer < writerCount; writer++) {
+      var risks = new ArrayList<DependencyRisk>();
+      for (var change = 0; change < changesPerWriter; change++) {
+        // consecutive risks go by pairs in the same folder
+        risks.add(openRisk(folders.get((change / 2) % folders.size())));
+      }
+      risksPerWriter.add(risks);
+    }
+    var executor = Executors.newFixedThreadPool(writerCount + 2);
+    try {
+      var start = new CountDownLatch(1);
+      var writersDone = new AtomicBoolean();
+      var writers = new ArrayList<Future<?>>();
+      for (var risks : risksPerWriter) {
+        writers.add(executor.submit(() -> {
+          start.await();
+          for (var i = 0; i < risks.size(); i++) {
+            var risk = risks.get(i);
+            var folderUri = URI.create(risk.getWorkspaceFolderUri());
+            underTest.addDependencyRisk(folderUri, risk);
+            assertThat(underTest.getDependencyRiskById(risk.getId().toString())).containsSame(risk);
+            if (i % 2 == 1) {
+              // close every other risk, together with an update of the previous one
+              underTest.applyChanges(folderUri, Set.of(risk.getId()), List.of(risks.get(i - 1)));
+            }
+          }
+          return null;
+        }));
+      }
+      var readers = new ArrayList<Future<?>>();
+      for (var reader = 0; reader < 2; reader++) {
+        readers.add(executor.submit(() -> {
+          start.await();
+          while (!writersDone.get()) {
+            for (var folderUri : folders) {
+              assertThat(underTest.getAsDiagnostics(folderUri)).allMatch(diagnostic -> diagnostic.getMessage().startsWith("package-"));
+              underTest.getDependencyRisksPerConfigScope().getOrDefault(folderUri, List.of())
+                .forEach(risk -> assertThat(risk.getWorkspaceFolderUri()).isEqualTo(folderUri.toString()));
+            }
+          }
+          return null;
+        }));
+      }
+
+      start.countDown();
+      for (var writer : writers) {
+        writer.get(30, TimeUnit.SECONDS);
+      }
+      writersDone.set(true);
+      for (var reader : readers) {
+        reader.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    var expectedRisks = risksPerWriter.stream()
+      .flatMap(risks -> risks.stream().filter(risk -> risks.indexOf(risk) % 2 == 0))
+      .toList();
+    var cachedRisks = underTest.getDependencyRisksPerConfigScope().values().stream().flatMap(List::stream).toList();
+    assertThat(cachedRisks).containsExactlyInAnyOrderElementsOf(expectedRisks);
+    expectedRisks.forEach(risk -> assertThat(underTest.getDependencyRiskById(risk.getId().toString())).containsSame(risk));
+    risksPerWriter.stream()
+      .flatMap(risks -> risks.stream().filter(risk -> risks.indexOf(risk) % 2 == 1))
+      .forEach(risk -> assertThat(underTest.getDependencyRiskById(risk.getId().toString())).isEmpty());
+  }
+
   @Test
   void should_return_empty_list_for_non_existent_dependency_risk() {
     var risk = mock(DependencyRisk.class);
@@ -224,4 +343,19 @@ class DependencyRisksCacheTests {
     assertThat(transitions).isEmpty();
   }
 
+  private static DependencyRisk openRisk(URI folderUri) {
+    return openRisk(folderUri, UUID.randomUUID());
+  }
+
+  private static DependencyRisk openRisk(URI folderUri, UUID id) {
+    var dto = mock(DependencyRiskDto.class);
+    when(dto.getId()).thenReturn(id);
+    when(dto.getType()).thenReturn(DependencyRiskDto.Type.VULNERABILITY);
+    when(dto.getSeverity()).thenReturn(DependencyRiskDto.Severity.HIGH);
+    when(dto.getStatus()).thenReturn(DependencyRiskDto.Status.OPEN);
+    when(dto.getPackageName()).thenReturn("package-" + id);
+    when(dto.getPackageVersion()).thenReturn("1.0.0");
+    return new DependencyRisk(dto, folderUri.toString());
+  }
+
 }
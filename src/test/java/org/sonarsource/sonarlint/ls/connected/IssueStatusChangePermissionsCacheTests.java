@@ -0,0 +1,132 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.issue.CheckStatusChangePermittedParams;
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.issue.CheckStatusChangePermittedResponse;
+import org.sonarsource.sonarlint.ls.backend.BackendService;
+import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
+import testutils.SonarLintLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IssueStatusChangePermissionsCacheTests {
+
+  private static final URI FILE_URI = URI.create("file:///project/Foo.java");
+  private static final String CONNECTION_ID = "connectionId";
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  private final BackendService backendService = mock(BackendService.class);
+  private final ProjectBindingManager bindingManager = mock(ProjectBindingManager.class);
+  private final AtomicLong currentTime = new AtomicLong();
+  private IssueStatusChangePermissionsCache underTest;
+
+  @BeforeEach
+  void prepare() {
+    var backendServiceFacade = mock(BackendServiceFacade.class);
+    when(backendServiceFacade.getBackendService()).thenReturn(backendService);
+    when(bindingManager.getBindingIfExists(FILE_URI)).thenReturn(Optional.of(new ProjectBinding(CONNECTION_ID, "projectKey")));
+    underTest = new IssueStatusChangePermissionsCache(backendServiceFacade, bindingManager, logTester.getLogger(), currentTime::get, Duration.ofMinutes(1));
+  }
+
+  @Test
+  void should_check_permission_in_background_and_keep_result() {
+    var response = new CompletableFuture<CheckStatusChangePermittedResponse>();
+    when(backendService.checkChangeIssueStatusPermitted(any())).thenReturn(response);
+
+    assertThat(underTest.getIfAvailable(CONNECTION_ID, "issueKey")).isEmpty();
+    response.complete(new CheckStatusChangePermittedResponse(true, null, List.of()));
+
+    assertThat(underTest.getIfAvailable(CONNECTION_ID, "issueKey")).contains(true);
+    verify(backendService, times(1)).checkChangeIssueStatusPermitted(any());
+  }
+
+  @Test
+  void should_check_permission_again_after_expiration() {
+    when(backendService.checkChangeIssueStatusPermitted(any())).thenReturn(CompletableFuture.completedFuture(new CheckStatusChangePermittedResponse(false, null, List.of())));
+
+    assertThat(underTest.getIfAvailable(CONNECTION_ID, "issueKey")).contains(false);
+    currentTime.addAndGet(Duration.ofMinutes(1).toMillis());
+    assertThat(underTest.getIfAvailable(CONNECTION_ID, "issueKey")).contains(false);
+
+    verify(backendService, times(2)).checkChangeIssueStatusPermitted(any());
+  }
+
+  @Test
+  void should_not_keep_failed_checks() {
+    when(backendService.checkChangeIssueStatusPermitted(any()))
+      .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Server unreachable")))
+      .thenReturn(CompletableFuture.completedFuture(new CheckStatusChangePermittedResponse(true, null, List.of())));
+
+    assertThat(underTest.getIfAvailable(CONNECTION_ID, "issueKey")).isEmpty();
+    assertThat(underTest.getIfAvailable(CONNECTION_ID, "issueKey")).contains(true);
+  }
+
+  @Test
+  void should_warm_up_permissions_of_issues_of_bound_file() {
+    when(backendService.checkChangeIssueStatusPermitted(any())).thenReturn(CompletableFuture.completedFuture(new CheckStatusChangePermittedResponse(true, null, List.of())));
+    var localIssue = mock(DelegatingFinding.class);
+    var localIssueId = UUID.randomUUID();
+    when(localIssue.getIssueId()).thenReturn(localIssueId);
+    var serverIssue = mock(DelegatingFinding.class);
+    when(serverIssue.getIssueId()).thenReturn(UUID.randomUUID());
+    when(serverIssue.getServerIssueKey()).thenReturn("serverKey");
+
+    underTest.warmUp(FILE_URI, List.of(localIssue, serverIssue));
+    underTest.warmUp(URI.create("file:///unbound/Bar.java"), List.of(localIssue));
+
+    assertThat(underTest.getIfAvailable(CONNECTION_ID, "serverKey")).contains(true);
+    var paramsCaptor = ArgumentCaptor.forClass(CheckStatusChangePermittedParams.class);
+    verify(backendService, times(2)).checkChangeIssueStatusPermitted(paramsCaptor.capture());
+    assertThat(paramsCaptor.getAllValues())
+      .extracting(CheckStatusChangePermittedParams::getConnectionId, CheckStatusChangePermittedParams::getIssueKey)
+      .containsExactlyInAnyOrder(tuple(CONNECTION_ID, localIssueId.toString()), tuple(CONNECTION_ID, "serverKey"));
+  }
+
+  @Test
+  void should_forget_permissions_of_connection_on_credentials_change() {
+    when(backendService.checkChangeIssueStatusPermitted(any())).thenReturn(CompletableFuture.completedFuture(new CheckStatusChangePermittedResponse(true, null, List.of())));
+    underTest.getIfAvailable(CONNECTION_ID, "issueKey");
+
+    underTest.didChangeCredentials(CONNECTION_ID);
+    underTest.getIfAvailable(CONNECTION_ID, "issueKey");
+
+    verify(backendService, times(2)).checkChangeIssueStatusPermitted(any());
+  }
+}
@@ -23,6 +23,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 import org.eclipse.lsp4j.DiagnosticSeverity;
@@ -40,6 +41,7 @@ import org.sonarsource.sonarlint.ls.DiagnosticPublisher;
 import org.sonarsource.sonarlint.ls.domain.TaintIssue;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.sonarsource.sonarlint.ls.connected.TaintVulnerabilitiesCache.convert;
@@ -146,13 +148,80 @@ class TaintVulnerabilitiesCacheTests {
     when(issue.isResolved()).thenReturn(false);
     when(issue.getSonarServerKey()).thenReturn("serverIssueKey");
 
-    underTest.getTaintVulnerabilitiesPerFile().put(uri, new ArrayList<>(Arrays.asList(issue)));
+    underTest.reload(uri, new ArrayList<>(Arrays.asList(issue)));
     assertThat(underTest.getTaintVulnerabilityByKey("serverIssueKey")).hasValue(issue);
 
     underTest.removeTaintIssue(uri.toString(), issueId.toString());
     assertThat(underTest.getTaintVulnerabilityByKey("serverIssueKey")).isEmpty();
+    assertThat(underTest.getTaintVulnerabilitiesPerFile().get(uri)).isEmpty();
+  }
+
+  @Test
+  void shouldReplaceTaintVulnerabilityWithSameIdWhenAdded() {
+    var file1 = URI.create("file:///file1");
+    var file2 = URI.create("file:///file2");
+    var id = UUID.randomUUID();
+    var taint = mockTaint(id, "serverIssueKey", false);
+    var otherTaint = mockTaint(UUID.randomUUID(), "otherServerIssueKey", false);
+    underTest.reload(file1, List.of(taint, otherTaint));
+
+    var movedTaint = mockTaint(id, "serverIssueKey", false);
+    var changedFiles = underTest.addAll(file2, List.of(movedTaint));
+
+    assertThat(changedFiles).containsOnly(file1, file2);
+    assertThat(underTest.getTaintVulnerabilitiesPerFile()).containsOnly(
+      entry(file1, List.of(otherTaint)),
+      entry(file2, List.of(movedTaint)));
+    assertThat(underTest.getTaintVulnerabilityByKey("serverIssueKey")).hasValue(movedTaint);
+  }
+
+  @Test
+  void shouldRemoveResolvedTaintVulnerabilitiesWhenUpdated() {
+    var uri = URI.create("file:///file");
+    var id = UUID.randomUUID();
+    underTest.reload(uri, List.of(mockTaint(id, "serverIssueKey", false)));
 
+    var changedFiles = underTest.update(uri, List.of(mockTaint(id, "serverIssueKey", true)));
 
+    assertThat(changedFiles).containsOnly(uri);
+    assertThat(underTest.getTaintVulnerabilitiesPerFile().get(uri)).isEmpty();
+    assertThat(underTest.getTaintVulnerabilityByKey("serverIssueKey")).isEmpty();
+  }
+
+  @Test
+  void shouldOnlyReportFilesOfClosedTaintVulnerabilitiesAsChanged() {
+    var file1 = URI.create("file:///file1");
+    var file2 = URI.create("file:///file2");
+    var closedId = UUID.randomUUID();
+    var remainingTaint = mockTaint(UUID.randomUUID(), "remainingKey", false);
+    underTest.reload(file1, List.of(mockTaint(closedId, "closedKey", false), remainingTaint));
+    underTest.reload(file2, List.of(mockTaint(UUID.randomUUID(), "otherKey", false)));
+
+    var changedFiles = underTest.removeTaintIssues(Set.of(closedId, UUID.randomUUID()));
+
+    assertThat(changedFiles).containsOnly(file1);
+    assertThat(underTest.getTaintVulnerabilitiesPerFile().get(file1)).containsOnly(remainingTaint);
+    assertThat(underTest.getTaintVulnerabilityByKey("closedKey")).isEmpty();
+    assertThat(underTest.getTaintVulnerabilityByKey("otherKey")).isPresent();
+  }
+
+  @Test
+  void shouldUnindexTaintVulnerabilitiesOfClearedFile() {
+    var uri = URI.create("file:///file");
+    underTest.reload(uri, List.of(mockTaint(UUID.randomUUID(), "serverIssueKey", false)));
+
+    underTest.clear(uri);
+
+    assertThat(underTest.getTaintVulnerabilitiesPerFile()).isEmpty();
+    assertThat(underTest.getTaintVulnerabilityByKey("serverIssueKey")).isEmpty();
+  }
+
+  private static TaintIssue mockTaint(UUID id, String serverKey, boolean resolved) {
+    var taint = mock(TaintIssue.class);
+    when(taint.getId()).thenReturn(id);
+    when(taint.getSonarServerKey()).thenReturn(serverKey);
+    when(taint.isResolved()).thenReturn(resolved);
+    return taint;
   }
 
   private static Stream<Arguments> testIssueConversionParameters() {
@@ -0,0 +1,140 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.file;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import testutils.SonarLintLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class IdleOpenFilesCompressorTests {
+  private static final URI FILE_URI = URI.create("file:///some/generated.py");
+  private static final URI OTHER_FILE_URI = URI.create("file:///some/other.py");
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+  private final OpenFilesCache openFilesCache = new OpenFilesCache(logTester.getLogger());
+
+  @Test
+  void should_compress_idle_file_and_decompress_it_on_next_access() {
+    var content = largeContent();
+    openFilesCache.didOpen(FILE_URI, "python", content, 1);
+    var underTest = new IdleOpenFilesCompressor(openFilesCache, scheduler, logTester.getLogger(), 0);
+
+    underTest.compressIdleFiles();
+
+    var file = openFilesCache.getFile(FILE_URI).get();
+    assertThat(file.isContentCompressed()).isTrue();
+    assertThat(underTest.getCompressedCount()).isEqualTo(1);
+    assertThat(underTest.getSavedBytes()).isPositive().isLessThan(content.length());
+    assertThat(logTester.logs()).anyMatch(log -> log.contains("Compressed content of 1 idle files"));
+
+    assertThat(file.getContent()).isEqualTo(content);
+    assertThat(file.isContentCompressed()).isFalse();
+    assertThat(underTest.getRehydratedCount()).isEqualTo(1);
+    assertThat(underTest.getSavedBytes()).isZero();
+    assertThat(logTester.logs()).anyMatch(log -> log.contains("Decompressed content of idle file \"" + FILE_URI + "\""));
+  }
+
+  @Test
+  void should_apply_incremental_changes_on_compressed_content() {
+    var content = largeContent();
+    openFilesCache.didOpen(FILE_URI, "python", content, 1);
+    new IdleOpenFilesCompressor(openFilesCache, scheduler, logTester.getLogger(), 0).compressIdleFiles();
+
+    openFilesCache.didChange(FILE_URI, List.of(new TextDocumentContentChangeEvent(new Range(new Position(0, 0), new Position(0, 3)), "def")), 2);
+
+    assertThat(openFilesCache.getFile(FILE_URI).get().getContent()).isEqualTo("def" + content.substring(3));
+  }
+
+  @Test
+  void should_not_compress_small_or_recently_accessed_files() {
+    openFilesCache.didOpen(FILE_URI, "python", largeContent(), 1);
+    openFilesCache.didOpen(OTHER_FILE_URI, "python", "x = 1\n", 1);
+    var underTest = new IdleOpenFilesCompressor(openFilesCache, scheduler, logTester.getLogger(), TimeUnit.HOURS.toMillis(1));
+
+    underTest.compressIdleFiles();
+
+    assertThat(openFilesCache.getAll()).noneMatch(VersionedOpenFile::isContentCompressed);
+    new IdleOpenFilesCompressor(openFilesCache, scheduler, logTester.getLogger(), 0).compressIdleFiles();
+    assertThat(openFilesCache.getFile(OTHER_FILE_URI).get().isContentCompressed()).isFalse();
+  }
+
+  @Test
+  void should_not_compress_content_that_would_not_survive_the_round_trip() {
+    // Unpaired surrogates can't be encoded in UTF-8
+    var content = largeContent() + "\uD800";
+    openFilesCache.didOpen(FILE_URI, "python", content, 1);
+
+    new IdleOpenFilesCompressor(openFilesCache, scheduler, logTester.getLogger(), 0).compressIdleFiles();
+
+    var file = openFilesCache.getFile(FILE_URI).get();
+    assertThat(file.isContentCompressed()).isFalse();
+    assertThat(file.getContent()).isEqualTo(content);
+  }
+
+  @Test
+  void should_schedule_compression_of_idle_files() {
+    new IdleOpenFilesCompressor(openFilesCache, scheduler, logTester.getLogger(), 1000);
+
+    verify(scheduler).scheduleWithFixedDelay(any(), eq(1000L), eq(1000L), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void should_not_schedule_compression_when_disabled() {
+    new IdleOpenFilesCompressor(openFilesCache, scheduler, logTester.getLogger(), 0);
+
+    verifyNoInteractions(scheduler);
+  }
+
+  @Test
+  void should_use_default_idle_delay_when_property_is_invalid() {
+    System.setProperty(IdleOpenFilesCompressor.IDLE_DELAY_PROPERTY_KEY, "not a number");
+    try {
+      assertThat(IdleOpenFilesCompressor.getIdleDelayMs(logTester.getLogger())).isEqualTo(IdleOpenFilesCompressor.DEFAULT_IDLE_DELAY_MS);
+      assertThat(logTester.logs()).anyMatch(log -> log.contains("Invalid value \"not a number\""));
+    } finally {
+      System.clearProperty(IdleOpenFilesCompressor.IDLE_DELAY_PROPERTY_KEY);
+    }
+  }
+
+  private static String largeContent() {
+    var content = new StringBuilder();
+    for (var i = 0; content.length() < 4 * OpenFileContent.MIN_COMPRESSED_LENGTH; i++) {
+      content.append("value_").append(i).append(" = compute(").append(i).append(")\n");
+    }
+    return content.toString();
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.file;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import testutils.ImmediateExecutorService;
+import testutils.SonarLintLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class OpenFileUpdatesCoalescerTests {
+  private static final URI FILE_URI = URI.create("file:///some/file.py");
+  private static final URI OTHER_FILE_URI = URI.create("file:///some/other.py");
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  private final List<VersionedOpenFile> forwarded = new CopyOnWriteArrayList<>();
+  private OpenFileUpdatesCoalescer underTest;
+
+  @AfterEach
+  void stop() {
+    underTest.shutdown();
+  }
+
+  @Test
+  void should_only_forward_latest_version_after_quiet_period() {
+    underTest = newCoalescer(200);
+
+    underTest.didChange(file(FILE_URI, 1));
+    underTest.didChange(file(FILE_URI, 2));
+    underTest.didChange(file(FILE_URI, 3));
+
+    await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(forwarded).extracting(VersionedOpenFile::getVersion).containsExactly(3));
+    assertThat(underTest.getForwardedCount()).isEqualTo(1);
+    assertThat(underTest.getCoalescedCount()).isEqualTo(1);
+    assertThat(underTest.getDroppedCount()).isEqualTo(2);
+  }
+
+  @Test
+  void should_coalesce_per_file() {
+    underTest = newCoalescer(200);
+
+    underTest.didChange(file(FILE_URI, 1));
+    underTest.didChange(file(OTHER_FILE_URI, 1));
+
+    await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(forwarded).extracting(VersionedOpenFile::getUri)
+      .containsExactlyInAnyOrder(FILE_URI, OTHER_FILE_URI));
+    assertThat(underTest.getCoalescedCount()).isZero();
+    assertThat(underTest.getDroppedCount()).isZero();
+  }
+
+  @Test
+  void should_drop_pending_update_on_close() throws InterruptedException {
+    underTest = newCoalescer(100);
+
+    underTest.didChange(file(FILE_URI, 1));
+    underTest.didClose(FILE_URI);
+    Thread.sleep(300);
+
+    assertThat(forwarded).isEmpty();
+    assertThat(underTest.getDroppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void should_forward_immediately_when_quiet_period_is_zero() {
+    underTest = newCoalescer(0);
+
+    underTest.didChange(file(FILE_URI, 1));
+    underTest.didChange(file(FILE_URI, 2));
+
+    assertThat(forwarded).extracting(VersionedOpenFile::getVersion).containsExactly(1, 2);
+    assertThat(underTest.getForwardedCount()).isEqualTo(2);
+  }
+
+  @Test
+  void should_only_materialize_forwarded_version() {
+    underTest = newCoalescer(200);
+    var materialized = new AtomicInteger();
+
+    underTest.didChange(FILE_URI, () -> file(FILE_URI, materialized.incrementAndGet()));
+    underTest.didChange(FILE_URI, () -> file(FILE_URI, materialized.incrementAndGet()));
+    underTest.didChange(FILE_URI, () -> file(FILE_URI, materialized.incrementAndGet()));
+
+    await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(forwarded).hasSize(1));
+    assertThat(materialized).hasValue(1);
+    assertThat(underTest.getDroppedCount()).isEqualTo(2);
+  }
+
+  @Test
+  void should_use_default_quiet_period_when_property_is_invalid() {
+    underTest = newCoalescer(0);
+    System.setProperty(OpenFileUpdatesCoalescer.QUIET_PERIOD_PROPERTY_KEY, "not a number");
+    try {
+      assertThat(OpenFileUpdatesCoalescer.getQuietPeriodMs(logTester.getLogger())).isEqualTo(OpenFileUpdatesCoalescer.DEFAULT_QUIET_PERIOD_MS);
+      assertThat(logTester.logs()).anyMatch(log -> log.contains("Invalid value \"not a number\""));
+    } finally {
+      System.clearProperty(OpenFileUpdatesCoalescer.QUIET_PERIOD_PROPERTY_KEY);
+    }
+  }
+
+  private OpenFileUpdatesCoalescer newCoalescer(long quietPeriodMs) {
+    return new OpenFileUpdatesCoalescer(forwarded::add, Executors.newSingleThreadScheduledExecutor(), new ImmediateExecutorService(), logTester.getLogger(),
+      quietPeriodMs);
+  }
+
+  private static VersionedOpenFile file(URI uri, int version) {
+    return new VersionedOpenFile(uri, "python", version, "content v" + version);
+  }
+
+}
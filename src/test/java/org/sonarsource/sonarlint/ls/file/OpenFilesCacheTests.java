@@ -0,0 +1,82 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.file;
+
+import java.net.URI;
+import java.util.List;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import testutils.SonarLintLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenFilesCacheTests {
+  private static final URI FILE_URI = URI.create("file:///some/file.py");
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  private final OpenFilesCache underTest = new OpenFilesCache(logTester.getLogger());
+
+  @Test
+  void should_apply_incremental_changes_in_order() {
+    underTest.didOpen(FILE_URI, "python", "def foo():\n  toto = 0\n", 1);
+
+    underTest.didChange(FILE_URI, List.of(
+      new TextDocumentContentChangeEvent(new Range(new Position(1, 2), new Position(1, 6)), "tata"),
+      new TextDocumentContentChangeEvent(new Range(new Position(2, 0), new Position(2, 0)), "  plouf = 0\n")), 2);
+
+    var file = underTest.getFile(FILE_URI).get();
+    assertThat(file.getVersion()).isEqualTo(2);
+    assertThat(file.getLanguageId()).isEqualTo("python");
+    assertThat(file.getContent()).isEqualTo("def foo():\n  tata = 0\n  plouf = 0\n");
+  }
+
+  @Test
+  void should_replace_content_on_full_change() {
+    underTest.didOpen(FILE_URI, "python", "def foo():\n  toto = 0\n", 1);
+
+    underTest.didChange(FILE_URI, List.of(new TextDocumentContentChangeEvent("def bar():\n  pass\n")), 2);
+
+    assertThat(underTest.getFile(FILE_URI).get().getContent()).isEqualTo("def bar():\n  pass\n");
+  }
+
+  @Test
+  void should_keep_previous_version_unchanged() {
+    var previous = underTest.didOpen(FILE_URI, "python", "abc", 1);
+
+    underTest.didChange(FILE_URI, List.of(new TextDocumentContentChangeEvent(new Range(new Position(0, 1), new Position(0, 2)), "")), 2);
+
+    assertThat(previous.getContent()).isEqualTo("abc");
+    assertThat(underTest.getFile(FILE_URI).get().getContent()).isEqualTo("ac");
+  }
+
+  @Test
+  void should_warn_when_changing_file_not_open() {
+    underTest.didChange(FILE_URI, List.of(new TextDocumentContentChangeEvent("content")), 2);
+
+    assertThat(underTest.getFile(FILE_URI)).isEmpty();
+    assertThat(logTester.logs()).anyMatch(log -> log.contains("is reported changed but we missed the open notification"));
+  }
+
+}
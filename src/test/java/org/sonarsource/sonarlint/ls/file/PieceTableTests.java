@@ -0,0 +1,173 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.file;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PieceTableTests {
+
+  @Test
+  void should_return_initial_text() {
+    var underTest = PieceTable.of("line1\nline2\n");
+
+    assertThat(underTest.getText()).isEqualTo("line1\nline2\n");
+    assertThat(underTest.length()).isEqualTo(12);
+    assertThat(underTest.pieceCount()).isEqualTo(1);
+  }
+
+  @Test
+  void should_insert_text_in_the_middle_of_a_line() {
+    var underTest = PieceTable.of("line1\nline2\nline3")
+      .replace(1, 2, 1, 2, "XX");
+
+    assertThat(underTest.getText()).isEqualTo("line1\nliXXne2\nline3");
+    assertThat(underTest.length()).isEqualTo(19);
+  }
+
+  @Test
+  void should_delete_text_across_lines() {
+    var underTest = PieceTable.of("line1\nline2\nline3")
+      .replace(0, 3, 2, 1, "");
+
+    assertThat(underTest.getText()).isEqualTo("linine3");
+  }
+
+  @Test
+  void should_count_lines_after_edits() {
+    var underTest = PieceTable.of("line1\nline2\nline3");
+    assertThat(underTest.lineCount()).isEqualTo(3);
+    assertThat(underTest.replace(0, 3, 2, 1, "").lineCount()).isEqualTo(1);
+    assertThat(underTest.replace(2, 5, 2, 5, "\n\n").lineCount()).isEqualTo(5);
+    assertThat(PieceTable.of("").lineCount()).isEqualTo(1);
+  }
+
+  @Test
+  void should_count_crlf_and_cr_line_breaks() {
+    var underTest = PieceTable.of("line1\r\nline2\rline3\nline4\r");
+
+    assertThat(underTest.lineCount()).isEqualTo(5);
+    assertThat(underTest.offsetAt(1, 0)).isEqualTo(7);
+    assertThat(underTest.offsetAt(2, 0)).isEqualTo(13);
+    assertThat(underTest.offsetAt(4, 0)).isEqualTo(25);
+    assertThat(PieceTable.of("\r\n\r\n").lineCount()).isEqualTo(3);
+  }
+
+  @Test
+  void should_clamp_positions_before_crlf() {
+    var underTest = PieceTable.of("ab\r\ncd\r\n")
+      .replace(0, 10, 0, 10, "X")
+      .replace(1, 10, 1, 10, "Y");
+
+    assertThat(underTest.getText()).isEqualTo("abX\r\ncdY\r\n");
+    assertThat(underTest.lineCount()).isEqualTo(3);
+    assertThat(underTest.replace(1, 1, 1, 10, "Z").getText()).isEqualTo("abX\r\ncZ\r\n");
+  }
+
+  @Test
+  void should_edit_lines_of_crlf_document() {
+    var underTest = PieceTable.of("def foo():\r\n  toto = 0\r\n")
+      .replace(1, 2, 1, 6, "tata")
+      .replace(2, 0, 2, 0, "  plouf = 0\r\n")
+      .replace(0, 10, 1, 0, "");
+
+    assertThat(underTest.getText()).isEqualTo("def foo():  tata = 0\r\n  plouf = 0\r\n");
+    assertThat(underTest.lineCount()).isEqualTo(3);
+  }
+
+  @Test
+  void should_count_line_feed_once_when_carriage_return_is_removed() {
+    var underTest = PieceTable.of("ab\r\ncd").replace(2, 3, "");
+
+    assertThat(underTest.getText()).isEqualTo("ab\ncd");
+    assertThat(underTest.lineCount()).isEqualTo(2);
+    assertThat(underTest.offsetAt(0, 10)).isEqualTo(2);
+    assertThat(underTest.offsetAt(1, 0)).isEqualTo(3);
+  }
+
+  @Test
+  void should_flatten_when_crlf_is_split_or_joined_across_pieces() {
+    var split = PieceTable.of("ab\r\ncd").replace(3, 3, "X");
+    assertThat(split.getText()).isEqualTo("ab\rX\ncd");
+    assertThat(split.pieceCount()).isEqualTo(1);
+    assertThat(split.lineCount()).isEqualTo(3);
+
+    var lineFeedRemoved = PieceTable.of("ab\r\ncd").replace(3, 4, "");
+    assertThat(lineFeedRemoved.getText()).isEqualTo("ab\rcd");
+    assertThat(lineFeedRemoved.lineCount()).isEqualTo(2);
+    assertThat(lineFeedRemoved.offsetAt(1, 0)).isEqualTo(3);
+
+    var joined = PieceTable.of("ab\r").replace(3, 3, "\ncd");
+    assertThat(joined.getText()).isEqualTo("ab\r\ncd");
+    assertThat(joined.pieceCount()).isEqualTo(1);
+    assertThat(joined.lineCount()).isEqualTo(2);
+    assertThat(joined.offsetAt(0, 10)).isEqualTo(2);
+  }
+
+  @Test
+  void should_replace_text_and_apply_following_changes_on_the_result() {
+    var underTest = PieceTable.of("def foo():\n  toto = 0\n")
+      .replace(1, 2, 1, 6, "tata")
+      .replace(2, 0, 2, 0, "  plouf = 0\n")
+      .replace(0, 4, 0, 7, "bar");
+
+    assertThat(underTest.getText()).isEqualTo("def bar():\n  tata = 0\n  plouf = 0\n");
+  }
+
+  @Test
+  void should_append_at_the_end_of_the_document() {
+    var underTest = PieceTable.of("")
+      .replace(0, 0, 0, 0, "a\n")
+      .replace(1, 0, 1, 0, "b");
+
+    assertThat(underTest.getText()).isEqualTo("a\nb");
+  }
+
+  @Test
+  void should_clamp_positions_out_of_bounds() {
+    var underTest = PieceTable.of("ab\ncd")
+      .replace(0, 10, 0, 10, "X")
+      .replace(5, 0, 5, 0, "Y");
+
+    assertThat(underTest.getText()).isEqualTo("abX\ncdY");
+  }
+
+  @Test
+  void should_not_copy_pieces_for_empty_edits() {
+    var original = PieceTable.of("abc");
+
+    assertThat(original.replace(0, 1, 0, 1, "")).isSameAs(original);
+  }
+
+  @Test
+  void should_flatten_when_too_many_pieces() {
+    var underTest = PieceTable.of("x\n".repeat(PieceTable.MAX_PIECES));
+    var expected = new StringBuilder(underTest.getText());
+    for (var i = 0; i < PieceTable.MAX_PIECES; i++) {
+      underTest = underTest.replace(i, 1, i, 1, "y");
+      expected.insert(i * 3 + 1, 'y');
+    }
+
+    assertThat(underTest.pieceCount()).isLessThan(PieceTable.MAX_PIECES);
+    assertThat(underTest.getText()).isEqualTo(expected.toString());
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.folders;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static java.net.URI.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FolderPathTrieTests {
+
+  @Test
+  void should_find_deepest_enclosing_folder() {
+    var underTest = FolderPathTrie.of(Map.of(
+      create("file:///foo"), "foo",
+      create("file:///foo/bar"), "bar",
+      create("file:///foo/bar/baz/"), "baz"));
+
+    assertThat(underTest.findDeepest(create("file:///foo"))).isEqualTo(new FolderPathTrie.Entry<>("foo", false));
+    assertThat(underTest.findDeepest(create("file:///foo/bar.txt"))).isEqualTo(new FolderPathTrie.Entry<>("foo", false));
+    assertThat(underTest.findDeepest(create("file:///foo/bar/File.java"))).isEqualTo(new FolderPathTrie.Entry<>("bar", true));
+    assertThat(underTest.findDeepest(create("file:///foo/bar/baz/qux/File.java"))).isEqualTo(new FolderPathTrie.Entry<>("baz", true));
+    assertThat(underTest.findDeepest(create("file:///foo/bar2/File.java"))).isEqualTo(new FolderPathTrie.Entry<>("foo", false));
+    assertThat(underTest.findDeepest(create("file:///fo/File.java"))).isNull();
+  }
+
+  @Test
+  void should_ignore_empty_segments() {
+    var underTest = FolderPathTrie.of(Map.of(create("file:///foo/bar/"), "bar"));
+
+    assertThat(underTest.findDeepest(create("file:///foo//bar/File.java"))).extracting(FolderPathTrie.Entry::value).isEqualTo("bar");
+    assertThat(underTest.findDeepest(create("file:///foo/bar"))).extracting(FolderPathTrie.Entry::value).isEqualTo("bar");
+  }
+
+  @Test
+  void should_match_scheme_host_and_port() {
+    var underTest = FolderPathTrie.of(Map.of(
+      create("ftp://ftp.example.com/foo"), "ftp",
+      create("file://laptop:8080/My%20Documents"), "laptop"));
+
+    assertThat(underTest.findDeepest(create("FTP://ftp.example.com/foo/bar.txt"))).extracting(FolderPathTrie.Entry::value).isEqualTo("ftp");
+    assertThat(underTest.findDeepest(create("file:///foo/bar.txt"))).isNull();
+    assertThat(underTest.findDeepest(create("ftp://other.example.com/foo/bar.txt"))).isNull();
+    assertThat(underTest.findDeepest(create("file://laptop:8080/My%20Documents/FileSchemeURIs.doc"))).extracting(FolderPathTrie.Entry::value).isEqualTo("laptop");
+    assertThat(underTest.findDeepest(create("file://laptop:8081/My%20Documents/FileSchemeURIs.doc"))).isNull();
+  }
+
+  @Test
+  void should_match_root_folder() {
+    var underTest = FolderPathTrie.of(Map.of(create("file:///"), "root"));
+
+    assertThat(underTest.findDeepest(create("file:///foo/bar.txt"))).extracting(FolderPathTrie.Entry::value).isEqualTo("root");
+  }
+
+  @Test
+  void should_find_folder_among_many_siblings() {
+    var folders = new LinkedHashMap<URI, Integer>();
+    for (var i = 0; i < 100; i++) {
+      folders.put(create("file:///workspace/project" + i), i);
+    }
+    var underTest = FolderPathTrie.of(folders);
+
+    for (var i = 0; i < 100; i++) {
+      assertThat(underTest.findDeepest(create("file:///workspace/project" + i + "/src/File.java"))).extracting(FolderPathTrie.Entry::value).isEqualTo(i);
+    }
+    assertThat(underTest.findDeepest(create("file:///workspace/project100/src/File.java"))).isNull();
+  }
+
+  @Test
+  void should_reject_opaque_uris() {
+    var underTest = FolderPathTrie.of(Map.of(create("file:///foo"), "foo"));
+
+    assertThatThrownBy(() -> underTest.findDeepest(create("mailto:a@b.com"))).isInstanceOf(IllegalArgumentException.class);
+    assertThat(FolderPathTrie.empty().findDeepest(create("mailto:a@b.com"))).isNull();
+  }
+
+}
@@ -24,9 +24,13 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.eclipse.lsp4j.FileChangeType;
 import org.eclipse.lsp4j.FileEvent;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -38,13 +42,23 @@ import org.sonarsource.sonarlint.core.rpc.protocol.common.Language;
 import org.sonarsource.sonarlint.ls.backend.BackendService;
 import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
 import org.sonarsource.sonarlint.ls.file.FileTypeClassifier;
+import org.sonarsource.sonarlint.ls.file.OpenFilesCache;
 import org.sonarsource.sonarlint.ls.file.VersionedOpenFile;
 import org.sonarsource.sonarlint.ls.java.JavaConfigCache;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
 import org.sonarsource.sonarlint.ls.settings.SettingsManager;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class ModuleEventsProcessorTest {
@@ -54,10 +68,18 @@ class ModuleEventsProcessorTest {
   JavaConfigCache javaConfigCache = mock(JavaConfigCache.class);
   BackendServiceFacade backendServiceFacade = mock(BackendServiceFacade.class);
   SettingsManager settingsManager = mock(SettingsManager.class);
+  LanguageClientLogger lsLogOutput = mock(LanguageClientLogger.class);
+  OpenFilesCache openFilesCache = new OpenFilesCache(lsLogOutput);
 
   @BeforeEach
   void setUp() {
-    moduleEventsProcessor = new ModuleEventsProcessor(workspaceFoldersManager, fileTypeClassifier, javaConfigCache, backendServiceFacade, settingsManager);
+    moduleEventsProcessor = new ModuleEventsProcessor(workspaceFoldersManager, fileTypeClassifier, javaConfigCache, openFilesCache, backendServiceFacade, settingsManager,
+      lsLogOutput);
+  }
+
+  @AfterEach
+  void tearDown() {
+    moduleEventsProcessor.shutdown();
   }
 
   @Test
@@ -111,7 +133,7 @@ class ModuleEventsProcessorTest {
     var addedFilesCaptor = ArgumentCaptor.forClass(List.class);
     var changedFilesCaptor = ArgumentCaptor.forClass(List.class);
 
-    verify(backend).updateFileSystem(addedFilesCaptor.capture(), changedFilesCaptor.capture(), deletedFilesCaptor.capture());
+    verify(backend, timeout(5000)).updateFileSystem(addedFilesCaptor.capture(), changedFilesCaptor.capture(), deletedFilesCaptor.capture());
     assertThat(addedFilesCaptor.getValue()).hasSize(1);
     assertThat(((ClientFileDto) addedFilesCaptor.getValue().get(0)).getUri()).hasToString("file:///tmp/test1.py");
     assertThat(changedFilesCaptor.getValue()).hasSize(1);
@@ -120,6 +142,106 @@ class ModuleEventsProcessorTest {
     assertThat(deletedFilesCaptor.getValue().get(0)).hasToString("file:///tmp/test3.py");
   }
 
+  @Test
+  void should_coalesce_watched_files_events_to_their_net_effect() {
+    var backend = mock(BackendService.class);
+    when(backendServiceFacade.getBackendService()).thenReturn(backend);
+    var scheduler = mock(ScheduledExecutorService.class);
+    var underTest = new ModuleEventsProcessor(workspaceFoldersManager, fileTypeClassifier, javaConfigCache, openFilesCache, backendServiceFacade, settingsManager,
+      lsLogOutput, scheduler, 200, 1000);
+
+    underTest.didChangeWatchedFiles(List.of(
+      new FileEvent("file:///tmp/created.py", FileChangeType.Created),
+      new FileEvent("file:///tmp/transient.py", FileChangeType.Created),
+      new FileEvent("file:///tmp/replaced.py", FileChangeType.Deleted),
+      new FileEvent("file:///tmp/removed.py", FileChangeType.Changed)));
+    underTest.didChangeWatchedFiles(List.of(
+      new FileEvent("file:///tmp/created.py", FileChangeType.Changed),
+      new FileEvent("file:///tmp/transient.py", FileChangeType.Deleted),
+      new FileEvent("file:///tmp/replaced.py", FileChangeType.Created),
+      new FileEvent("file:///tmp/removed.py", FileChangeType.Deleted)));
+
+    var flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler).schedule(flushCaptor.capture(), eq(200L), eq(TimeUnit.MILLISECONDS));
+    verifyNoInteractions(backend);
+
+    flushCaptor.getValue().run();
+
+    var addedFilesCaptor = ArgumentCaptor.forClass(List.class);
+    var changedFilesCaptor = ArgumentCaptor.forClass(List.class);
+    var deletedFilesCaptor = ArgumentCaptor.forClass(List.class);
+    verify(backend).updateFileSystem(addedFilesCaptor.capture(), changedFilesCaptor.capture(), deletedFilesCaptor.capture());
+    assertThat(addedFilesCaptor.getValue()).extracting(f -> ((ClientFileDto) f).getUri().toString()).containsExactly("file:///tmp/created.py");
+    assertThat(changedFilesCaptor.getValue()).extracting(f -> ((ClientFileDto) f).getUri().toString()).containsExactly("file:///tmp/replaced.py");
+    assertThat(deletedFilesCaptor.getValue()).extracting(Object::toString).containsExactly("file:///tmp/removed.py");
+  }
+
+  @Test
+  void should_send_watched_files_events_in_bounded_chunks() {
+    var backend = mock(BackendService.class);
+    when(backendServiceFacade.getBackendService()).thenReturn(backend);
+    var scheduler = mock(ScheduledExecutorService.class);
+    var underTest = new ModuleEventsProcessor(workspaceFoldersManager, fileTypeClassifier, javaConfigCache, openFilesCache, backendServiceFacade, settingsManager,
+      lsLogOutput, scheduler, 200, 2);
+
+    underTest.didChangeWatchedFiles(IntStream.range(0, 5)
+      .mapToObj(i -> new FileEvent("file:///tmp/deleted" + i + ".py", FileChangeType.Deleted))
+      .toList());
+
+    var flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler).schedule(flushCaptor.capture(), eq(200L), eq(TimeUnit.MILLISECONDS));
+    flushCaptor.getValue().run();
+
+    var deletedFilesCaptor = ArgumentCaptor.forClass(List.class);
+    verify(backend, times(3)).updateFileSystem(eq(List.of()), eq(List.of()), deletedFilesCaptor.capture());
+    assertThat(deletedFilesCaptor.getAllValues()).extracting(List::size).containsExactly(2, 2, 1);
+  }
+
+  @Test
+  void should_discard_pending_watched_file_event_when_file_is_opened() {
+    var backend = mock(BackendService.class);
+    when(backendServiceFacade.getBackendService()).thenReturn(backend);
+    var scheduler = mock(ScheduledExecutorService.class);
+    var underTest = new ModuleEventsProcessor(workspaceFoldersManager, fileTypeClassifier, javaConfigCache, openFilesCache, backendServiceFacade, settingsManager,
+      lsLogOutput, scheduler, 200, 1000);
+    var fileUri = URI.create("file:///tmp/test.py");
+
+    underTest.didChangeWatchedFiles(List.of(new FileEvent(fileUri.toString(), FileChangeType.Created)));
+    underTest.notifyBackendWithFileLanguageAndContent(new VersionedOpenFile(fileUri, "python", 1, "print('Hello')"));
+
+    var flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler).schedule(flushCaptor.capture(), eq(200L), eq(TimeUnit.MILLISECONDS));
+    flushCaptor.getValue().run();
+
+    verify(backend, times(1)).updateFileSystem(anyList(), anyList(), anyList());
+  }
+
+  @Test
+  void should_not_send_watched_file_event_of_file_opened_while_converting_events() {
+    var backend = mock(BackendService.class);
+    when(backendServiceFacade.getBackendService()).thenReturn(backend);
+    var scheduler = mock(ScheduledExecutorService.class);
+    var underTest = new ModuleEventsProcessor(workspaceFoldersManager, fileTypeClassifier, javaConfigCache, openFilesCache, backendServiceFacade, settingsManager,
+      lsLogOutput, scheduler, 200, 1000);
+    var openedFileUri = URI.create("file:///tmp/opened.py");
+    var alreadyOpenFileUri = URI.create("file:///tmp/alreadyOpen.py");
+    openFilesCache.didOpen(alreadyOpenFileUri, "python", "print('Hello')", 1);
+    when(fileTypeClassifier.isTest(any(), eq(openedFileUri), anyBoolean(), any())).thenAnswer(invocation -> {
+      underTest.notifyBackendWithFileLanguageAndContent(openFilesCache.didOpen(openedFileUri, "python", "print('Hello')", 1));
+      return false;
+    }).thenReturn(false);
+
+    underTest.didChangeWatchedFiles(List.of(
+      new FileEvent(openedFileUri.toString(), FileChangeType.Changed),
+      new FileEvent(alreadyOpenFileUri.toString(), FileChangeType.Changed)));
+    var flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler).schedule(flushCaptor.capture(), eq(200L), eq(TimeUnit.MILLISECONDS));
+    flushCaptor.getValue().run();
+
+    verify(backend, times(1)).updateFileSystem(anyList(), anyList(), anyList());
+    verify(fileTypeClassifier, never()).isTest(any(), eq(alreadyOpenFileUri), anyBoolean(), any());
+  }
+
   @ParameterizedTest(name = "Should detect {0} as {1}")
   @MethodSource("provideParametersForLanguageDetection")
   void shouldDetectLanguage(String clientLanguageId, Language expected) {
@@ -29,8 +29,6 @@ import org.eclipse.lsp4j.WorkspaceFolder;
 import org.eclipse.lsp4j.WorkspaceFoldersChangeEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.condition.EnabledOnOs;
-import org.junit.jupiter.api.condition.OS;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.config.binding.BindingConfigurationDto;
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.config.scope.ConfigurationScopeDto;
@@ -41,13 +39,10 @@ import org.sonarsource.sonarlint.ls.connected.ProjectBinding;
 import testutils.ImmediateExecutorService;
 import testutils.SonarLintLogTester;
 
-import static java.net.URI.create;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
-import static org.sonarsource.sonarlint.ls.folders.WorkspaceFoldersManager.isAncestor;
 
 class WorkspaceFoldersManagerTests {
 
@@ -115,48 +110,27 @@ class WorkspaceFoldersManagerTests {
   }
 
   @Test
-  void initialize_does_not_crash_when_no_folders() {
-    underTest.initialize(null);
+  void findFolderForFile_falls_back_to_enclosing_folder_when_nested_one_is_removed() {
+    var basedir = Paths.get("path/to/base").toAbsolutePath();
+    var subFolder = basedir.resolve("sub");
+    var file = subFolder.resolve("file.java").toUri();
+    var subWorkspaceFolder = mockWorkspaceFolder(subFolder.toUri());
+    underTest.initialize(List.of(mockWorkspaceFolder(basedir.toUri())));
 
-    assertThat(underTest.getAll()).isEmpty();
-  }
+    underTest.didChangeWorkspaceFolders(new WorkspaceFoldersChangeEvent(List.of(subWorkspaceFolder), Collections.emptyList()));
+    assertThat(underTest.findFolderForFile(file)).isPresent()
+      .get().extracting(WorkspaceFolderWrapper::getRootPath).isEqualTo(subFolder);
 
-  @Test
-  void testURIAncestor() {
-    assertThat(isAncestor(create("file:///foo"), create("file:///foo"))).isTrue();
-    assertThat(isAncestor(create("file:///foo"), create("file:///foo/bar.txt"))).isTrue();
-    assertThat(isAncestor(create("file:///foo/bar"), create("file:///foo/bar.txt"))).isFalse();
-    assertThat(isAncestor(create("file:///foo/bar"), create("file:///foo/bar2"))).isFalse();
-
-    // Non file scheme
-    assertThat(isAncestor(create("ftp://ftp.example.com/foo"), create("ftp://ftp.example.com/foo"))).isTrue();
-    assertThat(isAncestor(create("ftp://ftp.example.com/foo"), create("ftp://ftp.example.com/foo/bar.txt"))).isTrue();
-    assertThat(isAncestor(create("ftp://ftp.example.com/foo/bar"), create("ftp://ftp.example.com/foo/bar.txt"))).isFalse();
-    assertThat(isAncestor(create("ftp://ftp.example.com/foo/bar"), create("ftp://ftp.example.com/foo/bar2"))).isFalse();
-    assertThat(isAncestor(create("ftp://ftp.example.com/foo/bar"), create("ftp://ftp.example.com/bar.txt"))).isFalse();
-
-    // Windows
-    assertThat(isAncestor(create("file:///C:/Documents%20and%20Settings/davris"), create("file:///C:/Documents%20and%20Settings/davris/FileSchemeURIs.doc"))).isTrue();
-
-    // Corner cases
-    // Not the same scheme
-    assertThat(isAncestor(create("ftp:///foo"), create("file:///foo"))).isFalse();
-    // Not the same host
-    assertThat(isAncestor(create("file://laptop/My%20Documents"), create("file://laptop2/My%20Documents/FileSchemeURIs.doc"))).isFalse();
-    // Not the same port
-    assertThat(isAncestor(create("file://laptop:8080/My%20Documents"), create("file://laptop:8081/My%20Documents/FileSchemeURIs.doc"))).isFalse();
-    // Opaque
-    URI emailUri = create("mailto:a@b.com");
-    URI fileUri = create("file:///foo");
-    assertThrows(IllegalArgumentException.class, () -> isAncestor(emailUri, fileUri));
-    assertThrows(IllegalArgumentException.class, () -> isAncestor(fileUri, emailUri));
+    underTest.didChangeWorkspaceFolders(new WorkspaceFoldersChangeEvent(Collections.emptyList(), List.of(subWorkspaceFolder)));
+    assertThat(underTest.findFolderForFile(file)).isPresent()
+      .get().extracting(WorkspaceFolderWrapper::getRootPath).isEqualTo(basedir);
   }
 
   @Test
-  @EnabledOnOs(OS.WINDOWS)
-    // Fail on Linux with IllegalArgumentException: URI has an authority component
-  void testURIAncestor_UNC_path() {
-    assertThat(isAncestor(create("file://laptop/My%20Documents"), create("file://laptop/My%20Documents/FileSchemeURIs.doc"))).isTrue();
+  void initialize_does_not_crash_when_no_folders() {
+    underTest.initialize(null);
+
+    assertThat(underTest.getAll()).isEmpty();
   }
 
   @Test
@@ -0,0 +1,158 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.java;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient;
+import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient.GetJavaConfigResponse;
+import org.sonarsource.sonarlint.ls.file.OpenFilesCache;
+import testutils.SonarLintLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JavaConfigCacheTests {
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  @TempDir
+  Path projectRoot;
+  @TempDir
+  Path storeDir;
+
+  private final SonarLintExtendedLanguageClient client = mock(SonarLintExtendedLanguageClient.class);
+  private JavaConfigCache underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new JavaConfigCache(client, new OpenFilesCache(logTester.getLogger()), logTester.getLogger(),
+      new JavaConfigStore(() -> storeDir, logTester.getLogger()));
+  }
+
+  @Test
+  void should_share_configuration_of_files_of_the_same_project() {
+    var library = projectRoot.resolve("lib.jar").toString();
+    when(client.getJavaConfig(anyString())).thenAnswer(invocation -> CompletableFuture.completedFuture(config(library)));
+
+    var firstConfig = underTest.getOrFetch(fileUri("src/main/java/foo/Foo.java"));
+    var secondConfig = underTest.getOrFetch(fileUri("src/main/java/bar/Bar.java"));
+
+    assertThat(firstConfig).isPresent();
+    assertThat(secondConfig).isPresent();
+    assertThat(secondConfig.get()).isSameAs(firstConfig.get());
+  }
+
+  @Test
+  void should_only_check_classpath_entries_again_after_classpath_update() throws IOException {
+    var library = Files.createFile(projectRoot.resolve("lib.jar")).toString();
+    when(client.getJavaConfig(anyString())).thenAnswer(invocation -> CompletableFuture.completedFuture(config(library)));
+    var fileUri = fileUri("src/main/java/foo/Foo.java");
+    var javaConfig = underTest.getOrFetch(fileUri).get();
+
+    assertThat(underTest.configureJavaProperties(List.of(fileUri), Map.of(fileUri, javaConfig))).containsEntry("sonar.java.libraries", library);
+
+    Files.delete(Path.of(library));
+    assertThat(underTest.configureJavaProperties(List.of(fileUri), Map.of(fileUri, javaConfig))).containsEntry("sonar.java.libraries", library);
+
+    underTest.didClasspathUpdate(projectRoot.toUri());
+    var refreshedConfig = underTest.getOrFetch(fileUri).get();
+
+    assertThat(underTest.configureJavaProperties(List.of(fileUri), Map.of(fileUri, refreshedConfig))).containsEntry("sonar.java.libraries", "");
+    assertThat(logTester.logs()).anyMatch(log -> log.contains("Classpath \"" + library + "\" from configuration does not exist, skipped"));
+  }
+
+  @Test
+  void should_share_pending_request_between_files_of_the_same_directory() {
+    var pendingResponse = new CompletableFuture<GetJavaConfigResponse>();
+    when(client.getJavaConfig(anyString())).thenReturn(pendingResponse);
+    var fooUri = fileUri("src/main/java/foo/Foo.java");
+    var barUri = fileUri("src/main/java/foo/Bar.java");
+
+    underTest.prefetch(fooUri);
+    underTest.prefetch(barUri);
+    pendingResponse.complete(config(projectRoot.resolve("lib.jar").toString()));
+    var javaConfigs = underTest.getOrFetch(List.of(fooUri, barUri));
+
+    verify(client, times(1)).getJavaConfig(anyString());
+    assertThat(javaConfigs).containsOnlyKeys(fooUri, barUri);
+    assertThat(javaConfigs.get(fooUri)).isPresent();
+    assertThat(javaConfigs.get(barUri).get()).isSameAs(javaConfigs.get(fooUri).get());
+  }
+
+  @Test
+  void should_fetch_own_configuration_when_shared_one_is_of_another_project() {
+    var fooUri = fileUri("src/main/java/foo/Foo.java");
+    var barUri = fileUri("src/main/java/foo/Bar.java");
+    var pendingFooResponse = new CompletableFuture<GetJavaConfigResponse>();
+    var otherProjectConfig = config(projectRoot.resolve("lib.jar").toString());
+    otherProjectConfig.setProjectRoot(projectRoot.resolve("other").toUri().toString());
+    when(client.getJavaConfig(fooUri.toString())).thenReturn(pendingFooResponse);
+    when(client.getJavaConfig(barUri.toString())).thenReturn(CompletableFuture.completedFuture(config(projectRoot.resolve("lib.jar").toString())));
+
+    underTest.prefetch(fooUri);
+    underTest.prefetch(barUri);
+    pendingFooResponse.complete(otherProjectConfig);
+    var javaConfigs = underTest.getOrFetch(List.of(fooUri, barUri));
+
+    verify(client).getJavaConfig(barUri.toString());
+    assertThat(javaConfigs.get(barUri).get().getProjectRoot()).isEqualTo(projectRoot.toUri().toString());
+  }
+
+  @Test
+  void should_map_files_without_configuration_to_empty_result() {
+    var fooUri = fileUri("src/main/java/foo/Foo.java");
+    var barUri = fileUri("src/main/java/bar/Bar.java");
+    when(client.getJavaConfig(fooUri.toString())).thenReturn(CompletableFuture.completedFuture(config(projectRoot.resolve("lib.jar").toString())));
+    when(client.getJavaConfig(barUri.toString())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("No project")));
+
+    var javaConfigs = underTest.getOrFetch(List.of(fooUri, barUri));
+
+    assertThat(javaConfigs.get(fooUri)).isPresent();
+    assertThat(javaConfigs.get(barUri)).isEmpty();
+  }
+
+  private URI fileUri(String relativePath) {
+    return projectRoot.resolve(relativePath).toUri();
+  }
+
+  private GetJavaConfigResponse config(String classpathEntry) {
+    var config = new GetJavaConfigResponse();
+    config.setProjectRoot(projectRoot.toUri().toString());
+    config.setTest(false);
+    config.setSourceLevel("17");
+    config.setClasspath(new String[] {classpathEntry});
+    return config;
+  }
+}
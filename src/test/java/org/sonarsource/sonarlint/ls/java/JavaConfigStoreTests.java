@@ -0,0 +1,142 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.java;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient.GetJavaConfigResponse;
+import testutils.SonarLintLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JavaConfigStoreTests {
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  @TempDir
+  Path storeDir;
+  @TempDir
+  Path projectRoot;
+
+  private JavaConfigStore underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new JavaConfigStore(() -> storeDir, logTester.getLogger());
+  }
+
+  @Test
+  void should_find_persisted_config_of_nearest_known_directory_after_restart() {
+    underTest.save(fileUri("src/main/java/foo/Foo.java"), config(false, "main.jar"));
+    underTest.save(fileUri("src/test/java/foo/FooTest.java"), config(true, "test.jar"));
+
+    var afterRestart = new JavaConfigStore(() -> storeDir, logTester.getLogger());
+
+    var mainConfig = afterRestart.find(fileUri("src/main/java/foo/bar/Bar.java"));
+    assertThat(mainConfig).isPresent();
+    assertThat(mainConfig.get().isTest()).isFalse();
+    assertThat(mainConfig.get().getClasspath()).containsExactly("main.jar");
+    assertThat(mainConfig.get().getSourceLevel()).isEqualTo("17");
+    assertThat(mainConfig.get().getProjectRoot()).isEqualTo(projectRoot.toUri().toString());
+    var testConfig = afterRestart.find(fileUri("src/test/java/foo/OtherTest.java"));
+    assertThat(testConfig).isPresent();
+    assertThat(testConfig.get().isTest()).isTrue();
+    assertThat(testConfig.get().getClasspath()).containsExactly("test.jar");
+  }
+
+  @Test
+  void should_not_guess_config_of_unknown_directory() {
+    underTest.save(fileUri("src/main/java/foo/Foo.java"), config(false, "main.jar"));
+
+    assertThat(underTest.find(fileUri("src/it/java/foo/FooIT.java"))).isEmpty();
+    assertThat(underTest.find(URI.create("untitled:Untitled-1"))).isEmpty();
+  }
+
+  @Test
+  void should_not_remember_directories_without_store() {
+    var reader = new JavaConfigStore(() -> storeDir, logTester.getLogger());
+    assertThat(reader.find(fileUri("src/main/java/foo/Foo.java"))).isEmpty();
+
+    underTest.save(fileUri("src/main/java/foo/Foo.java"), config(false, "main.jar"));
+
+    assertThat(reader.find(fileUri("src/main/java/foo/Foo.java"))).isPresent();
+  }
+
+  @Test
+  void should_keep_latest_config_of_project() {
+    underTest.save(fileUri("src/main/java/foo/Foo.java"), config(false, "old.jar"));
+    underTest.save(fileUri("src/main/java/foo/Foo.java"), config(false, "new.jar"));
+
+    var afterRestart = new JavaConfigStore(() -> storeDir, logTester.getLogger());
+
+    assertThat(afterRestart.find(fileUri("src/main/java/foo/Foo.java")).get().getClasspath()).containsExactly("new.jar");
+  }
+
+  @Test
+  void should_delete_persisted_config_on_eviction() throws IOException {
+    underTest.save(fileUri("src/main/java/foo/Foo.java"), config(false, "main.jar"));
+    assertThat(listStoreFiles()).hasSize(1);
+
+    underTest.evict(projectRoot.toUri());
+
+    assertThat(listStoreFiles()).isEmpty();
+    assertThat(underTest.find(fileUri("src/main/java/foo/Foo.java"))).isEmpty();
+    assertThat(logTester.logs()).anyMatch(log -> log.contains("Evicted persisted Java config for project"));
+  }
+
+  @Test
+  void should_ignore_corrupted_store() throws IOException {
+    underTest.save(fileUri("src/main/java/foo/Foo.java"), config(false, "main.jar"));
+    try (var storeFiles = Files.list(storeDir)) {
+      Files.writeString(storeFiles.findFirst().get(), "{not json");
+    }
+
+    var afterRestart = new JavaConfigStore(() -> storeDir, logTester.getLogger());
+
+    assertThat(afterRestart.find(fileUri("src/main/java/foo/Foo.java"))).isEmpty();
+  }
+
+  private URI fileUri(String relativePath) {
+    return projectRoot.resolve(relativePath).toUri();
+  }
+
+  private List<Path> listStoreFiles() throws IOException {
+    try (var storeFiles = Files.list(storeDir)) {
+      return storeFiles.toList();
+    }
+  }
+
+  private GetJavaConfigResponse config(boolean isTest, String classpathEntry) {
+    var config = new GetJavaConfigResponse();
+    config.setProjectRoot(projectRoot.toUri().toString());
+    config.setTest(isTest);
+    config.setSourceLevel("17");
+    config.setClasspath(new String[] {classpathEntry});
+    return config;
+  }
+}
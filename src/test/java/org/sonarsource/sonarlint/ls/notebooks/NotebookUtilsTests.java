@@ -23,18 +23,17 @@ import java.util.List;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
-import org.eclipse.lsp4j.TextDocumentItem;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.sonarsource.sonarlint.ls.file.PieceTable;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class NotebookUtilsTests {
-  TextDocumentItem originalCell;
+  PieceTable originalCell;
   @BeforeEach
   void setup() {
-    originalCell = new TextDocumentItem();
-    originalCell.setText("""
+    originalCell = PieceTable.of("""
       print("hello")
 
       a = True
@@ -45,7 +44,7 @@ class NotebookUtilsTests {
   void shouldApplySingleLineChangeOnTheFirstLine() {
     var textChange = newChange(0, 1, 0, 4, "a");
 
-    var changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(textChange));
+    var changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(textChange)).getText();
     var expectedNewContent = """
       pat("hello")
       
@@ -59,7 +58,7 @@ class NotebookUtilsTests {
   void shouldApplySingleLineChangeOnTheSecondLine() {
     var textChange = newChange(1, 0, 1, 0, "c = 42");
 
-    var changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(textChange));
+    var changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(textChange)).getText();
     var expectedNewContent = """
       print("hello")
       c = 42
@@ -74,7 +73,7 @@ class NotebookUtilsTests {
     var firstChange = newChange(3, 4, 3, 9, "0");
     var secondChange = newChange(2, 4, 2, 8, "1");
 
-    var changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(firstChange, secondChange));
+    var changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(firstChange, secondChange)).getText();
     var expectedNewContent = """
       print("hello")
       
@@ -89,7 +88,7 @@ class NotebookUtilsTests {
     var firstChange = newChange(0, 7, 0, 12, "hi");
     var secondChange = newChange(3, 4, 3, 9, "0");
 
-    var changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(firstChange, secondChange));
+    var changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(firstChange, secondChange)).getText();
     var expectedNewContent = """
       print("hi")
       
@@ -104,7 +103,7 @@ class NotebookUtilsTests {
     var firstChange = newChange(2, 4, 2, 8, "0");
     var secondChange = newChange(2, 0, 2, 1, "c");
 
-    var changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(firstChange, secondChange));
+    var changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(firstChange, secondChange)).getText();
     var expectedNewContent = "print(\"hello\")\n" +
       "\n" +
       "c = 0\n" +
@@ -119,7 +118,7 @@ class NotebookUtilsTests {
     var textChange2 = newChange(0, 0, 0, 1, "d");
     var textChange3 = newChange(0, 7, 0, 9, "hello");
 
-    var changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(textChange1, textChange2, textChange3));
+    var changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(textChange1, textChange2, textChange3)).getText();
     var expectedNewContent = "dat(\"hellollo\")\n" +
       "\n" +
       "a = True\n" +
@@ -132,7 +131,7 @@ class NotebookUtilsTests {
   void shouldApplySingleLineChangeAtTheEndOfFile() {
     var textChange = newChange(3, 1 ,3, 1, "oo");
 
-    var changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(textChange));
+    var changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(textChange)).getText();
     var expectedNewContent = "print(\"hello\")\n" +
       "\n" +
       "a = True\n" +
@@ -145,7 +144,7 @@ class NotebookUtilsTests {
   void shouldApplyMultiLineDeletion() {
     var textChange = newChange(1, 0, 2, 8, "");
 
-    var changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(textChange));
+    var changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(textChange)).getText();
     var expectedNewContent = """
       print("hello")
 
@@ -158,7 +157,7 @@ class NotebookUtilsTests {
   void shouldApplyMultiLineChangeWithEmptyLine() {
     var textChange = newChange(1, 0, 2, 8, "\n");
 
-    var changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(textChange));
+    var changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(textChange)).getText();
     var expectedNewContent = """
       print("hello")
 
@@ -172,7 +171,7 @@ class NotebookUtilsTests {
   void shouldAddAndDeleteLastLine() {
     var textChange = newChange(3, 9, 3, 9, "\n");
 
-    String changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(textChange));
+    String changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(textChange)).getText();
     String expectedNewContent = """
       print("hello")
 
@@ -180,11 +179,11 @@ class NotebookUtilsTests {
       b = False
       """;
     assertThat(changedContent).isEqualTo(expectedNewContent);
-    originalCell.setText(changedContent);
+    originalCell = PieceTable.of(changedContent);
 
     textChange = newChange(3, 9, 4, 0, "");
 
-    changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(textChange));
+    changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(textChange)).getText();
     expectedNewContent = """
       print("hello")
 
@@ -197,7 +196,7 @@ class NotebookUtilsTests {
   void shouldDeleteFirstLine() {
     var textChange = newChange(0, 0, 0, 14, "");
 
-    var changedContent = NotebookUtils.applyChangeToCellContent(originalCell, List.of(textChange));
+    var changedContent = NotebookUtils.applyChangesToCellContent(originalCell, List.of(textChange)).getText();
     var expectedNewContent = """
 
       
@@ -21,6 +21,11 @@ package org.sonarsource.sonarlint.ls.notebooks;
 
 import java.net.URI;
 import java.util.List;
+import org.eclipse.lsp4j.NotebookCellArrayChange;
+import org.eclipse.lsp4j.NotebookDocumentChangeEvent;
+import org.eclipse.lsp4j.NotebookDocumentChangeEventCellStructure;
+import org.eclipse.lsp4j.NotebookDocumentChangeEventCells;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.TextDocumentItem;
 import org.junit.jupiter.api.Test;
 import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
@@ -114,4 +119,45 @@ class OpenNotebooksCacheTests extends AbstractLanguageServerMediumTests {
     assertThat(underTest.isKnownCellUri(URI.create(notebookUri + "dsdas"))).isFalse();
   }
 
+  @Test
+  void shouldTrackCellUrisOnStructureChangeAndClose() {
+    var notebookUri = URI.create("file:///some/notebook.ipynb");
+    var otherNotebookUri = URI.create("file:///some/other.ipynb");
+
+    var cell1 = new TextDocumentItem();
+    cell1.setUri(notebookUri + "#cell1");
+    cell1.setText("cell1 line1\n");
+
+    var cell2 = new TextDocumentItem();
+    cell2.setUri(notebookUri + "#cell2");
+    cell2.setText("cell2 line1\n");
+
+    var otherCell = new TextDocumentItem();
+    otherCell.setUri(otherNotebookUri + "#cell1");
+    otherCell.setText("other line1\n");
+
+    var underTest = new OpenNotebooksCache(mock(LanguageClientLogger.class), mock(NotebookDiagnosticPublisher.class));
+    underTest.didOpen(notebookUri, 1, List.of(cell1));
+    underTest.didOpen(otherNotebookUri, 1, List.of(otherCell));
+
+    var changeEvent = new NotebookDocumentChangeEvent();
+    var changeEventCells = new NotebookDocumentChangeEventCells();
+    var structureChange = new NotebookDocumentChangeEventCellStructure();
+    structureChange.setArray(new NotebookCellArrayChange(0, 1));
+    structureChange.setDidOpen(List.of(cell2));
+    structureChange.setDidClose(List.of(new TextDocumentIdentifier(cell1.getUri())));
+    changeEventCells.setStructure(structureChange);
+    changeEvent.setCells(changeEventCells);
+    underTest.didChange(notebookUri, 2, changeEvent);
+
+    assertThat(underTest.isKnownCellUri(URI.create(cell1.getUri()))).isFalse();
+    assertThat(underTest.getNotebookUriFromCellUri(URI.create(cell2.getUri()))).isEqualTo(notebookUri);
+    assertThat(underTest.getNotebookUriFromCellUri(URI.create(otherCell.getUri()))).isEqualTo(otherNotebookUri);
+
+    underTest.didClose(notebookUri);
+
+    assertThat(underTest.isKnownCellUri(URI.create(cell2.getUri()))).isFalse();
+    assertThat(underTest.isKnownCellUri(URI.create(otherCell.getUri()))).isTrue();
+  }
+
 }
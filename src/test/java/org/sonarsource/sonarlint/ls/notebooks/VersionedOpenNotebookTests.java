@@ -441,6 +441,8 @@ public class VersionedOpenNotebookTests {
     underTest.didChange(2, changeEvent);
 
     assertThat(underTest.getNotebookVersion()).isEqualTo(2);
+    assertThat(underTest.getCellVersion(tmpUri + "#cell1")).contains(0);
+    assertThat(underTest.getCellVersion(tmpUri + "#cell2")).contains(2);
     assertThat(underTest.getContent()).isEqualTo("" +
       "cell1 line1\n" +
       "cell1 line2\n" +
@@ -454,6 +456,91 @@ public class VersionedOpenNotebookTests {
       "cell3 line2\n");
   }
 
+  @Test
+  void shouldUpdateLineMappingOnContentChange() {
+    var tmpUri = URI.create("file:///some/notebook.ipynb");
+    var underTest = createTestNotebookWithThreeCells(tmpUri);
+    var issue = mock(DelegatingFinding.class);
+    when(issue.getTextRange()).thenReturn(new TextRangeDto(4, 0, 5, 3));
+    var raisedFinding = mockRaisedFinding(null);
+    when(issue.getFinding()).thenReturn(raisedFinding);
+
+    var changeEvent = new NotebookDocumentChangeEvent();
+    var changeEventCells = new NotebookDocumentChangeEventCells();
+    var textContents = new NotebookDocumentChangeEventCellTextContent();
+    var documentIdentifier = new VersionedTextDocumentIdentifier();
+    var change = new TextDocumentContentChangeEvent();
+
+    documentIdentifier.setVersion(2);
+    documentIdentifier.setUri(tmpUri + "#cell1");
+    textContents.setDocument(documentIdentifier);
+    change.setRange(new Range(new Position(0, 11), new Position(1, 11)));
+    change.setText("");
+
+    textContents.setChanges(List.of(change));
+    changeEventCells.setTextContent(List.of(textContents));
+    changeEvent.setCells(changeEventCells);
+
+    underTest.didChange(2, changeEvent);
+
+    assertThat(underTest.getContent()).isEqualTo("" +
+      "cell1 line1\n" +
+      "\n" +
+      SONAR_PYTHON_NOTEBOOK_CELL_DELIMITER +
+      "cell2 line1\n" +
+      "cell2 line2\n" +
+      "\n" +
+      SONAR_PYTHON_NOTEBOOK_CELL_DELIMITER +
+      "cell3 line1\n" +
+      "cell3 line2\n");
+    assertThat(underTest.getCellUri(3)).contains(URI.create(tmpUri + "#cell1"));
+    assertThat(underTest.getCellUri(4)).contains(URI.create(tmpUri + "#cell2"));
+    assertThat(underTest.getCellUri(8)).contains(URI.create(tmpUri + "#cell3"));
+    assertThat(underTest.getCellUri(10)).contains(URI.create(tmpUri + "#cell3"));
+    assertThat(underTest.getCellUri(11)).isEmpty();
+
+    var cellIssue = underTest.toCellIssue(issue);
+
+    assertThat(cellIssue.getStartLine()).isEqualTo(1);
+    assertThat(cellIssue.getEndLine()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldOnlyJoinCellsOncePerVersion() {
+    var tmpUri = URI.create("file:///some/notebook.ipynb");
+    var underTest = createTestNotebookWithThreeCells(tmpUri);
+
+    var firstVersion = underTest.asVersionedOpenFile();
+    assertThat(underTest.asVersionedOpenFile()).isSameAs(firstVersion);
+
+    var changeEvent = new NotebookDocumentChangeEvent();
+    var changeEventCells = new NotebookDocumentChangeEventCells();
+    var textContents = new NotebookDocumentChangeEventCellTextContent();
+    var documentIdentifier = new VersionedTextDocumentIdentifier();
+    var change = new TextDocumentContentChangeEvent();
+
+    documentIdentifier.setVersion(2);
+    documentIdentifier.setUri(tmpUri + "#cell3");
+    textContents.setDocument(documentIdentifier);
+    change.setRange(new Range(new Position(2, 0), new Position(2, 0)));
+    change.setText("cell3 line3");
+
+    textContents.setChanges(List.of(change));
+    changeEventCells.setTextContent(List.of(textContents));
+    changeEvent.setCells(changeEventCells);
+
+    underTest.didChange(2, changeEvent);
+
+    var secondVersion = underTest.asVersionedOpenFile();
+    assertThat(secondVersion).isNotSameAs(firstVersion);
+    assertThat(secondVersion.getVersion()).isEqualTo(2);
+    assertThat(secondVersion.getContent()).endsWith(SONAR_PYTHON_NOTEBOOK_CELL_DELIMITER +
+      "cell3 line1\n" +
+      "cell3 line2\n" +
+      "cell3 line3");
+    assertThat(firstVersion.getContent()).endsWith("cell3 line2\n");
+  }
+
   @Test
   void shouldHandleMultiContentChange() {
     var tmpUri = URI.create("file:///some/notebook.ipynb");
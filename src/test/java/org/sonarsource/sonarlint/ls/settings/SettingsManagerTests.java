@@ -56,10 +56,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.entry;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.sonarsource.sonarlint.ls.settings.SettingsManager.ANALYSIS_EXCLUDES;
@@ -417,6 +419,47 @@ class SettingsManagerTests {
     assertThat(settings.getProjectKey()).isEqualTo("myProject");
   }
 
+  @Test
+  void shouldRequestConfigurationOfAllFoldersBeforeWaitingForResponses() {
+    var otherFolderUri = URI.create("file://bar");
+    var globalConfiguration = new CompletableFuture<Map<String, Object>>();
+    doReturn(globalConfiguration).when(underTest).requestSonarLintAndOmnisharpConfigurationAsync(null);
+    mockConfigurationRequest(FOLDER_URI, """
+      {
+        "connectedMode": {
+          "project": {
+            "connectionId": "sq1",
+            "projectKey": "myProject"
+          }
+        }
+      }
+      """);
+    doAnswer(invocation -> {
+      // The global configuration is only available once all folders have been queried
+      globalConfiguration.complete(fromJsonString(FULL_SAMPLE_CONFIG));
+      return CompletableFuture.completedFuture(fromJsonString("""
+        {
+          "connectedMode": {
+            "project": {
+              "connectionId": "sq2",
+              "projectKey": "otherProject"
+            }
+          }
+        }
+        """));
+    }).when(underTest).requestSonarLintAndOmnisharpConfigurationAsync(otherFolderUri);
+    var folderWrapper = new WorkspaceFolderWrapper(FOLDER_URI, new WorkspaceFolder(), logTester.getLogger());
+    var otherFolderWrapper = new WorkspaceFolderWrapper(otherFolderUri, new WorkspaceFolder(), logTester.getLogger());
+    when(foldersManager.getAll()).thenReturn(List.of(folderWrapper, otherFolderWrapper));
+
+    underTest.didChangeConfiguration();
+
+    assertThat(underTest.getCurrentSettings().getServerConnections()).containsKeys("sq1", "sq2");
+    assertThat(folderWrapper.getSettings().getProjectKey()).isEqualTo("myProject");
+    assertThat(otherFolderWrapper.getSettings().getProjectKey()).isEqualTo("otherProject");
+    assertThat(otherFolderWrapper.getSettings().getConnectionId()).isEqualTo("sq2");
+  }
+
   @Test
   void shouldLogAnErrorIfAmbiguousConnectionId() {
     mockConfigurationRequest(null, FULL_SAMPLE_CONFIG);
@@ -740,6 +783,95 @@ class SettingsManagerTests {
       .anyMatch(log -> log.contains("Can't get token for server https://mysonarqube1.mycompany.org"));
   }
 
+  @Test
+  void shouldOnlyRequestTokensAgainForUpdatedConnection() {
+    mockConfigurationRequest(null, FULL_SAMPLE_CONFIG);
+    underTest.didChangeConfiguration();
+    underTest.didChangeConfiguration();
+
+    verify(client, times(1)).getTokenForServer("https://mysonarqube1.mycompany.org");
+    verify(client, times(1)).getTokenForServer("EU_myOrga1");
+
+    underTest.didUpdateToken("sq1", "updated-token");
+    underTest.didChangeConfiguration();
+
+    verify(client, times(1)).getTokenForServer("https://mysonarqube1.mycompany.org");
+    assertThat(underTest.getCurrentSettings().getServerConnections().get("sq1").getToken()).isEqualTo("updated-token");
+    assertThat(underTest.getCurrentSettings().getServerConnections().get("sq2").getToken()).isEqualTo("token-from-storage");
+  }
+
+  @Test
+  void shouldRequestTokenAgainAfterFailure() {
+    when(client.getTokenForServer(any()))
+      .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Secret storage unavailable")))
+      .thenReturn(CompletableFuture.completedFuture("token-from-storage"));
+    mockConfigurationRequest(null, """
+      {
+        "connectedMode": {
+          "connections": {
+            "sonarqube": [
+              { "connectionId": "sq1", "serverUrl": "https://mysonarqube1.mycompany.org" }
+            ]
+          }
+        }
+      }
+      """);
+    underTest.didChangeConfiguration();
+    underTest.didChangeConfiguration();
+
+    verify(client, times(2)).getTokenForServer("https://mysonarqube1.mycompany.org");
+    assertThat(underTest.getCurrentSettings().getServerConnections().get("sq1").getToken()).isEqualTo("token-from-storage");
+  }
+
+  @Test
+  void shouldRequestTokenAgainWhenNotStoredYet() {
+    when(client.getTokenForServer(any()))
+      .thenReturn(CompletableFuture.completedFuture(null))
+      .thenReturn(CompletableFuture.completedFuture(" "))
+      .thenReturn(CompletableFuture.completedFuture("token-from-storage"));
+    mockConfigurationRequest(null, """
+      {
+        "connectedMode": {
+          "connections": {
+            "sonarqube": [
+              { "connectionId": "sq1", "serverUrl": "https://mysonarqube1.mycompany.org" }
+            ]
+          }
+        }
+      }
+      """);
+    underTest.didChangeConfiguration();
+    underTest.didChangeConfiguration();
+    underTest.didChangeConfiguration();
+    underTest.didChangeConfiguration();
+
+    verify(client, times(3)).getTokenForServer("https://mysonarqube1.mycompany.org");
+    assertThat(underTest.getCurrentSettings().getServerConnections().get("sq1").getToken()).isEqualTo("token-from-storage");
+  }
+
+  @Test
+  void shouldRequestTokenAgainAfterConnectionWasRemovedAndAddedBack() {
+    var connectionConfig = """
+      {
+        "connectedMode": {
+          "connections": {
+            "sonarqube": [
+              { "connectionId": "sq1", "serverUrl": "https://mysonarqube1.mycompany.org" }
+            ]
+          }
+        }
+      }
+      """;
+    mockConfigurationRequest(null, connectionConfig);
+    underTest.didChangeConfiguration();
+    mockConfigurationRequest(null, "{}");
+    underTest.didChangeConfiguration();
+    mockConfigurationRequest(null, connectionConfig);
+    underTest.didChangeConfiguration();
+
+    verify(client, times(2)).getTokenForServer("https://mysonarqube1.mycompany.org");
+  }
+
   @Test
   void shouldReturnUntouchedNonNullConnectionId() {
     var connectionId = "connectionId";
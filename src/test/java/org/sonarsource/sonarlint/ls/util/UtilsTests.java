@@ -27,8 +27,6 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageServer.ConnectionCheckParams;
-import org.sonarsource.sonarlint.ls.connected.DelegatingFinding;
-import org.sonarsource.sonarlint.ls.notebooks.DelegatingCellIssue;
 import testutils.SonarLintLogTester;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -38,7 +36,6 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.sonarsource.sonarlint.ls.util.Utils.getValidateConnectionParamsForNewConnection;
-import static org.sonarsource.sonarlint.ls.util.Utils.isDelegatingIssueWithServerIssueKey;
 
 class UtilsTests {
 
@@ -113,22 +110,6 @@ class UtilsTests {
     assertThat(futureResult).hasValue(42);
   }
 
-  @Test
-  void isDelegatingIssueWithServerIssueKeyTest() {
-    var delegatingIssueWithServerKey = mock(DelegatingFinding.class);
-    when(delegatingIssueWithServerKey.getServerIssueKey()).thenReturn("serverIssueKey");
-    var delegatingIssueWithoutServerKey = mock(DelegatingFinding.class);
-    var delegatingCellIssue = mock(DelegatingCellIssue.class);
-
-    var delegatingIssueWithServerKeyResult = isDelegatingIssueWithServerIssueKey("serverIssueKey", delegatingIssueWithServerKey);
-    var delegatingIssueWithoutServerKeyResult = isDelegatingIssueWithServerIssueKey("serverIssueKey", delegatingIssueWithoutServerKey);
-    var delegatingCellIssueResult = isDelegatingIssueWithServerIssueKey("serverIssueKey", delegatingCellIssue);
-
-    assertThat(delegatingIssueWithServerKeyResult).isTrue();
-    assertThat(delegatingIssueWithoutServerKeyResult).isFalse();
-    assertThat(delegatingCellIssueResult).isFalse();
-  }
-
   @Test
   void getValidateConnectionParamsForNewSonarCloudConnection() {
     var myScOrganization = "my SC organization";